@@ -0,0 +1,52 @@
+package com.groceryapp.backend.config;
+
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.groceryapp.backend.model.Product;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bounded in-process caches for product reads
+ * Caches are declared up front so their hit/miss statistics are exported through actuator metrics.
+ * Entries are evicted by ProductCacheEvictor when a product changes; VersionedCaffeineCache keeps a
+ * load that raced that eviction out of the cache. Product entities are copied in and out, so the
+ * detached instance a caller gets is its own.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_DTOS = "productDtos";
+    
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.products.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTS, PRODUCT_DTOS) {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new VersionedCaffeineCache(name, cache, isAllowNullValues(),
+                        PRODUCTS.equals(name) ? CacheConfig::copyProduct : value -> value);
+            }
+        };
+        cacheManager.setCaffeineSpec(CaffeineSpec.parse(spec));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+    
+    // Shallow: category, subcategory and brand are shared reference data
+    private static Object copyProduct(Object value) {
+        if (!(value instanceof Product product)) {
+            return value;
+        }
+        Product copy = new Product();
+        BeanUtils.copyProperties(product, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,76 @@
+package com.groceryapp.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caffeine cache that never keeps a value loaded before a concurrent eviction
+ *
+ * A miss records how many evictions the cache has seen; when the loaded value is put, it is
+ * dropped again if an eviction happened since. A reader that loaded the pre-commit row therefore
+ * cannot outlive ProductCacheEvictor's after-commit eviction. Values are copied on put and on read,
+ * so callers never share an instance with each other or with the cache.
+ */
+class VersionedCaffeineCache extends CaffeineCache {
+
+    private final UnaryOperator<Object> copier;
+    private final AtomicLong evictions = new AtomicLong();
+    private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+
+    VersionedCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues, UnaryOperator<Object> copier) {
+        super(name, cache, allowNullValues);
+        this.copier = copier;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value == null) {
+            lastMiss.set(new Miss(key, evictions.get()));
+            return null;
+        }
+        return copier.apply(value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Miss miss = lastMiss.get();
+        lastMiss.remove();
+        super.put(key, copier.apply(value));
+        // Checked after the put: an eviction either ran before it and is seen here, or runs after it
+        if (miss != null && Objects.equals(miss.key(), key) && evictions.get() != miss.evictions()) {
+            super.evict(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictions.incrementAndGet();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evictions.incrementAndGet();
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        evictions.incrementAndGet();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        evictions.incrementAndGet();
+        return super.invalidate();
+    }
+
+    private record Miss(Object key, long evictions) {
+    }
+}
@@ -1,14 +1,21 @@
 package com.groceryapp.backend.controller;
 
+import com.groceryapp.backend.dto.ProductImportReportDto;
 import com.groceryapp.backend.repository.UserRepository;
+import com.groceryapp.backend.service.ProductImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
@@ -24,41 +31,43 @@ public class AdminController {
     
     private final JdbcTemplate jdbcTemplate;
     private final UserRepository userRepository;
+    private final ProductImportService productImportService;
     
+    @Value("${app.catalog.import.file:}")
+    private String importFile;
+    
+    /**
+     * Import the catalog feed configured in app.catalog.import.file (CSV or NDJSON, by extension)
+     * e.g. POST /admin/load-products?mode=UPSERT for the nightly supplier sync
+     */
     @PostMapping("/load-products")
-    public ResponseEntity<Map<String, Object>> loadProducts() {
+    public ResponseEntity<Map<String, Object>> loadProducts(
+            @RequestParam(defaultValue = "INSERT") ProductImportService.Mode mode) {
         Map<String, Object> response = new HashMap<>();
         
+        if (importFile == null || importFile.isBlank()) {
+            response.put("success", false);
+            response.put("error", "app.catalog.import.file is not configured");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
         try {
-            log.info("Starting product load from SQL file...");
-            
-            // Read the SQL file from the project root
-            String sqlFilePath = "c:\\Vamsi\\React js\\App\\Grocery Store\\Grocery Store Backend JavaSpringboot\\COMPLETE_784_PRODUCTS.sql";
-            String sql = Files.readString(Paths.get(sqlFilePath), StandardCharsets.UTF_8);
-            
-            // Split by semicolon and execute each statement
-            String[] statements = sql.split(";");
-            int executedCount = 0;
-            
-            for (String statement : statements) {
-                String trimmed = statement.trim();
-                if (!trimmed.isEmpty() && !trimmed.startsWith("--")) {
-                    try {
-                        jdbcTemplate.execute(trimmed);
-                        executedCount++;
-                    } catch (Exception e) {
-                        log.error("Error executing statement: " + trimmed.substring(0, Math.min(100, trimmed.length())), e);
-                        throw e;
-                    }
-                }
+            Path path = Paths.get(importFile);
+            log.info("Starting product load from {}", path);
+            
+            ProductImportReportDto report;
+            try (InputStream in = Files.newInputStream(path)) {
+                report = productImportService.importProducts(in,
+                        ProductImportService.Format.detect(path.getFileName().toString(), null), mode);
             }
             
             // Get total product count
             Integer totalProducts = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class);
             
             response.put("success", true);
-            response.put("message", "Products loaded successfully");
-            response.put("statementsExecuted", executedCount);
+            response.put("message", "Inserted " + report.getInserted() + ", updated " + report.getUpdated()
+                    + ", unchanged " + report.getUnchanged() + ", failed " + report.getFailed());
+            response.put("report", report);
             response.put("totalProducts", totalProducts);
             
             log.info("Product load completed. Total products: {}", totalProducts);
@@ -73,6 +82,26 @@ public class AdminController {
         }
     }
     
+    /**
+     * Import an uploaded catalog feed
+     * The format comes from the format parameter, else the file extension or content type.
+     * With mode=UPSERT rows are matched to existing products by SKU and unchanged ones skipped.
+     */
+    @PostMapping(value = "/products/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductImportReportDto> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) ProductImportService.Format format,
+            @RequestParam(defaultValue = "INSERT") ProductImportService.Mode mode) throws IOException {
+        log.info("Received product feed {} ({} bytes), mode: {}", file.getOriginalFilename(), file.getSize(), mode);
+        
+        ProductImportService.Format resolved = format != null
+                ? format
+                : ProductImportService.Format.detect(file.getOriginalFilename(), file.getContentType());
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(productImportService.importProducts(in, resolved, mode));
+        }
+    }
+    
     @GetMapping("/product-stats")
     public ResponseEntity<Map<String, Object>> getProductStats() {
         Map<String, Object> response = new HashMap<>();
@@ -1,6 +1,7 @@
 package com.groceryapp.backend.controller;
 
 import com.groceryapp.backend.dto.AddToCartRequestDto;
+import com.groceryapp.backend.dto.CartBatchRequestDto;
 import com.groceryapp.backend.dto.CartResponseDto;
 import com.groceryapp.backend.dto.UpdateCartItemRequestDto;
 import com.groceryapp.backend.service.CartService;
@@ -48,6 +49,16 @@ public class CartController {
         return ResponseEntity.ok(cart);
     }
     
+    @PatchMapping("/{userId}/items")
+    public ResponseEntity<CartResponseDto> applyCartBatch(
+            @PathVariable UUID userId,
+            @Valid @RequestBody CartBatchRequestDto requestDto) {
+        
+        log.info("Received request to apply {} cart operations for user: {}", requestDto.getOperations().size(), userId);
+        CartResponseDto cart = cartService.applyBatch(userId, requestDto);
+        return ResponseEntity.ok(cart);
+    }
+    
     @DeleteMapping("/items/{itemId}")
     public ResponseEntity<Void> removeItemFromCart(@PathVariable UUID itemId) {
         
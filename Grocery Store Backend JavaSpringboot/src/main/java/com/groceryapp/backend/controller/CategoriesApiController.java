@@ -1,12 +1,11 @@
 package com.groceryapp.backend.controller;
 
-import com.groceryapp.backend.service.ProductService;
+import com.groceryapp.backend.service.CatalogTaxonomy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * NEW Controller specifically for fetching all categories
@@ -19,19 +18,19 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class CategoriesApiController {
     
-    private final ProductService productService;
+    private final CatalogTaxonomy catalogTaxonomy;
+    private final PreparedJsonWriter preparedJsonWriter;
     
     /**
-     * Get all unique category names from products
+     * Get the names of active categories that have products, in display order
      * Accessible at: GET /api/v1/api-categories
+     * Served pre-serialized with an ETag; answers 304 when If-None-Match matches.
      * 
-     * @return List of all distinct category names
+     * @return List of category names
      */
     @GetMapping
-    public ResponseEntity<List<String>> getAllCategories() {
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
         log.info("✅ Received request to get all categories via NEW API");
-        List<String> categories = productService.getAllCategories();
-        log.info("✅ Found {} unique categories", categories.size());
-        return ResponseEntity.ok(categories);
+        return preparedJsonWriter.write(catalogTaxonomy.categoryNamesJson(), request);
     }
 }
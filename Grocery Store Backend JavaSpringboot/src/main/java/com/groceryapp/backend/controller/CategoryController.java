@@ -1,13 +1,16 @@
 package com.groceryapp.backend.controller;
 
-import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.dto.ProductPageDto;
+import com.groceryapp.backend.dto.ProductPageRequest;
+import com.groceryapp.backend.service.CatalogSnapshotCache;
+import com.groceryapp.backend.service.CatalogTaxonomy;
+import com.groceryapp.backend.service.PreparedJson;
 import com.groceryapp.backend.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Controller for category-based product retrieval
@@ -21,18 +24,34 @@ import java.util.List;
 public class CategoryController {
     
     private final ProductService productService;
+    private final CatalogTaxonomy catalogTaxonomy;
+    private final CatalogSnapshotCache catalogSnapshotCache;
+    private final PreparedJsonWriter preparedJsonWriter;
     
     /**
-     * Get all unique category names from products
+     * Get the names of active categories that have products, in display order
+     * Served pre-serialized with an ETag; answers 304 when If-None-Match matches.
      * 
-     * @return List of all distinct category names
+     * @return List of category names
      */
     @GetMapping
-    public ResponseEntity<List<String>> getAllCategories() {
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
         log.info("Received request to get all categories");
-        List<String> categories = productService.getAllCategories();
-        log.info("Found {} unique categories", categories.size());
-        return ResponseEntity.ok(categories);
+        PreparedJson categories = catalogTaxonomy.categoryNamesJson();
+        return preparedJsonWriter.write(categories, request);
+    }
+    
+    /**
+     * Get active categories with their active subcategories and product counts, in display order
+     * Served pre-serialized with an ETag; answers 304 when If-None-Match matches.
+     * 
+     * @return Category tree
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<byte[]> getCategoryTree(WebRequest request) {
+        log.info("Received request to get category tree");
+        PreparedJson tree = catalogTaxonomy.treeJson();
+        return preparedJsonWriter.write(tree, request);
     }
     
     /**
@@ -43,18 +62,41 @@ public class CategoryController {
      * - GET /categories/cold-drinks -> matches 'Cold Drinks'
      * - GET /categories/electronics -> matches 'Electronics'
      * 
+     * Served from a per-version snapshot with an ETag; answers 304 when If-None-Match matches.
+     * 
      * @param categoryName Category name in kebab-case or plain text
      * @return List of products in the specified category
      */
     @GetMapping("/{categoryName}")
-    public ResponseEntity<List<ProductResponseDto>> getProductsByCategoryName(
-            @PathVariable String categoryName) {
+    public ResponseEntity<byte[]> getProductsByCategoryName(
+            @PathVariable String categoryName,
+            WebRequest request) {
         
         log.info("Received request to get products by category name: {}", categoryName);
         
-        List<ProductResponseDto> products = productService.getProductsByCategoryName(categoryName);
+        return preparedJsonWriter.write(catalogSnapshotCache.productsByCategoryName(categoryName), request);
+    }
+    
+    /**
+     * Get one page of products by category name, selected when a page size is given
+     * 
+     * Example:
+     * - GET /categories/cold-drinks?size=24&sortBy=price -> first 24 'Cold Drinks' by price
+     * 
+     * @param categoryName Category name in kebab-case or plain text
+     * @param pageRequest Page size, cursor (nextCursor of the previous page) and sort
+     * @return One page of products in the specified category
+     */
+    @GetMapping(value = "/{categoryName}", params = "size")
+    public ResponseEntity<ProductPageDto> getProductsByCategoryNamePage(
+            @PathVariable String categoryName,
+            ProductPageRequest pageRequest) {
+        
+        log.info("Received request to get products page by category name: {}, Page: {}", categoryName, pageRequest);
+        
+        ProductPageDto page = productService.getProductsByCategoryNamePage(categoryName, pageRequest);
         
-        log.info("Found {} products for category: {}", products.size(), categoryName);
-        return ResponseEntity.ok(products);
+        log.info("Found {} products for category: {}, hasNext: {}", page.getSize(), categoryName, page.isHasNext());
+        return ResponseEntity.ok(page);
     }
 }
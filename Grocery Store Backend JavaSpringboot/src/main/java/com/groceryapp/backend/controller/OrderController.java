@@ -1,7 +1,9 @@
 package com.groceryapp.backend.controller;
 
+import com.groceryapp.backend.dto.CheckoutRequestDto;
 import com.groceryapp.backend.dto.CreateOrderRequestDto;
 import com.groceryapp.backend.dto.OrderResponseDto;
+import com.groceryapp.backend.dto.ReorderResponseDto;
 import com.groceryapp.backend.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,20 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.CREATED);
     }
     
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderResponseDto> checkout(@Valid @RequestBody CheckoutRequestDto requestDto) {
+        log.info("Received request to check out cart for user: {}", requestDto.getUserId());
+        OrderResponseDto order = orderService.checkout(requestDto);
+        return new ResponseEntity<>(order, HttpStatus.CREATED);
+    }
+    
+    @PostMapping("/{id}/reorder")
+    public ResponseEntity<ReorderResponseDto> reorder(@PathVariable UUID id) {
+        log.info("Received request to re-order order: {}", id);
+        ReorderResponseDto reorder = orderService.reorder(id);
+        return ResponseEntity.ok(reorder);
+    }
+    
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<OrderResponseDto>> getUserOrders(@PathVariable UUID userId) {
         log.info("Received request to get orders for user: {}", userId);
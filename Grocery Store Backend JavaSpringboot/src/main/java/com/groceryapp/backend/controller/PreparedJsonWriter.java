@@ -0,0 +1,78 @@
+package com.groceryapp.backend.controller;
+
+import com.groceryapp.backend.service.PreparedJson;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+
+/**
+ * Writes a PreparedJson body, picking the stored gzip variant when the client accepts it
+ * and answering 304 Not Modified when the client already has the representation.
+ * Responses are counted per encoding in catalog.snapshot.responses.
+ */
+@Component
+@RequiredArgsConstructor
+class PreparedJsonWriter {
+    
+    static final String RESPONSES_METRIC = "catalog.snapshot.responses";
+    
+    private final MeterRegistry meterRegistry;
+    
+    ResponseEntity<byte[]> write(PreparedJson json, WebRequest request) {
+        boolean gzip = json.gzipBody() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? json.gzipEtag() : json.etag();
+        
+        if (request.checkNotModified(etag)) {
+            count(gzip ? "gzip" : "identity", true);
+            // The 304 status and ETag header are already set on the response
+            return null;
+        }
+        count(gzip ? "gzip" : "identity", false);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(json.gzipBody());
+        }
+        return response.body(json.body());
+    }
+    
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            return parts.length < 2 || !isZeroQuality(parts[1]);
+        }
+        return false;
+    }
+    
+    private static boolean isZeroQuality(String parameter) {
+        String[] pair = parameter.trim().split("=");
+        if (pair.length != 2 || !pair[0].trim().equalsIgnoreCase("q")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(pair[1].trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    private void count(String encoding, boolean notModified) {
+        meterRegistry.counter(RESPONSES_METRIC, "encoding", encoding, "notModified", String.valueOf(notModified)).increment();
+    }
+}
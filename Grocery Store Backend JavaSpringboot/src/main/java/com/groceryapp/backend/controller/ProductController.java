@@ -1,15 +1,31 @@
 package com.groceryapp.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductPageDto;
+import com.groceryapp.backend.dto.ProductPageRequest;
+import com.groceryapp.backend.dto.ProductRailsDto;
 import com.groceryapp.backend.dto.ProductRequestDto;
 import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.dto.SuggestionDto;
+import com.groceryapp.backend.service.CatalogSnapshotCache;
+import com.groceryapp.backend.service.PreparedJson;
+import com.groceryapp.backend.service.ProductExportService;
 import com.groceryapp.backend.service.ProductService;
+import com.groceryapp.backend.service.ProductSuggester;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +37,11 @@ import java.util.UUID;
 public class ProductController {
     
     private final ProductService productService;
+    private final ProductSuggester productSuggester;
+    private final CatalogSnapshotCache catalogSnapshotCache;
+    private final ObjectMapper objectMapper;
+    private final PreparedJsonWriter preparedJsonWriter;
+    private final ProductExportService productExportService;
     
     @PostMapping
     public ResponseEntity<ProductResponseDto> createProduct(@Valid @RequestBody ProductRequestDto requestDto) {
@@ -29,34 +50,101 @@ public class ProductController {
         return new ResponseEntity<>(product, HttpStatus.CREATED);
     }
     
+    /**
+     * Listings are served from per-version snapshots with an ETag; answers 304 when If-None-Match matches
+     */
     @GetMapping
-    public ResponseEntity<List<ProductResponseDto>> getAllProducts(
+    public ResponseEntity<byte[]> getAllProducts(
             @RequestParam(required = false) UUID categoryId,
             @RequestParam(required = false) UUID subcategoryId,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            WebRequest request) {
         
         log.info("Received request to get all products. CategoryId: {}, SubcategoryId: {}, Search: {}", categoryId, subcategoryId, search);
         
-        List<ProductResponseDto> products;
+        PreparedJson products;
         
         if (search != null && !search.trim().isEmpty()) {
-            products = productService.searchProducts(search.trim());
+            products = PreparedJson.of(objectMapper, productService.searchProducts(search.trim()));
         } else if (subcategoryId != null) {
-            products = productService.getProductsBySubcategory(subcategoryId);
+            products = catalogSnapshotCache.productsBySubcategory(subcategoryId);
         } else if (categoryId != null) {
-            products = productService.getProductsByCategory(categoryId);
+            products = catalogSnapshotCache.productsByCategory(categoryId);
         } else {
-            products = productService.getAllProducts();
+            products = catalogSnapshotCache.allProducts();
         }
         
-        return ResponseEntity.ok(products);
+        return preparedJsonWriter.write(products, request);
+    }
+    
+    /**
+     * Paginated variant of getAllProducts, selected when a page size is given
+     * e.g. GET /products?size=24&sortBy=price&direction=asc&cursor=...
+     */
+    @GetMapping(params = {"size", "!search"})
+    public ResponseEntity<ProductPageDto> getProductsPage(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID subcategoryId,
+            ProductPageRequest pageRequest) {
+        
+        log.info("Received request to get products page. CategoryId: {}, SubcategoryId: {}, Page: {}", categoryId, subcategoryId, pageRequest);
+        ProductPageDto page = productService.getProductsPage(categoryId, subcategoryId, pageRequest);
+        return ResponseEntity.ok(page);
     }
     
     @GetMapping("/featured")
-    public ResponseEntity<List<ProductResponseDto>> getFeaturedProducts() {
+    public ResponseEntity<byte[]> getFeaturedProducts(WebRequest request) {
         log.info("Received request to get featured products");
-        List<ProductResponseDto> products = productService.getFeaturedProducts();
-        return ResponseEntity.ok(products);
+        return preparedJsonWriter.write(catalogSnapshotCache.featuredProducts(), request);
+    }
+    
+    @GetMapping(value = "/featured", params = "size")
+    public ResponseEntity<ProductPageDto> getFeaturedProductsPage(ProductPageRequest pageRequest) {
+        log.info("Received request to get featured products page: {}", pageRequest);
+        ProductPageDto page = productService.getFeaturedProductsPage(pageRequest);
+        return ResponseEntity.ok(page);
+    }
+    
+    /**
+     * Homepage rails, e.g. GET /products/rails?limit=12
+     */
+    @GetMapping("/rails")
+    public ResponseEntity<ProductRailsDto> getHomeRails(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) Integer limit) {
+        
+        log.info("Received request to get homepage rails. CategoryId: {}, Limit: {}", categoryId, limit);
+        ProductRailsDto rails = productService.getHomeRails(categoryId, limit);
+        return ResponseEntity.ok(rails);
+    }
+    
+    /**
+     * Stream the catalog as NDJSON, one product per line, for feeds and indexers
+     * e.g. GET /products/export?updatedSince=2024-05-01T00:00:00Z for an incremental sync.
+     * X-Export-Started-At is the instant to pass as updatedSince on the next sync.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince) {
+        
+        log.info("Received request to export products. UpdatedSince: {}", updatedSince);
+        Instant startedAt = Instant.now();
+        StreamingResponseBody body = out -> productExportService.exportNdjson(updatedSince, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("X-Export-Started-At", startedAt.toString())
+                .body(body);
+    }
+    
+    /**
+     * Faceted browse, e.g. GET /products/browse?categoryId=...&brandId=...&brandId=...&minPrice=50&inStock=true&tag=organic
+     * Returns one page of matches together with the facet counts for the filter sidebar.
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<ProductBrowseDto> browseProducts(ProductBrowseRequest browseRequest) {
+        log.info("Received request to browse products: {}", browseRequest);
+        ProductBrowseDto result = productService.browseProducts(browseRequest);
+        return ResponseEntity.ok(result);
     }
     
     @GetMapping("/search")
@@ -66,6 +154,16 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        log.debug("Received suggest request for prefix: {}", prefix);
+        List<SuggestionDto> suggestions = productSuggester.suggest(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDto> getProductById(@PathVariable UUID id) {
         log.info("Received request to get product with ID: {}", id);
@@ -0,0 +1,47 @@
+package com.groceryapp.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Several cart line changes applied together by PATCH /cart/{userId}/items, in the order given
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequestDto {
+
+    @NotEmpty(message = "Operations cannot be empty")
+    private List<@Valid Operation> operations;
+
+    public enum Action {
+        ADD, UPDATE, REMOVE
+    }
+
+    /**
+     * ADD puts quantity on top of the product's line, creating it if needed; UPDATE sets the line
+     * to quantity and REMOVE drops it. UPDATE and REMOVE find the line by itemId, or by productId.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+        @NotNull(message = "Action cannot be null")
+        private Action action;
+
+        private UUID itemId;
+
+        private UUID productId;
+
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+    }
+}
@@ -19,6 +19,8 @@ public class CartResponseDto {
     private List<CartItemResponseDto> items;
     private BigDecimal totalPrice;
     private Integer totalItems;
+    private Integer totalQuantity;
+    private BigDecimal totalSavings;
     private Instant createdAt;
     private Instant updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.groceryapp.backend.dto;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An active category with its active subcategories and product counts
+ * Immutable, since CatalogTaxonomy hands the same instances to every caller.
+ */
+@Value
+public class CategoryTreeDto {
+
+    UUID id;
+    String name;
+    String imageUrl;
+    String iconUrl;
+    Integer displayOrder;
+    long productCount;
+    List<SubcategoryNodeDto> subcategories;
+
+    @Value
+    public static class SubcategoryNodeDto {
+
+        UUID id;
+        String name;
+        String imageUrl;
+        Integer displayOrder;
+        long productCount;
+    }
+}
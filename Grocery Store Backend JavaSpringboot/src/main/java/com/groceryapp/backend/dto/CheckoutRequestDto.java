@@ -0,0 +1,30 @@
+package com.groceryapp.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * POST /orders/checkout; the lines come from the user's persisted cart
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequestDto {
+    
+    @NotNull(message = "User ID cannot be null")
+    private UUID userId;
+    
+    @NotBlank(message = "Payment method is required")
+    @Pattern(regexp = "(?i)(COD|CARD|UPI|wallet|card|netbanking|upi|cod)", 
+             message = "Payment method must be COD, CARD, UPI, wallet, netbanking, or similar")
+    private String paymentMethod;
+    
+    @NotNull(message = "Delivery address ID is required")
+    private UUID deliveryAddressId;
+}
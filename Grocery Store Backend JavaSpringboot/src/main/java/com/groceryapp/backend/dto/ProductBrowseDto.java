@@ -0,0 +1,49 @@
+package com.groceryapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a filtered product browse, with facet counts for the filter sidebar
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBrowseDto {
+
+    private List<ProductResponseDto> items;
+    private long total;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Facets facets;
+
+    /**
+     * Product counts per facet value, zero counts left out
+     * Each dimension is counted with every filter except its own, so the alternatives to a selected
+     * value stay visible. Tags are counted with all filters, since selected tags narrow each other.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Facets {
+        
+        private List<Bucket> categories;
+        private List<Bucket> subcategories;
+        private List<Bucket> brands;
+        private List<Bucket> priceBands; // value is "min-max", max exclusive and empty for the top band
+        private List<Bucket> ratings; // value is the minimum rating
+        private List<Bucket> discounts; // value is the minimum discount percentage
+        private List<Bucket> tags;
+        private long inStock;
+    }
+
+    /**
+     * @param value What to pass back as the filter, e.g. a brand ID
+     */
+    public record Bucket(String value, String label, long count) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.groceryapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Query parameters accepted by /products/browse
+ * Every given filter must match. brandId may repeat and matches any of the brands; tag may repeat
+ * and every tag must be present. inStock, featured, trending and newArrival only filter when true.
+ * page is zero-based; sortBy is one of price, rating or createdAt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBrowseRequest {
+
+    private UUID categoryId;
+    private UUID subcategoryId;
+    private List<UUID> brandId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal minRating;
+    private BigDecimal minDiscount;
+    private Boolean inStock;
+    private Boolean featured;
+    private Boolean trending;
+    private Boolean newArrival;
+    private List<String> tag;
+    private Integer page;
+    private Integer size;
+    private String sortBy;
+    private String direction;
+}
@@ -0,0 +1,44 @@
+package com.groceryapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a catalog feed import
+ * Only the first errors are listed; failed holds the full count.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReportDto {
+
+    private String format;
+
+    private String mode;
+
+    private long rowsRead;
+
+    private long imported; // inserted + updated
+
+    private long inserted;
+
+    private long updated;
+
+    private long unchanged; // upsert rows whose content hash matched, not written
+
+    private long failed;
+
+    private long durationMs;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * @param line Line in the feed where the row starts (1-based, header included)
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.groceryapp.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One product in a CSV or NDJSON catalog feed
+ * Category, subcategory and brand are given by name and resolved during the import.
+ * In CSV, tags and imageUrls are separated by '|'. The SKU is required for upserts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductImportRow {
+
+    @NotBlank(message = "Product name cannot be blank")
+    private String name;
+
+    @Size(max = 64, message = "SKU cannot exceed 64 characters")
+    private String sku;
+
+    private String description;
+
+    @NotNull(message = "Price cannot be null")
+    @Positive(message = "Price must be positive")
+    private BigDecimal price;
+
+    private BigDecimal mrp;
+
+    @NotBlank(message = "Category cannot be blank")
+    private String category;
+
+    private String subcategory;
+
+    private String brand;
+
+    @Min(value = 0, message = "Stock cannot be negative")
+    private Integer stock;
+
+    private String unit;
+
+    private BigDecimal quantityPerUnit;
+
+    private String weightQuantity;
+
+    @Min(value = 0, message = "Discount percentage cannot be negative")
+    @Max(value = 100, message = "Discount percentage cannot exceed 100")
+    private BigDecimal discountPercentage;
+
+    private String imageUrl;
+
+    private String[] imageUrls;
+
+    private Boolean isAvailable;
+
+    private Boolean isFeatured;
+
+    private String[] tags;
+
+    private Integer minOrderQuantity;
+
+    private Integer maxOrderQuantity;
+}
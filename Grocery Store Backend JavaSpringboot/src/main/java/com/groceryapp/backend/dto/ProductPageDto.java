@@ -0,0 +1,22 @@
+package com.groceryapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated product listing
+ * Pass nextCursor back as the cursor parameter to fetch the following page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageDto {
+    
+    private List<ProductResponseDto> items;
+    private String nextCursor; // null on the last page
+    private boolean hasNext;
+    private int size;
+}
@@ -0,0 +1,20 @@
+package com.groceryapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query parameters accepted by the paginated product listings
+ * sortBy is one of price, rating or createdAt; direction is asc or desc
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageRequest {
+    
+    private Integer size;
+    private String cursor;
+    private String sortBy;
+    private String direction;
+}
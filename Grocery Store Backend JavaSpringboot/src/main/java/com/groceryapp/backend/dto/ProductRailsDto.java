@@ -0,0 +1,21 @@
+package com.groceryapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The product rails shown on the homepage, newest first, available products only
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRailsDto {
+
+    private List<ProductResponseDto> featured;
+    private List<ProductResponseDto> trending;
+    private List<ProductResponseDto> newArrivals;
+    private long inStock; // available products with stock, for the "N items in stock" banner
+}
@@ -16,6 +16,9 @@ public class ProductRequestDto {
     @NotBlank(message = "Product name cannot be blank")
     private String name;
     
+    @Size(max = 64, message = "SKU cannot exceed 64 characters")
+    private String sku;
+    
     private String description;
     
     @NotNull(message = "Price cannot be null")
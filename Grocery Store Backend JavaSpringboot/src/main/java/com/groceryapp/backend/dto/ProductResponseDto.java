@@ -1,6 +1,7 @@
 package com.groceryapp.backend.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -9,12 +10,14 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Data
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductResponseDto {
     
     private UUID id;
     private String name;
+    private String sku;
     private String description;
     private BigDecimal price;
     private BigDecimal mrp;
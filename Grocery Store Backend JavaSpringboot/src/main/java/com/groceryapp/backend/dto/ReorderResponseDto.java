@@ -0,0 +1,40 @@
+package com.groceryapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The cart after a past order was copied into it, with what happened to each order line
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderResponseDto {
+
+    private CartResponseDto cart;
+    private List<LineDto> lines;
+
+    public enum LineStatus {
+        ADDED, PARTIAL, OUT_OF_STOCK
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineDto {
+        private UUID productId;
+        private String productName;
+        private Integer orderedQuantity;
+        private Integer addedQuantity;
+        private BigDecimal priceAtOrder;
+        // Null when the product no longer exists
+        private BigDecimal currentPrice;
+        private boolean priceChanged;
+        private LineStatus status;
+    }
+}
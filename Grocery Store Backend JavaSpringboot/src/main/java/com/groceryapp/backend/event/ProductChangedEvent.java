@@ -0,0 +1,65 @@
+package com.groceryapp.backend.event;
+
+import com.groceryapp.backend.dto.ProductResponseDto;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Published by ProductService whenever a product is written
+ * In-memory catalog structures listen for it to stay in step with the products table
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ProductChangedEvent {
+
+    public enum Type {
+        UPSERTED,
+        DELETED,
+        STOCK_ADJUSTED
+    }
+
+    private final Type type;
+    private final UUID productId;
+    private final ProductResponseDto product; // only set for UPSERTED
+    private final int stockDelta; // only set for STOCK_ADJUSTED
+
+    public static ProductChangedEvent upserted(ProductResponseDto product) {
+        return new ProductChangedEvent(Type.UPSERTED, product.getId(), product, 0);
+    }
+
+    public static ProductChangedEvent deleted(UUID productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, 0);
+    }
+
+    /**
+     * Stock was changed in place by an atomic UPDATE, so only the delta is known
+     */
+    public static ProductChangedEvent stockAdjusted(UUID productId, int stockDelta) {
+        return new ProductChangedEvent(Type.STOCK_ADJUSTED, productId, null, stockDelta);
+    }
+
+    /**
+     * A copy of the cached product with a STOCK_ADJUSTED change applied
+     * Readers may still hold the cached instance, so it is replaced rather than changed. Availability
+     * follows the same rule as the stock UPDATE statements in ProductRepository.
+     */
+    public ProductResponseDto withStockAdjustment(ProductResponseDto cached) {
+        int stock = (cached.getStock() != null ? cached.getStock() : 0) + stockDelta;
+        return cached.toBuilder()
+                .stock(stock)
+                .isAvailable(availableAfterAdjustment(cached.getIsAvailable(), stock))
+                .build();
+    }
+
+    public boolean availableAfterAdjustment(Boolean wasAvailable, int stockAfter) {
+        if (stockAfter <= 0) {
+            return false;
+        }
+        return stockDelta > 0 || !Boolean.FALSE.equals(wasAvailable);
+    }
+}
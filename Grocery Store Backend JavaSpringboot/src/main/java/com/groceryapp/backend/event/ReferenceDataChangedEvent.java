@@ -0,0 +1,11 @@
+package com.groceryapp.backend.event;
+
+import lombok.ToString;
+
+/**
+ * Published by ReferenceDataRegistry.invalidate() when categories, subcategories or brands were written
+ * Caches built from those tables listen for it after commit and rebuild on their next read.
+ */
+@ToString
+public class ReferenceDataChangedEvent {
+}
@@ -57,12 +57,13 @@ public class GlobalExceptionHandler {
         
         log.error("Insufficient stock: {}", ex.getMessage());
         
-        ErrorResponse errorResponse = new ErrorResponse(
+        ErrorResponse errorResponse = new StockErrorResponse(
                 Instant.now(),
                 HttpStatus.BAD_REQUEST.value(),
                 "Bad Request",
                 ex.getMessage(),
-                request.getRequestURI()
+                request.getRequestURI(),
+                ex.getShortProductIds()
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
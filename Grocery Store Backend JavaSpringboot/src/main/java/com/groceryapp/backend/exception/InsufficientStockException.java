@@ -1,13 +1,32 @@
 package com.groceryapp.backend.exception;
 
+import java.util.List;
+import java.util.UUID;
+
 public class InsufficientStockException extends RuntimeException {
     
+    private final List<UUID> shortProductIds;
+    
     public InsufficientStockException(String productName, int requestedQuantity, int availableStock) {
         super(String.format("Insufficient stock for product '%s'. Requested: %d, Available: %d", 
               productName, requestedQuantity, availableStock));
+        this.shortProductIds = List.of();
     }
     
     public InsufficientStockException(String message) {
         super(message);
+        this.shortProductIds = List.of();
+    }
+    
+    public InsufficientStockException(String message, List<UUID> shortProductIds) {
+        super(message);
+        this.shortProductIds = List.copyOf(shortProductIds);
+    }
+    
+    /**
+     * IDs of the products that could not be served, when known
+     */
+    public List<UUID> getShortProductIds() {
+        return shortProductIds;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.groceryapp.backend.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Error response for stock failures, naming the products that were short
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class StockErrorResponse extends ErrorResponse {
+    
+    private List<UUID> shortProductIds;
+    
+    public StockErrorResponse(Instant timestamp, int status, String error, String message, String path,
+                              List<UUID> shortProductIds) {
+        super(timestamp, status, error, message, path);
+        this.shortProductIds = shortProductIds;
+    }
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +33,18 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<CartItem> items = new ArrayList<>();
     
+    // Running totals over items, moved by delta on every line change so no mutation re-reads the basket.
+    // Anything writing cart_items directly can leave them behind; CartTotalsReconciler puts them right.
+    // Amounts are held in paise so a mutation is long arithmetic; getSubtotal/getSavings convert for DTOs.
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount = 0;
+    
+    @Column(name = "subtotal_paise", nullable = false)
+    private long subtotalPaise;
+    
+    @Column(name = "savings_paise", nullable = false)
+    private long savingsPaise;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -40,14 +53,42 @@ public class Cart {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
     
-    // Helper methods for managing cart items
+    // Helper methods for managing cart items; they keep the running totals in step
     public void addItem(CartItem item) {
         items.add(item);
         item.setCart(this);
+        applyDelta(item, item.getQuantity());
     }
     
     public void removeItem(CartItem item) {
         items.remove(item);
         item.setCart(null);
+        applyDelta(item, -item.getQuantity());
+    }
+    
+    public void changeQuantity(CartItem item, int quantity) {
+        applyDelta(item, quantity - item.getQuantity());
+        item.setQuantity(quantity);
+    }
+    
+    public void clearItems() {
+        items.clear();
+        itemCount = 0;
+        subtotalPaise = 0;
+        savingsPaise = 0;
+    }
+    
+    public BigDecimal getSubtotal() {
+        return Money.ofPaise(subtotalPaise).toBigDecimal();
+    }
+    
+    public BigDecimal getSavings() {
+        return Money.ofPaise(savingsPaise).toBigDecimal();
+    }
+    
+    private void applyDelta(CartItem item, int quantityDelta) {
+        itemCount += quantityDelta;
+        subtotalPaise = Money.ofPaise(subtotalPaise).plus(Money.of(item.getPriceAtAdd()).times(quantityDelta)).paise();
+        savingsPaise = Money.ofPaise(savingsPaise).plus(item.unitSavings().times(quantityDelta)).paise();
     }
 }
\ No newline at end of file
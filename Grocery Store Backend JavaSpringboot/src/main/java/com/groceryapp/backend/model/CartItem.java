@@ -38,6 +38,9 @@ public class CartItem {
     @Column(name = "price_at_add", nullable = false, precision = 10, scale = 2)
     private BigDecimal priceAtAdd;
     
+    @Column(name = "mrp_at_add", precision = 10, scale = 2)
+    private BigDecimal mrpAtAdd;
+    
     // Constructor for easier creation
     public CartItem(Cart cart, UUID productId, Integer quantity, BigDecimal priceAtAdd) {
         this.cart = cart;
@@ -45,4 +48,21 @@ public class CartItem {
         this.quantity = quantity;
         this.priceAtAdd = priceAtAdd;
     }
+    
+    /**
+     * Quantity times the price it was added at
+     */
+    public Money lineTotal() {
+        return Money.of(priceAtAdd).times(quantity);
+    }
+    
+    /**
+     * How much one unit saves against the MRP it was added at; zero without an MRP above the price
+     */
+    public Money unitSavings() {
+        if (mrpAtAdd == null || mrpAtAdd.compareTo(priceAtAdd) <= 0) {
+            return Money.ZERO;
+        }
+        return Money.of(mrpAtAdd).minus(Money.of(priceAtAdd));
+    }
 }
\ No newline at end of file
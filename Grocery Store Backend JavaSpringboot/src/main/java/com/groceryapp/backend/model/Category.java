@@ -1,5 +1,6 @@
 package com.groceryapp.backend.model;
 
+import com.groceryapp.backend.service.ReferenceDataListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -22,6 +23,7 @@ import java.util.UUID;
     @Index(name = "idx_category_name", columnList = "name"),
     @Index(name = "idx_category_active", columnList = "is_active")
 })
+@EntityListeners(ReferenceDataListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,41 @@
+package com.groceryapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A stock change decided by the in-memory inventory ledger and not yet applied to products.stock
+ * Rows are append-only, so hot products never contend on a row lock; the flusher folds them
+ * into the products table and deletes them.
+ */
+@Entity
+@Table(name = "inventory_journal", indexes = @Index(name = "idx_inventory_journal_product", columnList = "product_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryJournalEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+    
+    @Column(nullable = false)
+    private Integer delta;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    public InventoryJournalEntry(UUID productId, int delta) {
+        this.productId = productId;
+        this.delta = delta;
+        this.createdAt = Instant.now();
+    }
+}
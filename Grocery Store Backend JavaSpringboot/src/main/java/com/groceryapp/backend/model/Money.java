@@ -0,0 +1,60 @@
+package com.groceryapp.backend.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of rupees held as a whole number of paise
+ *
+ * Cart and order arithmetic runs on this instead of BigDecimal: adding and multiplying are long
+ * operations and allocate nothing once the JIT has scalar-replaced the record. Entities and DTOs
+ * keep their BigDecimal columns and JSON numbers; convert with of() where an amount is read from
+ * them and toBigDecimal() where one is written back. Overflow throws ArithmeticException.
+ */
+public record Money(long paise) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+
+    /**
+     * @param rupees Amount in rupees, rounded half up to whole paise like the numeric(10,2) columns
+     */
+    public static Money of(BigDecimal rupees) {
+        return new Money(rupees.movePointRight(SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    public static Money ofPaise(long paise) {
+        return new Money(paise);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(paise, other.paise));
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(paise, quantity));
+    }
+
+    public boolean isZero() {
+        return paise == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(paise, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
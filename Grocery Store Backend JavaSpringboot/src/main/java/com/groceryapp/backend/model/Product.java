@@ -27,11 +27,21 @@ import java.util.UUID;
     @Index(name = "idx_product_price", columnList = "price"),
     @Index(name = "idx_product_rating", columnList = "rating")
 })
+@NamedEntityGraph(name = Product.WITH_REFERENCES, attributeNodes = {
+    @NamedAttributeNode("category"),
+    @NamedAttributeNode("subcategory"),
+    @NamedAttributeNode("brand")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
     
+    /**
+     * Entity graph that loads category, subcategory and brand in the same SELECT as the product
+     */
+    public static final String WITH_REFERENCES = "Product.withReferences";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(name = "id", updatable = false, nullable = false)
@@ -41,6 +51,9 @@ public class Product {
     @Column(name = "name", nullable = false)
     private String name;
     
+    @Column(name = "sku", unique = true, length = 64)
+    private String sku; // supplier stock keeping unit, the natural key for feed upserts
+    
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
     
@@ -118,6 +131,9 @@ public class Product {
     @Column(name = "max_order_quantity")
     private Integer maxOrderQuantity;
     
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // feed content last applied by an import; cleared by manual edits
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
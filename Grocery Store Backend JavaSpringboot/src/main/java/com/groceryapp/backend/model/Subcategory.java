@@ -1,5 +1,6 @@
 package com.groceryapp.backend.model;
 
+import com.groceryapp.backend.service.ReferenceDataListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -23,6 +24,7 @@ import java.util.UUID;
     @Index(name = "idx_subcategory_category", columnList = "category_id"),
     @Index(name = "idx_subcategory_active", columnList = "is_active")
 })
+@EntityListeners(ReferenceDataListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
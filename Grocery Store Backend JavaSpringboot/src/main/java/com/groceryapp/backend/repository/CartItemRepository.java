@@ -3,6 +3,7 @@ package com.groceryapp.backend.repository;
 import com.groceryapp.backend.model.Cart;
 import com.groceryapp.backend.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,4 +23,11 @@ public interface CartItemRepository extends JpaRepository<CartItem, UUID> {
     Optional<CartItem> findByCartIdAndProductId(@Param("cartId") UUID cartId, @Param("productId") UUID productId);
     
     void deleteByCart(Cart cart);
+    
+    @Query("SELECT ci.cart.userId FROM CartItem ci WHERE ci.id = :itemId")
+    Optional<UUID> findUserIdByItemId(@Param("itemId") UUID itemId);
+    
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.quantity = :quantity WHERE ci.id = :itemId")
+    int updateQuantity(@Param("itemId") UUID itemId, @Param("quantity") int quantity);
 }
\ No newline at end of file
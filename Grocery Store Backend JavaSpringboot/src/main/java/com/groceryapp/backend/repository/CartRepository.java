@@ -1,16 +1,56 @@
 package com.groceryapp.backend.repository;
 
 import com.groceryapp.backend.model.Cart;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, UUID> {
     
+    @EntityGraph(attributePaths = "items")
     Optional<Cart> findByUserId(UUID userId);
     
     void deleteByUserId(UUID userId);
-}
\ No newline at end of file
+    
+    // Checkout holds the cart row until the order commits; lines are loaded separately
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.userId = :userId")
+    Optional<Cart> findByUserIdForUpdate(@Param("userId") UUID userId);
+    
+    // Carts whose running totals no longer match their lines; the three sums mirror Cart.applyDelta
+    @Query("SELECT c.id FROM Cart c WHERE " +
+           "c.itemCount <> (SELECT COALESCE(SUM(i.quantity), 0) FROM CartItem i WHERE i.cart = c) " +
+           "OR c.subtotalPaise <> (SELECT CAST(COALESCE(SUM(i.priceAtAdd * i.quantity), 0) * 100 AS Long) FROM CartItem i WHERE i.cart = c) " +
+           "OR c.savingsPaise <> (SELECT CAST(COALESCE(SUM((i.mrpAtAdd - i.priceAtAdd) * i.quantity), 0) * 100 AS Long) FROM CartItem i " +
+           "WHERE i.cart = c AND i.mrpAtAdd > i.priceAtAdd)")
+    List<UUID> findIdsWithDriftedTotals();
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET " +
+           "c.itemCount = (SELECT COALESCE(SUM(i.quantity), 0) FROM CartItem i WHERE i.cart = c), " +
+           "c.subtotalPaise = (SELECT CAST(COALESCE(SUM(i.priceAtAdd * i.quantity), 0) * 100 AS Long) FROM CartItem i WHERE i.cart = c), " +
+           "c.savingsPaise = (SELECT CAST(COALESCE(SUM((i.mrpAtAdd - i.priceAtAdd) * i.quantity), 0) * 100 AS Long) FROM CartItem i " +
+           "WHERE i.cart = c AND i.mrpAtAdd > i.priceAtAdd) " +
+           "WHERE c.id IN :cartIds")
+    int recomputeTotals(@Param("cartIds") Collection<UUID> cartIds);
+    
+    // Only over the row the caller last saw; 0 means something else changed the cart since
+    @Modifying
+    @Query("UPDATE Cart c SET c.itemCount = :itemCount, c.subtotalPaise = :subtotalPaise, c.savingsPaise = :savingsPaise, " +
+           "c.updatedAt = :updatedAt WHERE c.id = :cartId AND c.updatedAt = :expectedUpdatedAt")
+    int updateTotals(@Param("cartId") UUID cartId, @Param("itemCount") int itemCount,
+                     @Param("subtotalPaise") long subtotalPaise, @Param("savingsPaise") long savingsPaise,
+                     @Param("updatedAt") Instant updatedAt, @Param("expectedUpdatedAt") Instant expectedUpdatedAt);
+}
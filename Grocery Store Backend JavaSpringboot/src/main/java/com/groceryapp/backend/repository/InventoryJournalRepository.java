@@ -0,0 +1,25 @@
+package com.groceryapp.backend.repository;
+
+import com.groceryapp.backend.model.InventoryJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InventoryJournalRepository extends JpaRepository<InventoryJournalEntry, Long> {
+    
+    // Oldest unapplied entries first, one flush batch at a time
+    List<InventoryJournalEntry> findTop1000ByOrderByIdAsc();
+    
+    @Query("SELECT COALESCE(SUM(e.delta), 0) FROM InventoryJournalEntry e WHERE e.productId = :productId")
+    long sumPendingDelta(@Param("productId") UUID productId);
+    
+    @Modifying
+    @Query("DELETE FROM InventoryJournalEntry e WHERE e.productId = :productId")
+    int deleteByProductId(@Param("productId") UUID productId);
+}
@@ -1,6 +1,7 @@
 package com.groceryapp.backend.repository;
 
 import com.groceryapp.backend.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,9 +12,12 @@ import java.util.UUID;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     
+    // Orders are always mapped together with their items
+    @EntityGraph(attributePaths = "items")
     List<Order> findByUserIdOrderByCreatedAtDesc(UUID userId);
     
     Optional<Order> findByOrderNumber(String orderNumber);
     
+    @EntityGraph(attributePaths = "items")
     List<Order> findByUserIdAndStatusOrderByCreatedAtDesc(UUID userId, String status);
 }
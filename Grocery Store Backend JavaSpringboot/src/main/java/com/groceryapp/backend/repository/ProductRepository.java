@@ -1,48 +1,184 @@
 package com.groceryapp.backend.repository;
 
 import com.groceryapp.backend.model.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
     
+    // Queries whose results are mapped to ProductResponseDto fetch category, subcategory and brand
+    // with the product (Product.WITH_REFERENCES) instead of one lazy SELECT per association per row
+    
+    @Override
+    @EntityGraph(Product.WITH_REFERENCES)
+    List<Product> findAll();
+    
+    @Override
+    @EntityGraph(Product.WITH_REFERENCES)
+    List<Product> findAllById(Iterable<UUID> ids);
+    
+    @Override
+    @EntityGraph(Product.WITH_REFERENCES)
+    Optional<Product> findById(UUID id);
+    
+    @EntityGraph(Product.WITH_REFERENCES)
     List<Product> findByCategoryId(UUID categoryId);
     
+    @EntityGraph(Product.WITH_REFERENCES)
     List<Product> findBySubcategoryId(UUID subcategoryId);
     
+    @EntityGraph(Product.WITH_REFERENCES)
     List<Product> findByBrandId(UUID brandId);
     
+    @EntityGraph(Product.WITH_REFERENCES)
     List<Product> findByNameContainingIgnoreCase(String name);
     
+    @EntityGraph(Product.WITH_REFERENCES)
     List<Product> findByIsAvailableTrue();
     
+    @EntityGraph(Product.WITH_REFERENCES)
     List<Product> findByIsFeaturedTrue();
     
+    @EntityGraph(Product.WITH_REFERENCES)
     List<Product> findByIsTrendingTrue();
     
+    @EntityGraph(Product.WITH_REFERENCES)
     @Query("SELECT p FROM Product p WHERE p.stock > 0 AND p.isAvailable = true")
     List<Product> findInStockProducts();
     
+    @EntityGraph(Product.WITH_REFERENCES)
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.stock > 0 AND p.isAvailable = true")
     List<Product> findInStockProductsByCategory(@Param("categoryId") UUID categoryId);
     
+    @EntityGraph(Product.WITH_REFERENCES)
     @Query("SELECT p FROM Product p WHERE p.subcategory.id = :subcategoryId AND p.stock > 0 AND p.isAvailable = true")
     List<Product> findInStockProductsBySubcategory(@Param("subcategoryId") UUID subcategoryId);
     
-    // Enhanced search: matches product name, description, AND category name
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.category.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Product> searchByNameDescriptionOrCategory(@Param("searchTerm") String searchTerm);
-    
     // Find products by category name (case-insensitive)
+    @EntityGraph(Product.WITH_REFERENCES)
     @Query("SELECT p FROM Product p WHERE LOWER(p.category.name) = LOWER(:categoryName)")
     List<Product> findByCategoryName(@Param("categoryName") String categoryName);
+    
+    // Keyset-paginated listings: the sort is extended with the id so every row has a unique position
+    @EntityGraph(Product.WITH_REFERENCES)
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(Product.WITH_REFERENCES)
+    Window<Product> findByCategoryId(UUID categoryId, ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(Product.WITH_REFERENCES)
+    Window<Product> findBySubcategoryId(UUID subcategoryId, ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(Product.WITH_REFERENCES)
+    Window<Product> findByIsFeaturedTrue(ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(Product.WITH_REFERENCES)
+    Window<Product> findByCategoryNameIgnoreCase(String categoryName, ScrollPosition position, Sort sort, Limit limit);
+    
+    /**
+     * Take stock in a single conditional UPDATE, so concurrent orders cannot oversell
+     * Marks the product unavailable when the last unit goes.
+     *
+     * @return 1 if the stock was taken, 0 if the product is missing or has too little stock
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, " +
+           "p.isAvailable = CASE WHEN p.stock - :quantity > 0 THEN p.isAvailable ELSE false END, " +
+           "p.updatedAt = :now " +
+           "WHERE p.id = :productId AND p.stock >= :quantity")
+    int decrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity, @Param("now") Instant now);
+    
+    /**
+     * Return stock in a single UPDATE, making the product available again
+     *
+     * @return 1 if the product exists, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, " +
+           "p.isAvailable = CASE WHEN p.stock + :quantity > 0 THEN true ELSE p.isAvailable END, " +
+           "p.updatedAt = :now " +
+           "WHERE p.id = :productId")
+    int incrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity, @Param("now") Instant now);
+    
+    /**
+     * Apply a stock change that was already decided elsewhere (the inventory ledger flush)
+     * Unlike decrementStock there is no stock check; availability follows the resulting stock.
+     *
+     * @return 1 if the product exists, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock + :delta, " +
+           "p.isAvailable = CASE WHEN p.stock + :delta <= 0 THEN false WHEN :delta > 0 THEN true ELSE p.isAvailable END, " +
+           "p.updatedAt = :now " +
+           "WHERE p.id = :productId")
+    int applyStockDelta(@Param("productId") UUID productId, @Param("delta") int delta, @Param("now") Instant now);
+    
+    /**
+     * Product counts per category and subcategory, for the taxonomy snapshot
+     * subcategoryId is null for products without a subcategory.
+     */
+    @Query("SELECT p.category.id AS categoryId, s.id AS subcategoryId, COUNT(p) AS productCount " +
+           "FROM Product p LEFT JOIN p.subcategory s " +
+           "GROUP BY p.category.id, s.id")
+    List<TaxonomyCount> countByCategoryAndSubcategory();
+    
+    interface TaxonomyCount {
+        UUID getCategoryId();
+        UUID getSubcategoryId();
+        long getProductCount();
+    }
+    
+    /**
+     * Products with the given SKUs, as stored, with their category, subcategory and brand
+     */
+    @EntityGraph(Product.WITH_REFERENCES)
+    List<Product> findBySkuIn(Collection<String> skus);
+
+    /**
+     * Name and stock as currently stored, for seeding an InventoryLedger counter
+     * A scalar query always reads the row, unlike findById which may return an entity the
+     * persistence context loaded before the last ledger flush.
+     */
+    @Query("SELECT p.name AS name, p.stock AS stock FROM Product p WHERE p.id = :productId")
+    Optional<StockLevel> findStockLevelById(@Param("productId") UUID productId);
+
+    interface StockLevel {
+        String getName();
+        Integer getStock();
+    }
+
+    /**
+     * Walk the catalog through a server-side cursor, oldest change first, for the NDJSON export
+     * Must be consumed inside a transaction; rows arrive in fetch-size batches instead of all at once.
+     */
+    @EntityGraph(Product.WITH_REFERENCES)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Product p ORDER BY p.updatedAt, p.id")
+    Stream<Product> streamAllForExport();
+    
+    @EntityGraph(Product.WITH_REFERENCES)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Product p WHERE p.updatedAt >= :updatedSince ORDER BY p.updatedAt, p.id")
+    Stream<Product> streamUpdatedSinceForExport(@Param("updatedSince") Instant updatedSince);
 }
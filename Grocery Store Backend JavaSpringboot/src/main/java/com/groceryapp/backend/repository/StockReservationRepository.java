@@ -0,0 +1,155 @@
+package com.groceryapp.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Takes the stock for a whole order in one set-based statement
+ *
+ * On PostgreSQL every product row is locked in id order (so two orders sharing products cannot
+ * deadlock), checked, and decremented by a single UPDATE ... FROM (VALUES ...) statement that
+ * only writes when every line can be served. Other databases (H2 in tests) fall back to one
+ * batched conditional UPDATE per product and rely on the surrounding transaction rolling back.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationRepository {
+
+    private static final String RESERVE_SQL = """
+            WITH requested (product_id, quantity) AS (VALUES %s),
+            locked AS (
+                SELECT p.id, p.name, p.stock, r.quantity
+                FROM products p
+                JOIN requested r ON r.product_id = p.id
+                ORDER BY p.id
+                FOR UPDATE OF p
+            ),
+            updated AS (
+                UPDATE products p
+                SET stock = p.stock - l.quantity,
+                    is_available = CASE WHEN p.stock - l.quantity > 0 THEN p.is_available ELSE false END,
+                    updated_at = now()
+                FROM locked l
+                WHERE p.id = l.id
+                  AND (SELECT count(*) FROM locked) = %d
+                  AND NOT EXISTS (SELECT 1 FROM locked WHERE stock < quantity)
+                RETURNING p.id
+            )
+            SELECT r.product_id, l.name, r.quantity, l.stock, u.id IS NOT NULL AS reserved
+            FROM requested r
+            LEFT JOIN locked l ON l.id = r.product_id
+            LEFT JOIN updated u ON u.id = r.product_id
+            """;
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ?, " +
+            "is_available = CASE WHEN stock - ? > 0 THEN is_available ELSE false END, " +
+            "updated_at = ? " +
+            "WHERE id = ? AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    /**
+     * A product that could not be served
+     * available is null when the product does not exist.
+     */
+    public record Shortage(UUID productId, String productName, int requested, Integer available) {
+
+        public boolean missing() {
+            return available == null;
+        }
+    }
+
+    /**
+     * Take the requested quantities, all or nothing
+     *
+     * @param quantities Quantity per product ID
+     * @return Every product that was short or missing; empty when all stock was taken
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Shortage> reserve(Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        return isPostgres() ? reserveInOneStatement(quantities) : reserveRowByRow(new TreeMap<>(quantities));
+    }
+
+    private List<Shortage> reserveInOneStatement(Map<UUID, Integer> quantities) {
+        String sql = String.format(RESERVE_SQL,
+                String.join(", ", Collections.nCopies(quantities.size(), "(CAST(? AS uuid), CAST(? AS integer))")),
+                quantities.size());
+
+        List<Object> args = new ArrayList<>(quantities.size() * 2);
+        quantities.forEach((productId, quantity) -> {
+            args.add(productId);
+            args.add(quantity);
+        });
+
+        List<Shortage> shortages = new ArrayList<>();
+        jdbcTemplate.query(sql, rs -> {
+            int requested = rs.getInt("quantity");
+            Integer stock = rs.getObject("stock", Integer.class);
+            if (stock == null || stock < requested) {
+                shortages.add(new Shortage(rs.getObject("product_id", UUID.class), rs.getString("name"), requested, stock));
+            }
+        }, args.toArray());
+
+        log.debug("Reserved stock for {} products in one statement, {} short", quantities.size(), shortages.size());
+        return shortages;
+    }
+
+    private List<Shortage> reserveRowByRow(SortedMap<UUID, Integer> quantities) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        List<Object[]> batch = lines.stream()
+                .map(line -> new Object[]{line.getValue(), line.getValue(), now, line.getKey(), line.getValue()})
+                .toList();
+
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, batch);
+
+        Map<UUID, Integer> failed = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                failed.put(lines.get(i).getKey(), lines.get(i).getValue());
+            }
+        }
+        return failed.isEmpty() ? List.of() : describeShortages(failed);
+    }
+
+    private List<Shortage> describeShortages(Map<UUID, Integer> failed) {
+        String placeholders = String.join(", ", Collections.nCopies(failed.size(), "?"));
+        Map<UUID, Object[]> current = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name, stock FROM products WHERE id IN (" + placeholders + ")", rs -> {
+            current.put(rs.getObject("id", UUID.class), new Object[]{rs.getString("name"), rs.getInt("stock")});
+        }, failed.keySet().toArray());
+
+        List<Shortage> shortages = new ArrayList<>(failed.size());
+        failed.forEach((productId, requested) -> {
+            Object[] row = current.get(productId);
+            shortages.add(row == null
+                    ? new Shortage(productId, null, requested, null)
+                    : new Shortage(productId, (String) row[0], requested, (Integer) row[1]));
+        });
+        return shortages;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
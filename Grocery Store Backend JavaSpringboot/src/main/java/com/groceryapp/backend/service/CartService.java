@@ -3,8 +3,10 @@ package com.groceryapp.backend.service;
 import com.groceryapp.backend.dto.*;
 import com.groceryapp.backend.exception.CartItemNotFoundException;
 import com.groceryapp.backend.exception.InsufficientStockException;
+import com.groceryapp.backend.exception.ProductNotFoundException;
 import com.groceryapp.backend.model.Cart;
 import com.groceryapp.backend.model.CartItem;
+import com.groceryapp.backend.model.OrderItem;
 import com.groceryapp.backend.model.Product;
 import com.groceryapp.backend.repository.CartItemRepository;
 import com.groceryapp.backend.repository.CartRepository;
@@ -14,9 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,11 +28,17 @@ public class CartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductService productService;
+    private final HotCartStore hotCartStore;
     
     @Transactional(readOnly = true)
     public CartResponseDto getOrCreateCart(UUID userId) {
         log.info("Getting or creating cart for user: {}", userId);
         
+        Optional<Cart> hotCart = hotCartStore.get(userId);
+        if (hotCart.isPresent()) {
+            return mapToResponseDto(hotCart.get());
+        }
+        
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
                     log.info("Creating new cart for user: {}", userId);
@@ -59,7 +65,8 @@ public class CartService {
             );
         }
         
-        // Get or create cart
+        // Get or create cart; quantity edits still held in memory are written first
+        hotCartStore.evict(userId);
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
                     Cart newCart = new Cart();
@@ -83,7 +90,7 @@ public class CartService {
                 );
             }
             
-            item.setQuantity(newQuantity);
+            cart.changeQuantity(item, newQuantity);
             cartItemRepository.save(item);
             log.info("Updated existing cart item quantity to: {}", newQuantity);
         } else {
@@ -93,6 +100,7 @@ public class CartService {
             newItem.setProductId(requestDto.getProductId());
             newItem.setQuantity(requestDto.getQuantity());
             newItem.setPriceAtAdd(product.getPrice());
+            newItem.setMrpAtAdd(product.getMrp());
             
             cartItemRepository.save(newItem);
             cart.addItem(newItem);
@@ -107,6 +115,10 @@ public class CartService {
         log.info("Updating cart item: {} for user: {} with quantity: {}", 
                 itemId, userId, requestDto.getQuantity());
         
+        if (hotCartStore.isEnabled()) {
+            return updateHotCartItem(userId, itemId, requestDto.getQuantity());
+        }
+        
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new CartItemNotFoundException("Cart not found for user: " + userId));
         
@@ -129,7 +141,7 @@ public class CartService {
             );
         }
         
-        cartItem.setQuantity(requestDto.getQuantity());
+        cart.changeQuantity(cartItem, requestDto.getQuantity());
         cartItemRepository.save(cartItem);
         
         Cart updatedCart = cartRepository.save(cart);
@@ -141,6 +153,10 @@ public class CartService {
     public CartResponseDto updateCartItemById(UUID itemId, UpdateCartItemRequestDto requestDto) {
         log.info("Updating cart item: {} with quantity: {}", itemId, requestDto.getQuantity());
         
+        if (hotCartStore.isEnabled()) {
+            return updateHotCartItem(null, itemId, requestDto.getQuantity());
+        }
+        
         CartItem cartItem = cartItemRepository.findById(itemId)
                 .orElseThrow(() -> new CartItemNotFoundException(itemId));
         
@@ -155,10 +171,10 @@ public class CartService {
             );
         }
         
-        cartItem.setQuantity(requestDto.getQuantity());
+        Cart cart = cartItem.getCart();
+        cart.changeQuantity(cartItem, requestDto.getQuantity());
         cartItemRepository.save(cartItem);
         
-        Cart cart = cartItem.getCart();
         Cart updatedCart = cartRepository.save(cart);
         log.info("Updated cart item quantity to: {}", requestDto.getQuantity());
         
@@ -168,6 +184,7 @@ public class CartService {
     public void removeItemFromCart(UUID itemId) {
         log.info("Removing cart item: {}", itemId);
         
+        hotCartStore.evictOwnerOf(itemId);
         CartItem cartItem = cartItemRepository.findById(itemId)
                 .orElseThrow(() -> new CartItemNotFoundException(itemId));
         
@@ -182,42 +199,267 @@ public class CartService {
     public void clearCart(UUID userId) {
         log.info("Clearing cart for user: {}", userId);
         
+        hotCartStore.evict(userId);
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new CartItemNotFoundException("Cart not found for user: " + userId));
         
+        emptyCart(cart);
+        log.info("Cart cleared successfully for user: {}", userId);
+    }
+    
+    /**
+     * The user's cart, locked until the caller's transaction ends, with quantity edits held in memory written first
+     * The write-back joins the caller's transaction, so the cart read under the lock includes it. A tap that reloads
+     * the cart before the checkout commits cannot stamp its totals on the emptied cart: HotCartStore only writes
+     * totals over the row it last saw.
+     *
+     * @throws IllegalArgumentException if the user has no cart or it is empty
+     */
+    public Cart getCartForCheckout(UUID userId) {
+        log.info("Loading cart for checkout for user: {}", userId);
+        
+        hotCartStore.evict(userId);
+        return cartRepository.findByUserIdForUpdate(userId)
+                .filter(cart -> !cart.getItems().isEmpty())
+                .orElseThrow(() -> new IllegalArgumentException("Cart items cannot be empty"));
+    }
+    
+    /**
+     * Delete every line of a cart loaded in the current transaction
+     */
+    public void emptyCart(Cart cart) {
         cartItemRepository.deleteByCart(cart);
-        cart.getItems().clear();
+        cart.clearItems();
         cartRepository.save(cart);
+    }
+    
+    /**
+     * Apply several line changes in one transaction, in the order given
+     * The products of the cart and of the operations are read in one query, which serves both the
+     * stock check on the final quantities and the response. Any failing operation rolls back the batch.
+     */
+    public CartResponseDto applyBatch(UUID userId, CartBatchRequestDto requestDto) {
+        List<CartBatchRequestDto.Operation> operations = requestDto.getOperations();
+        log.info("Applying {} cart operations for user: {}", operations.size(), userId);
+        
+        hotCartStore.evict(userId);
+        Cart cart = findOrCreateCart(userId);
+        
+        Map<UUID, CartItem> linesByProduct = new HashMap<>();
+        Map<UUID, CartItem> linesById = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            linesByProduct.put(item.getProductId(), item);
+            linesById.put(item.getId(), item);
+        }
         
-        log.info("Cart cleared successfully for user: {}", userId);
+        Set<UUID> productIds = new HashSet<>(linesByProduct.keySet());
+        operations.stream()
+                .map(CartBatchRequestDto.Operation::getProductId)
+                .filter(Objects::nonNull)
+                .forEach(productIds::add);
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(productIds);
+        
+        List<CartItem> added = new ArrayList<>();
+        List<CartItem> removed = new ArrayList<>();
+        Set<UUID> changedProducts = new LinkedHashSet<>();
+        for (CartBatchRequestDto.Operation operation : operations) {
+            switch (operation.getAction()) {
+                case ADD -> {
+                    UUID productId = operation.getProductId();
+                    if (productId == null) {
+                        throw new IllegalArgumentException("ADD needs a productId");
+                    }
+                    int quantity = requireQuantity(operation);
+                    Product product = products.get(productId);
+                    if (product == null) {
+                        throw new ProductNotFoundException(productId);
+                    }
+                    
+                    addToLine(cart, linesByProduct, product, quantity, added);
+                    changedProducts.add(productId);
+                }
+                case UPDATE -> {
+                    CartItem line = findLine(operation, linesById, linesByProduct);
+                    cart.changeQuantity(line, requireQuantity(operation));
+                    changedProducts.add(line.getProductId());
+                }
+                case REMOVE -> {
+                    CartItem line = findLine(operation, linesById, linesByProduct);
+                    cart.removeItem(line);
+                    linesByProduct.remove(line.getProductId());
+                    if (line.getId() != null) {
+                        linesById.remove(line.getId());
+                        removed.add(line);
+                    } else {
+                        added.removeIf(item -> item == line);
+                    }
+                    changedProducts.remove(line.getProductId());
+                }
+            }
+        }
+        
+        // Stock is checked once per product against its final quantity, not per operation
+        for (UUID productId : changedProducts) {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ProductNotFoundException(productId);
+            }
+            int quantity = linesByProduct.get(productId).getQuantity();
+            if (product.getStock() < quantity) {
+                throw new InsufficientStockException(product.getName(), quantity, product.getStock());
+            }
+        }
+        
+        cartItemRepository.saveAll(added);
+        cartItemRepository.deleteAll(removed);
+        Cart updatedCart = cartRepository.save(cart);
+        log.info("Applied {} cart operations for user: {}", operations.size(), userId);
+        
+        return mapToResponseDto(updatedCart, products);
+    }
+    
+    /**
+     * Copy the lines of a past order into the user's cart at today's prices
+     * All products are read in one query. A line is added only as far as stock allows after what the
+     * cart already holds; unavailable and deleted products are skipped and reported instead of failing.
+     */
+    public ReorderResponseDto addOrderToCart(UUID userId, List<OrderItem> orderItems) {
+        log.info("Adding {} order lines to cart for user: {}", orderItems.size(), userId);
+        
+        hotCartStore.evict(userId);
+        Cart cart = findOrCreateCart(userId);
+        
+        Map<UUID, CartItem> linesByProduct = new HashMap<>();
+        cart.getItems().forEach(item -> linesByProduct.put(item.getProductId(), item));
+        Set<UUID> productIds = new HashSet<>(linesByProduct.keySet());
+        orderItems.forEach(orderItem -> productIds.add(orderItem.getProductId()));
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(productIds);
+        
+        List<CartItem> added = new ArrayList<>();
+        List<ReorderResponseDto.LineDto> lines = new ArrayList<>(orderItems.size());
+        for (OrderItem orderItem : orderItems) {
+            Product product = products.get(orderItem.getProductId());
+            CartItem line = linesByProduct.get(orderItem.getProductId());
+            int inCart = line != null ? line.getQuantity() : 0;
+            int available = product == null || Boolean.FALSE.equals(product.getIsAvailable())
+                    ? 0 : Math.max(0, product.getStock() - inCart);
+            int quantity = Math.min(orderItem.getQuantity(), available);
+            if (quantity > 0) {
+                addToLine(cart, linesByProduct, product, quantity, added);
+            }
+            
+            ReorderResponseDto.LineStatus status = quantity == orderItem.getQuantity()
+                    ? ReorderResponseDto.LineStatus.ADDED
+                    : quantity > 0 ? ReorderResponseDto.LineStatus.PARTIAL : ReorderResponseDto.LineStatus.OUT_OF_STOCK;
+            BigDecimal currentPrice = product != null ? product.getPrice() : null;
+            boolean priceChanged = currentPrice != null && currentPrice.compareTo(orderItem.getPriceAtOrder()) != 0;
+            lines.add(new ReorderResponseDto.LineDto(orderItem.getProductId(), orderItem.getProductName(),
+                    orderItem.getQuantity(), quantity, orderItem.getPriceAtOrder(), currentPrice, priceChanged, status));
+        }
+        
+        cartItemRepository.saveAll(added);
+        Cart updatedCart = cartRepository.save(cart);
+        log.info("Added order lines to cart for user: {}", userId);
+        
+        return new ReorderResponseDto(mapToResponseDto(updatedCart, products), lines);
+    }
+    
+    private Cart findOrCreateCart(UUID userId) {
+        return cartRepository.findByUserId(userId)
+                .orElseGet(() -> {
+                    Cart newCart = new Cart();
+                    newCart.setUserId(userId);
+                    return cartRepository.save(newCart);
+                });
+    }
+    
+    private static void addToLine(Cart cart, Map<UUID, CartItem> linesByProduct, Product product, int quantity,
+                                  List<CartItem> added) {
+        CartItem line = linesByProduct.get(product.getId());
+        if (line != null) {
+            cart.changeQuantity(line, line.getQuantity() + quantity);
+            return;
+        }
+        
+        line = new CartItem(cart, product.getId(), quantity, product.getPrice());
+        line.setMrpAtAdd(product.getMrp());
+        cart.addItem(line);
+        linesByProduct.put(product.getId(), line);
+        added.add(line);
+    }
+    
+    private static CartItem findLine(CartBatchRequestDto.Operation operation, Map<UUID, CartItem> linesById,
+                                     Map<UUID, CartItem> linesByProduct) {
+        if (operation.getItemId() != null) {
+            CartItem line = linesById.get(operation.getItemId());
+            if (line == null) {
+                throw new CartItemNotFoundException(operation.getItemId());
+            }
+            return line;
+        }
+        if (operation.getProductId() == null) {
+            throw new IllegalArgumentException(operation.getAction() + " needs an itemId or a productId");
+        }
+        CartItem line = linesByProduct.get(operation.getProductId());
+        if (line == null) {
+            throw new CartItemNotFoundException("No cart item for product: " + operation.getProductId());
+        }
+        return line;
+    }
+    
+    private static int requireQuantity(CartBatchRequestDto.Operation operation) {
+        if (operation.getQuantity() == null) {
+            throw new IllegalArgumentException(operation.getAction() + " needs a quantity");
+        }
+        return operation.getQuantity();
+    }
+    
+    private CartResponseDto updateHotCartItem(UUID userId, UUID itemId, int quantity) {
+        Cart cart = hotCartStore.updateQuantity(userId, itemId, quantity, (cartItem, newQuantity) -> {
+            Product product = productService.getProductEntityById(cartItem.getProductId());
+            if (product.getStock() < newQuantity) {
+                throw new InsufficientStockException(product.getName(), newQuantity, product.getStock());
+            }
+        });
+        log.info("Updated hot cart item quantity to: {}", quantity);
+        
+        return mapToResponseDto(cart);
     }
     
     private CartResponseDto mapToResponseDto(Cart cart) {
+        // Resolve every product of the cart in one query rather than one per item
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(cart.getItems().stream()
+                .map(CartItem::getProductId)
+                .collect(Collectors.toSet()));
+        
+        return mapToResponseDto(cart, products);
+    }
+    
+    private CartResponseDto mapToResponseDto(Cart cart, Map<UUID, Product> products) {
         List<CartItemResponseDto> itemDtos = cart.getItems().stream()
-                .map(this::mapToCartItemResponseDto)
+                .map(cartItem -> mapToCartItemResponseDto(cartItem, products))
                 .collect(Collectors.toList());
         
-        BigDecimal totalPrice = itemDtos.stream()
-                .map(CartItemResponseDto::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        int totalItems = itemDtos.size();
-        
+        // Totals are the cart's running ones, not a fresh reduction over the lines
         CartResponseDto responseDto = new CartResponseDto();
         responseDto.setCartId(cart.getId());
         responseDto.setUserId(cart.getUserId());
         responseDto.setItems(itemDtos);
-        responseDto.setTotalPrice(totalPrice);
-        responseDto.setTotalItems(totalItems);
+        responseDto.setTotalPrice(cart.getSubtotal());
+        responseDto.setTotalItems(itemDtos.size());
+        responseDto.setTotalQuantity(cart.getItemCount());
+        responseDto.setTotalSavings(cart.getSavings());
         responseDto.setCreatedAt(cart.getCreatedAt());
         responseDto.setUpdatedAt(cart.getUpdatedAt());
         
         return responseDto;
     }
     
-    private CartItemResponseDto mapToCartItemResponseDto(CartItem cartItem) {
-        Product product = productService.getProductEntityById(cartItem.getProductId());
-        BigDecimal totalPrice = cartItem.getPriceAtAdd().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
+    private CartItemResponseDto mapToCartItemResponseDto(CartItem cartItem, Map<UUID, Product> products) {
+        Product product = products.get(cartItem.getProductId());
+        if (product == null) {
+            throw new ProductNotFoundException(cartItem.getProductId());
+        }
         
         CartItemResponseDto responseDto = new CartItemResponseDto();
         responseDto.setCartItemId(cartItem.getId());
@@ -225,7 +467,7 @@ public class CartService {
         responseDto.setProductName(product.getName());
         responseDto.setQuantity(cartItem.getQuantity());
         responseDto.setPriceAtAdd(cartItem.getPriceAtAdd());
-        responseDto.setTotalPrice(totalPrice);
+        responseDto.setTotalPrice(cartItem.lineTotal().toBigDecimal());
         
         return responseDto;
     }
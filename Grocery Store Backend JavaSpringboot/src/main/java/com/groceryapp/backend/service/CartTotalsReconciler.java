@@ -0,0 +1,59 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.repository.CartRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Periodic consistency check for the running totals carried on Cart
+ *
+ * Cart mutations move item count, subtotal and savings by delta, so a write that bypasses the
+ * Cart helpers (bulk delete of cart_items, a manual fix in the database, two concurrent edits of
+ * one cart) leaves them behind. This job finds those carts with one query and recomputes their
+ * totals from the lines in place. A cart edited while the job runs is simply checked again next time.
+ * It also runs once at startup, which backfills the totals of carts that had lines before the columns
+ * were added by db/schema-upgrade.sql.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartTotalsReconciler {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final CartRepository cartRepository;
+
+    /**
+     * @return Number of carts whose totals had drifted
+     */
+    @Scheduled(fixedDelayString = "${app.cart.reconcile.interval-ms:3600000}",
+            initialDelayString = "${app.cart.reconcile.interval-ms:3600000}")
+    @Transactional
+    public int reconcile() {
+        List<UUID> drifted = cartRepository.findIdsWithDriftedTotals();
+        if (drifted.isEmpty()) {
+            return 0;
+        }
+
+        log.warn("Recomputing totals of {} carts that drifted from their items", drifted.size());
+        for (int from = 0; from < drifted.size(); from += BATCH_SIZE) {
+            cartRepository.recomputeTotals(drifted.subList(from, Math.min(from + BATCH_SIZE, drifted.size())));
+        }
+        return drifted.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileOnStartup() {
+        log.info("Checking cart totals on startup");
+        reconcile();
+    }
+}
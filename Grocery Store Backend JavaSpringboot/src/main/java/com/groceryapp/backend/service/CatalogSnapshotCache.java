@@ -0,0 +1,90 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Serialized product listings, kept until the catalog version moves
+ *
+ * Each listing is queried, mapped, written to JSON and gzip-compressed once per catalog version,
+ * so repeat requests (and 304 revalidations) cost neither a query, serialization nor compression.
+ * Hits and misses are counted in catalog.snapshot.lookups. Keyset pages are not kept here; their
+ * cursors make every request a different listing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotCache {
+
+    private static final int MAX_SNAPSHOTS = 1000;
+    static final String LOOKUPS_METRIC = "catalog.snapshot.lookups";
+
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    // Bounded because category names come straight from the URL
+    private final Cache<String, VersionedJson> snapshots = Caffeine.newBuilder()
+            .maximumSize(MAX_SNAPSHOTS)
+            .build();
+
+    public PreparedJson allProducts() {
+        return snapshot("all", productService::getAllProducts);
+    }
+
+    public PreparedJson featuredProducts() {
+        return snapshot("featured", productService::getFeaturedProducts);
+    }
+
+    public PreparedJson productsByCategory(UUID categoryId) {
+        return snapshot("category:" + categoryId, () -> productService.getProductsByCategory(categoryId));
+    }
+
+    public PreparedJson productsBySubcategory(UUID subcategoryId) {
+        return snapshot("subcategory:" + subcategoryId, () -> productService.getProductsBySubcategory(subcategoryId));
+    }
+
+    public PreparedJson productsByCategoryName(String categoryName) {
+        return snapshot("categoryName:" + categoryName.toLowerCase(Locale.ROOT),
+                () -> productService.getProductsByCategoryName(categoryName));
+    }
+
+    /**
+     * Drop every snapshot, whatever its version
+     */
+    public void clear() {
+        snapshots.invalidateAll();
+    }
+
+    private PreparedJson snapshot(String key, Supplier<List<ProductResponseDto>> loader) {
+        // Read the version first: a write committing during the load leaves this entry already outdated
+        long version = catalogVersion.current();
+        VersionedJson cached = snapshots.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            meterRegistry.counter(LOOKUPS_METRIC, "result", "hit").increment();
+            return cached.json();
+        }
+        meterRegistry.counter(LOOKUPS_METRIC, "result", "miss").increment();
+
+        PreparedJson json = PreparedJson.compressed(objectMapper, loader.get());
+        snapshots.asMap().merge(key, new VersionedJson(version, json),
+                (existing, loaded) -> existing.version() > loaded.version() ? existing : loaded);
+        log.debug("Serialized catalog snapshot {} at version {}", key, version);
+        return json;
+    }
+
+    private record VersionedJson(long version, PreparedJson json) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.dto.CategoryTreeDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Subcategory;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import com.groceryapp.backend.repository.SubcategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the category tree behind the home page
+ *
+ * Built from three statements (categories, subcategories, grouped product counts) instead of
+ * loading every product, and serialized once so /categories and /api-categories write stored
+ * bytes with an ETag. Only active categories and subcategories are included, ordered by
+ * displayOrder then name.
+ *
+ * Product and reference data writes only mark the snapshot stale; it is rebuilt on the next read.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogTaxonomy {
+
+    private static final Comparator<Integer> DISPLAY_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    /**
+     * Names of active categories that have products, in display order
+     */
+    public List<String> categoryNames() {
+        return currentSnapshot().categoryNames();
+    }
+
+    public List<CategoryTreeDto> tree() {
+        return currentSnapshot().tree();
+    }
+
+    public PreparedJson categoryNamesJson() {
+        return currentSnapshot().categoryNamesJson();
+    }
+
+    public PreparedJson treeJson() {
+        return currentSnapshot().treeJson();
+    }
+
+    /**
+     * Rebuild on the next read
+     */
+    public void refresh() {
+        stale = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Stock changes do not move products between categories
+        if (event.getType() != ProductChangedEvent.Type.STOCK_ADJUSTED) {
+            stale = true;
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    stale = false;
+                    snapshot = build();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private Snapshot build() {
+        Map<UUID, Long> categoryCounts = new HashMap<>();
+        Map<UUID, Long> subcategoryCounts = new HashMap<>();
+        for (ProductRepository.TaxonomyCount count : productRepository.countByCategoryAndSubcategory()) {
+            categoryCounts.merge(count.getCategoryId(), count.getProductCount(), Long::sum);
+            if (count.getSubcategoryId() != null) {
+                subcategoryCounts.merge(count.getSubcategoryId(), count.getProductCount(), Long::sum);
+            }
+        }
+
+        Map<UUID, List<CategoryTreeDto.SubcategoryNodeDto>> subcategoriesByCategory = new HashMap<>();
+        subcategoryRepository.findByIsActiveTrue().stream()
+                .sorted(Comparator.comparing(Subcategory::getDisplayOrder, DISPLAY_ORDER).thenComparing(Subcategory::getName))
+                .forEach(subcategory -> subcategoriesByCategory
+                        .computeIfAbsent(subcategory.getCategory().getId(), id -> new ArrayList<>())
+                        .add(new CategoryTreeDto.SubcategoryNodeDto(subcategory.getId(), subcategory.getName(),
+                                subcategory.getImageUrl(), subcategory.getDisplayOrder(),
+                                subcategoryCounts.getOrDefault(subcategory.getId(), 0L))));
+
+        List<CategoryTreeDto> tree = categoryRepository.findByIsActiveTrue().stream()
+                .sorted(Comparator.comparing(Category::getDisplayOrder, DISPLAY_ORDER).thenComparing(Category::getName))
+                .map(category -> new CategoryTreeDto(category.getId(), category.getName(), category.getImageUrl(),
+                        category.getIconUrl(), category.getDisplayOrder(),
+                        categoryCounts.getOrDefault(category.getId(), 0L),
+                        List.copyOf(subcategoriesByCategory.getOrDefault(category.getId(), List.of()))))
+                .toList();
+
+        List<String> names = tree.stream()
+                .filter(category -> category.getProductCount() > 0)
+                .map(CategoryTreeDto::getName)
+                .toList();
+
+        log.info("Built taxonomy snapshot with {} categories", tree.size());
+        return new Snapshot(names, tree, PreparedJson.compressed(objectMapper, names), PreparedJson.compressed(objectMapper, tree));
+    }
+
+    private record Snapshot(List<String> categoryNames, List<CategoryTreeDto> tree,
+                            PreparedJson categoryNamesJson, PreparedJson treeJson) {
+    }
+}
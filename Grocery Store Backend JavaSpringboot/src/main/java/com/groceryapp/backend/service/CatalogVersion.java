@@ -0,0 +1,33 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter bumped after every committed product write
+ * Category, subcategory and brand writes bump it too, since product listings carry their names.
+ * Anything derived from the catalog can remember the version it was built from and compare.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
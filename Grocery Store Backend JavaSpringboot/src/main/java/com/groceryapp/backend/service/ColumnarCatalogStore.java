@@ -0,0 +1,778 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseDto.Bucket;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Opt-in read-only copy of the catalog's filterable attributes in off-heap columns (app.catalog.columnar.enabled)
+ *
+ * One row per product, one direct buffer per attribute: prices in paise, rating and discount in
+ * hundredths, stock, creation time in epoch millis, bit-packed flags, and category, subcategory and
+ * brand as small dictionary codes. A browse is a single pass over these primitives that filters,
+ * counts facets and keeps only the requested page in a bounded heap; product rows are loaded from
+ * the database for that page alone. The Java heap holds the dictionaries and nothing per product.
+ *
+ * Rows are updated in place from ProductChangedEvent. A deleted product's row is only marked dead
+ * and is reused if the same id comes back; reload() compacts. Direct memory is capped by
+ * -XX:MaxDirectMemorySize, which defaults to the heap size; budget about 80 bytes per product.
+ */
+@Component
+@Slf4j
+public class ColumnarCatalogStore {
+
+    private static final int INITIAL_ROWS = 1024;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int NO_MATCH = -2; // a filter code no row can have
+
+    private static final byte LIVE = 1;
+    private static final byte AVAILABLE = 1 << 1;
+    private static final byte FEATURED = 1 << 2;
+    private static final byte TRENDING = 1 << 3;
+    private static final byte NEW_ARRIVAL = 1 << 4;
+
+    private static final long[] PRICE_BOUNDS_PAISE = {5_000, 10_000, 20_000, 50_000};
+    private static final int[] PRICE_BOUNDS = {50, 100, 200, 500};
+    private static final int[] RATING_STEPS = {4, 3, 2, 1};
+    private static final int[] DISCOUNT_STEPS = {50, 25, 10};
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ReferenceDataRegistry referenceData;
+    private final EntityManager entityManager;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary subcategories = new Dictionary();
+    private final Dictionary brands = new Dictionary();
+    private Columns columns;
+    private int rowCount;
+    private int liveRows;
+
+    public ColumnarCatalogStore(ProductRepository productRepository,
+                                ProductMapper productMapper,
+                                ReferenceDataRegistry referenceData,
+                                EntityManager entityManager,
+                                @Value("${app.catalog.columnar.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.referenceData = referenceData;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.columns = enabled ? new Columns(INITIAL_ROWS) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Load every product through a database cursor into fresh columns
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Building columnar catalog store");
+
+        Columns built = new Columns(INITIAL_ROWS);
+        Dictionary builtCategories = new Dictionary();
+        Dictionary builtSubcategories = new Dictionary();
+        Dictionary builtBrands = new Dictionary();
+        int rows = 0;
+        try (Stream<Product> products = productRepository.streamAllForExport()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                built = built.ensureCapacity(rows);
+                built.write(rows, productMapper.toResponseDto(product), builtCategories, builtSubcategories, builtBrands);
+                built.indexId(rows);
+                rows++;
+                entityManager.detach(product);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            columns = built;
+            categories.replaceWith(builtCategories);
+            subcategories.replaceWith(builtSubcategories);
+            brands.replaceWith(builtBrands);
+            rowCount = rows;
+            liveRows = rows;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Columnar catalog store built with {} products, {} KB off-heap", rows, built.offHeapBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case UPSERTED -> upsert(event.getProduct());
+            case DELETED -> remove(event.getProductId());
+            case STOCK_ADJUSTED -> adjustStock(event);
+        }
+    }
+
+    private void upsert(ProductResponseDto product) {
+        lock.writeLock().lock();
+        try {
+            int row = columns.findRow(product.getId());
+            if (row < 0) {
+                columns = columns.ensureCapacity(rowCount);
+                row = rowCount++;
+                columns.write(row, product, categories, subcategories, brands);
+                columns.indexId(row);
+                liveRows++;
+            } else {
+                boolean wasLive = columns.isLive(row);
+                columns.write(row, product, categories, subcategories, brands);
+                if (!wasLive) {
+                    liveRows++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            int row = columns.findRow(productId);
+            if (row >= 0 && columns.isLive(row)) {
+                columns.flags.putByte(row, (byte) (columns.flags.getByte(row) & ~LIVE));
+                liveRows--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjustStock(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            int row = columns.findRow(event.getProductId());
+            if (row < 0) {
+                return;
+            }
+            int stock = columns.stock.getInt(row) + event.getStockDelta();
+            byte flags = columns.flags.getByte(row);
+            boolean available = event.availableAfterAdjustment((flags & AVAILABLE) != 0, stock);
+            columns.stock.putInt(row, stock);
+            columns.flags.putByte(row, (byte) (available ? flags | AVAILABLE : flags & ~AVAILABLE));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Same contract as ProductFacetIndex.browse, except that tags are neither filtered nor counted
+     * Must run inside a transaction, which loads the products of the returned page.
+     *
+     * @param request Filters, page and sort; tag is ignored
+     * @param size Page size, already validated by the caller
+     */
+    public ProductBrowseDto browse(ProductBrowseRequest request, int size) {
+        if (!enabled) {
+            throw new IllegalStateException("Columnar catalog store is disabled");
+        }
+        ProductSort sort = ProductSort.from(request.getSortBy());
+        Sort.Direction direction = sort.direction(request.getDirection());
+        int page = request.getPage() == null ? 0 : request.getPage();
+        if (page < 0) {
+            throw new IllegalArgumentException("Page cannot be negative");
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+
+        Scan scan;
+        lock.readLock().lock();
+        try {
+            scan = scan(request, sort, direction, (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long from = (long) page * size;
+        List<UUID> pageIds = from >= scan.sortedIds().size()
+                ? List.of()
+                : scan.sortedIds().subList((int) from, scan.sortedIds().size());
+        Map<UUID, Product> loaded = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponseDto> items = pageIds.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toResponseDto)
+                .collect(Collectors.toList());
+
+        return new ProductBrowseDto(items, scan.total(), page, items.size(), from + pageIds.size() < scan.total(), scan.facets());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Scan(List<UUID> sortedIds, long total, ProductBrowseDto.Facets facets) {
+    }
+
+    /**
+     * One pass over every row: a row failing no filter is a match and counts towards every facet,
+     * a row failing exactly one filter still counts towards that filter's own facet
+     */
+    private Scan scan(ProductBrowseRequest request, ProductSort sort, Sort.Direction direction, int keep) {
+        int category = filterCode(categories, request.getCategoryId());
+        int subcategory = filterCode(subcategories, request.getSubcategoryId());
+        boolean[] brandFilter = null;
+        if (request.getBrandId() != null && !request.getBrandId().isEmpty()) {
+            brandFilter = new boolean[brands.size()];
+            for (UUID brandId : request.getBrandId()) {
+                int code = brands.code(brandId);
+                if (code >= 0) {
+                    brandFilter[code] = true;
+                }
+            }
+        }
+        long minPrice = request.getMinPrice() == null ? NULL_LONG : scaled(request.getMinPrice(), RoundingMode.CEILING);
+        long maxPrice = request.getMaxPrice() == null ? Long.MAX_VALUE : scaled(request.getMaxPrice(), RoundingMode.FLOOR);
+        boolean priceFilter = request.getMinPrice() != null || request.getMaxPrice() != null;
+        int minRating = request.getMinRating() == null ? NULL_INT : (int) scaled(request.getMinRating(), RoundingMode.CEILING);
+        int minDiscount = request.getMinDiscount() == null ? NULL_INT : (int) scaled(request.getMinDiscount(), RoundingMode.CEILING);
+        boolean inStockFilter = Boolean.TRUE.equals(request.getInStock());
+        int requiredFlags = (Boolean.TRUE.equals(request.getFeatured()) ? FEATURED : 0)
+                | (Boolean.TRUE.equals(request.getTrending()) ? TRENDING : 0)
+                | (Boolean.TRUE.equals(request.getNewArrival()) ? NEW_ARRIVAL : 0);
+
+        long[] categoryCounts = new long[categories.size()];
+        long[] subcategoryCounts = new long[subcategories.size()];
+        long[] brandCounts = new long[brands.size()];
+        long[] priceCounts = new long[PRICE_BOUNDS_PAISE.length + 1];
+        long[] ratingCounts = new long[RATING_STEPS.length];
+        long[] discountCounts = new long[DISCOUNT_STEPS.length];
+        long inStockCount = 0;
+        long total = 0;
+        TopRows top = new TopRows(keep, rowComparator(sort, direction));
+
+        Columns c = columns;
+        for (int row = 0; row < rowCount; row++) {
+            byte flags = c.flags.getByte(row);
+            if ((flags & LIVE) == 0) {
+                continue;
+            }
+            int rowCategory = c.category.getInt(row);
+            int rowSubcategory = c.subcategory.getInt(row);
+            int rowBrand = c.brand.getInt(row);
+            long price = c.price.getLong(row);
+            int rating = c.rating.getInt(row);
+            int discount = c.discount.getInt(row);
+            boolean inStock = c.stock.getInt(row) > 0 && (flags & AVAILABLE) != 0;
+
+            int failures = 0;
+            Dimension failed = null;
+            if (category != NULL_INT && rowCategory != category) {
+                failures++;
+                failed = Dimension.CATEGORY;
+            }
+            if (subcategory != NULL_INT && rowSubcategory != subcategory) {
+                failures++;
+                failed = Dimension.SUBCATEGORY;
+            }
+            if (brandFilter != null && (rowBrand < 0 || !brandFilter[rowBrand])) {
+                failures++;
+                failed = Dimension.BRAND;
+            }
+            if (priceFilter && (price == NULL_LONG || price < minPrice || price > maxPrice)) {
+                failures++;
+                failed = Dimension.PRICE;
+            }
+            if (minRating != NULL_INT && (rating == NULL_INT || rating < minRating)) {
+                failures++;
+                failed = Dimension.RATING;
+            }
+            if (minDiscount != NULL_INT && (discount == NULL_INT || discount < minDiscount)) {
+                failures++;
+                failed = Dimension.DISCOUNT;
+            }
+            if (inStockFilter && !inStock) {
+                failures++;
+                failed = Dimension.IN_STOCK;
+            }
+            if ((flags & requiredFlags) != requiredFlags) {
+                failures++;
+                failed = Dimension.FLAGS;
+            }
+            if (failures > 1) {
+                continue;
+            }
+
+            if (failures == 0) {
+                total++;
+                top.offer(row);
+            }
+            if (failures == 0 || failed == Dimension.CATEGORY) {
+                count(categoryCounts, rowCategory);
+            }
+            if (failures == 0 || failed == Dimension.SUBCATEGORY) {
+                count(subcategoryCounts, rowSubcategory);
+            }
+            if (failures == 0 || failed == Dimension.BRAND) {
+                count(brandCounts, rowBrand);
+            }
+            if ((failures == 0 || failed == Dimension.PRICE) && price != NULL_LONG) {
+                priceCounts[priceBand(price)]++;
+            }
+            if ((failures == 0 || failed == Dimension.RATING) && rating != NULL_INT) {
+                countSteps(ratingCounts, RATING_STEPS, rating);
+            }
+            if ((failures == 0 || failed == Dimension.DISCOUNT) && discount != NULL_INT) {
+                countSteps(discountCounts, DISCOUNT_STEPS, discount);
+            }
+            if ((failures == 0 || failed == Dimension.IN_STOCK) && inStock) {
+                inStockCount++;
+            }
+        }
+
+        List<UUID> sortedIds = Arrays.stream(top.sorted()).mapToObj(c::id).collect(Collectors.toList());
+        ProductBrowseDto.Facets facets = new ProductBrowseDto.Facets(
+                codeBuckets(categories, categoryCounts, referenceData::categoryName),
+                codeBuckets(subcategories, subcategoryCounts, referenceData::subcategoryName),
+                codeBuckets(brands, brandCounts, referenceData::brandName),
+                priceBuckets(priceCounts),
+                stepBuckets(RATING_STEPS, ratingCounts, " and above"),
+                stepBuckets(DISCOUNT_STEPS, discountCounts, "% off or more"),
+                List.of(),
+                inStockCount);
+        return new Scan(sortedIds, total, facets);
+    }
+
+    private enum Dimension {
+        CATEGORY, SUBCATEGORY, BRAND, PRICE, RATING, DISCOUNT, IN_STOCK, FLAGS
+    }
+
+    private static int filterCode(Dictionary dictionary, UUID id) {
+        if (id == null) {
+            return NULL_INT;
+        }
+        int code = dictionary.code(id);
+        return code >= 0 ? code : NO_MATCH;
+    }
+
+    private static void count(long[] counts, int code) {
+        if (code >= 0 && code < counts.length) {
+            counts[code]++;
+        }
+    }
+
+    private static void countSteps(long[] counts, int[] steps, int hundredths) {
+        for (int i = 0; i < steps.length; i++) {
+            if (hundredths >= steps[i] * 100) {
+                counts[i]++;
+            }
+        }
+    }
+
+    private static int priceBand(long paise) {
+        int band = 0;
+        while (band < PRICE_BOUNDS_PAISE.length && paise >= PRICE_BOUNDS_PAISE[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static List<Bucket> codeBuckets(Dictionary dictionary, long[] counts, Function<UUID, Optional<String>> label) {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                UUID id = dictionary.id(code);
+                buckets.add(new Bucket(id.toString(), label.apply(id).orElse(null), counts[code]));
+            }
+        }
+        buckets.sort(Comparator.comparing(Bucket::label, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return buckets;
+    }
+
+    private static List<Bucket> priceBuckets(long[] counts) {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int band = 0; band < counts.length; band++) {
+            if (counts[band] == 0) {
+                continue;
+            }
+            String lower = band == 0 ? "0" : String.valueOf(PRICE_BOUNDS[band - 1]);
+            if (band == PRICE_BOUNDS.length) {
+                buckets.add(new Bucket(lower + "-", lower + " and above", counts[band]));
+            } else {
+                String upper = String.valueOf(PRICE_BOUNDS[band]);
+                buckets.add(new Bucket(lower + "-" + upper, band == 0 ? "Under " + upper : lower + " - " + upper, counts[band]));
+            }
+        }
+        return buckets;
+    }
+
+    private static List<Bucket> stepBuckets(int[] steps, long[] counts, String labelSuffix) {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < steps.length; i++) {
+            if (counts[i] > 0) {
+                buckets.add(new Bucket(String.valueOf(steps[i]), steps[i] + labelSuffix, counts[i]));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Orders rows by the sort key, nulls last in either direction, then by id like ProductFacetIndex
+     */
+    private RowComparator rowComparator(ProductSort sort, Sort.Direction direction) {
+        Columns c = columns;
+        return (a, b) -> {
+            long keyA = sortKey(c, sort, a);
+            long keyB = sortKey(c, sort, b);
+            if (keyA != keyB) {
+                if (keyA == NULL_LONG) {
+                    return 1;
+                }
+                if (keyB == NULL_LONG) {
+                    return -1;
+                }
+                return direction.isAscending() ? Long.compare(keyA, keyB) : Long.compare(keyB, keyA);
+            }
+            int byHigh = Long.compare(c.idHigh.getLong(a), c.idHigh.getLong(b));
+            return byHigh != 0 ? byHigh : Long.compare(c.idLow.getLong(a), c.idLow.getLong(b));
+        };
+    }
+
+    private static long sortKey(Columns c, ProductSort sort, int row) {
+        return switch (sort) {
+            case PRICE -> c.price.getLong(row);
+            case RATING -> {
+                int rating = c.rating.getInt(row);
+                yield rating == NULL_INT ? NULL_LONG : rating;
+            }
+            case CREATED_AT -> c.createdAt.getLong(row);
+        };
+    }
+
+    private static long scaled(BigDecimal value, RoundingMode rounding) {
+        return value.movePointRight(2).setScale(0, rounding).longValue();
+    }
+
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int rowA, int rowB);
+    }
+
+    /**
+     * The first rows in sort order, kept in a bounded max-heap of row numbers
+     */
+    private static final class TopRows {
+
+        private final int limit;
+        private final RowComparator comparator;
+        private int[] heap = new int[16];
+        private int size;
+
+        TopRows(int limit, RowComparator comparator) {
+            this.limit = limit;
+            this.comparator = comparator;
+        }
+
+        void offer(int row) {
+            if (limit <= 0) {
+                return;
+            }
+            if (size < limit) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, Math.min(limit, size * 2));
+                }
+                heap[size] = row;
+                siftUp(size++);
+            } else if (comparator.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(0);
+            }
+        }
+
+        int[] sorted() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = heap[0];
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (comparator.compare(heap[index], heap[parent]) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int largest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && comparator.compare(heap[left], heap[largest]) > 0) {
+                    largest = left;
+                }
+                if (right < size && comparator.compare(heap[right], heap[largest]) > 0) {
+                    largest = right;
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+
+    /**
+     * Category, subcategory or brand ids numbered in order of first appearance
+     */
+    private static final class Dictionary {
+
+        private final Map<UUID, Integer> codes = new HashMap<>();
+        private final List<UUID> ids = new ArrayList<>();
+
+        int code(UUID id) {
+            Integer code = codes.get(id);
+            return code == null ? -1 : code;
+        }
+
+        int encode(UUID id) {
+            if (id == null) {
+                return NULL_INT;
+            }
+            return codes.computeIfAbsent(id, key -> {
+                ids.add(key);
+                return ids.size() - 1;
+            });
+        }
+
+        UUID id(int code) {
+            return ids.get(code);
+        }
+
+        int size() {
+            return ids.size();
+        }
+
+        void replaceWith(Dictionary other) {
+            codes.clear();
+            codes.putAll(other.codes);
+            ids.clear();
+            ids.addAll(other.ids);
+        }
+    }
+
+    /**
+     * The attribute columns plus an open-addressing id table that maps a product id to its row
+     */
+    private static final class Columns {
+
+        private final int capacity;
+        private final OffHeapColumn idHigh;
+        private final OffHeapColumn idLow;
+        private final OffHeapColumn price;
+        private final OffHeapColumn rating;
+        private final OffHeapColumn discount;
+        private final OffHeapColumn stock;
+        private final OffHeapColumn createdAt;
+        private final OffHeapColumn category;
+        private final OffHeapColumn subcategory;
+        private final OffHeapColumn brand;
+        private final OffHeapColumn flags;
+        private final OffHeapColumn idTable; // row + 1 per slot, 0 when empty; twice the row capacity
+        private final int idMask;
+
+        Columns(int capacity) {
+            this(capacity, null, 0);
+        }
+
+        private Columns(int capacity, Columns from, int rows) {
+            this.capacity = capacity;
+            idHigh = OffHeapColumn.copyOf(from == null ? null : from.idHigh, Long.BYTES, capacity);
+            idLow = OffHeapColumn.copyOf(from == null ? null : from.idLow, Long.BYTES, capacity);
+            price = OffHeapColumn.copyOf(from == null ? null : from.price, Long.BYTES, capacity);
+            rating = OffHeapColumn.copyOf(from == null ? null : from.rating, Integer.BYTES, capacity);
+            discount = OffHeapColumn.copyOf(from == null ? null : from.discount, Integer.BYTES, capacity);
+            stock = OffHeapColumn.copyOf(from == null ? null : from.stock, Integer.BYTES, capacity);
+            createdAt = OffHeapColumn.copyOf(from == null ? null : from.createdAt, Long.BYTES, capacity);
+            category = OffHeapColumn.copyOf(from == null ? null : from.category, Integer.BYTES, capacity);
+            subcategory = OffHeapColumn.copyOf(from == null ? null : from.subcategory, Integer.BYTES, capacity);
+            brand = OffHeapColumn.copyOf(from == null ? null : from.brand, Integer.BYTES, capacity);
+            flags = OffHeapColumn.copyOf(from == null ? null : from.flags, Byte.BYTES, capacity);
+            idTable = OffHeapColumn.copyOf(null, Integer.BYTES, capacity * 2);
+            idMask = capacity * 2 - 1;
+            for (int row = 0; row < rows; row++) {
+                indexId(row);
+            }
+        }
+
+        /**
+         * These columns, or a copy twice the size, so that the row after the ones in use fits
+         */
+        Columns ensureCapacity(int rowsInUse) {
+            return rowsInUse < capacity ? this : new Columns(capacity * 2, this, rowsInUse);
+        }
+
+        void write(int row, ProductResponseDto product, Dictionary categories, Dictionary subcategories, Dictionary brands) {
+            idHigh.putLong(row, product.getId().getMostSignificantBits());
+            idLow.putLong(row, product.getId().getLeastSignificantBits());
+            price.putLong(row, product.getPrice() == null ? NULL_LONG : scaled(product.getPrice(), RoundingMode.HALF_UP));
+            rating.putInt(row, product.getRating() == null ? NULL_INT : (int) scaled(product.getRating(), RoundingMode.HALF_UP));
+            discount.putInt(row, product.getDiscountPercentage() == null ? NULL_INT
+                    : (int) scaled(product.getDiscountPercentage(), RoundingMode.HALF_UP));
+            stock.putInt(row, product.getStock() == null ? 0 : product.getStock());
+            createdAt.putLong(row, product.getCreatedAt() == null ? NULL_LONG : product.getCreatedAt().toEpochMilli());
+            category.putInt(row, categories.encode(product.getCategoryId()));
+            subcategory.putInt(row, subcategories.encode(product.getSubcategoryId()));
+            brand.putInt(row, brands.encode(product.getBrandId()));
+            flags.putByte(row, (byte) (LIVE
+                    | (Boolean.TRUE.equals(product.getIsAvailable()) ? AVAILABLE : 0)
+                    | (Boolean.TRUE.equals(product.getIsFeatured()) ? FEATURED : 0)
+                    | (Boolean.TRUE.equals(product.getIsTrending()) ? TRENDING : 0)
+                    | (Boolean.TRUE.equals(product.getIsNewArrival()) ? NEW_ARRIVAL : 0)));
+        }
+
+        boolean isLive(int row) {
+            return (flags.getByte(row) & LIVE) != 0;
+        }
+
+        UUID id(int row) {
+            return new UUID(idHigh.getLong(row), idLow.getLong(row));
+        }
+
+        /**
+         * Row holding this id, dead rows included, or -1
+         */
+        int findRow(UUID id) {
+            long high = id.getMostSignificantBits();
+            long low = id.getLeastSignificantBits();
+            for (int slot = slot(high, low); ; slot = (slot + 1) & idMask) {
+                int entry = idTable.getInt(slot);
+                if (entry == 0) {
+                    return -1;
+                }
+                int row = entry - 1;
+                if (idHigh.getLong(row) == high && idLow.getLong(row) == low) {
+                    return row;
+                }
+            }
+        }
+
+        void indexId(int row) {
+            int slot = slot(idHigh.getLong(row), idLow.getLong(row));
+            while (idTable.getInt(slot) != 0) {
+                slot = (slot + 1) & idMask;
+            }
+            idTable.putInt(slot, row + 1);
+        }
+
+        long offHeapBytes() {
+            return (long) capacity * (4 * Long.BYTES + 6 * Integer.BYTES + Byte.BYTES) + (long) capacity * 2 * Integer.BYTES;
+        }
+
+        private int slot(long high, long low) {
+            long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & idMask;
+        }
+    }
+
+    /**
+     * A fixed-width column in a direct buffer, outside the Java heap
+     */
+    private static final class OffHeapColumn {
+
+        private final ByteBuffer buffer;
+        private final int width;
+
+        private OffHeapColumn(int width, int rows) {
+            this.width = width;
+            this.buffer = ByteBuffer.allocateDirect(Math.multiplyExact(width, rows)).order(ByteOrder.nativeOrder());
+        }
+
+        static OffHeapColumn copyOf(OffHeapColumn from, int width, int rows) {
+            OffHeapColumn column = new OffHeapColumn(width, rows);
+            if (from != null) {
+                column.buffer.put(0, from.buffer, 0, from.buffer.capacity());
+            }
+            return column;
+        }
+
+        long getLong(int row) {
+            return buffer.getLong(row * width);
+        }
+
+        void putLong(int row, long value) {
+            buffer.putLong(row * width, value);
+        }
+
+        int getInt(int row) {
+            return buffer.getInt(row * width);
+        }
+
+        void putInt(int row, int value) {
+            buffer.putInt(row * width, value);
+        }
+
+        byte getByte(int row) {
+            return buffer.get(row * width);
+        }
+
+        void putByte(int row, byte value) {
+            buffer.put(row * width, value);
+        }
+    }
+}
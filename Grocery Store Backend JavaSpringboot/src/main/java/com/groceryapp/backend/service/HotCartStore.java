@@ -0,0 +1,404 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.exception.CartItemNotFoundException;
+import com.groceryapp.backend.model.Cart;
+import com.groceryapp.backend.model.CartItem;
+import com.groceryapp.backend.repository.CartItemRepository;
+import com.groceryapp.backend.repository.CartRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Opt-in write-back tier for quantity edits (app.cart.hot.enabled)
+ *
+ * A quantity change lands on a detached copy of the user's cart held here instead of in the
+ * database; repeated taps on one line overwrite each other and only the last value is written.
+ * Dirty carts are written back by a scheduled flush, when they are evicted, before any other cart
+ * operation touches them (evict) and on shutdown. An edit to a line the held copy has not seen
+ * reloads the cart from the database before giving up on the item. Carts are spread over lock
+ * stripes by user, each an LRU map, so at most max-carts are held and the least recently used one
+ * makes room.
+ *
+ * Durability: an acknowledged quantity edit is only in memory until the next write-back, so a crash
+ * loses at most flush-interval-ms of edits; adding, removing and clearing lines always go straight
+ * to the database. Totals are only written over the row the held copy last saw (by updated_at); if
+ * anything else changed the cart meanwhile, such as checkout emptying it, they are recomputed from
+ * the lines instead and the copy is dropped.
+ *
+ * Reads and write-backs join the caller's transaction if one is active (CartService, checkout) and
+ * run in their own otherwise (flush). A write-back that joined a transaction which then rolls back
+ * is undone with it, so the copy and its edits are held here again. Carts live in this process
+ * only; run a single instance while the store is enabled.
+ */
+@Component
+@Slf4j
+public class HotCartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Stripe[] stripes;
+
+    // Lets an edit addressed by item id find the user's stripe without a query
+    private final Map<UUID, UUID> itemOwners = new ConcurrentHashMap<>();
+
+    public HotCartStore(CartRepository cartRepository,
+                        CartItemRepository cartItemRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.cart.hot.enabled:false}") boolean enabled,
+                        @Value("${app.cart.hot.max-carts:10000}") int maxCarts,
+                        @Value("${app.cart.hot.stripes:64}") int stripeCount) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        // Joins the caller's transaction when there is one, so a cart request never holds two pooled connections
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.stripes = new Stripe[stripeCount];
+        int capacity = Math.max(1, (maxCarts + stripeCount - 1) / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set a line's quantity in memory, loading the owner's cart on first use
+     *
+     * @param userId Expected owner, or null when the caller only knows the item
+     * @param check  Validates the line and new quantity before anything changes; may throw
+     * @return A copy of the cart after the edit
+     * @throws CartItemNotFoundException if the item does not exist or belongs to another user
+     */
+    public Cart updateQuantity(UUID userId, UUID itemId, int quantity, ObjIntConsumer<CartItem> check) {
+        UUID owner = itemOwners.get(itemId);
+        if (owner == null) {
+            owner = transactionTemplate.execute(status -> cartItemRepository.findUserIdByItemId(itemId))
+                    .orElseThrow(() -> new CartItemNotFoundException(itemId));
+        }
+        if (userId != null && !userId.equals(owner)) {
+            throw new CartItemNotFoundException("Cart item does not belong to user's cart");
+        }
+
+        Stripe stripe = stripeOf(owner);
+        stripe.lock.lock();
+        try {
+            HotCart hot = stripe.carts.get(owner);
+            boolean loaded = hot == null;
+            if (loaded) {
+                hot = load(owner);
+                stripe.put(owner, hot);
+            }
+            CartItem item = hot.items.get(itemId);
+            if (item == null && !loaded) {
+                // The line was written to the database after this copy was loaded
+                hot = reload(stripe, owner, hot);
+                item = hot.items.get(itemId);
+            }
+            if (item == null) {
+                throw new CartItemNotFoundException(itemId);
+            }
+
+            check.accept(item, quantity);
+            hot.cart.changeQuantity(item, quantity);
+            // Stored at microsecond precision, and write() compares it with the stored value
+            hot.cart.setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MICROS));
+            hot.dirtyItemIds.add(itemId);
+            return copyOf(hot.cart);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * A copy of the user's cart if it is held here, unflushed edits included
+     */
+    public Optional<Cart> get(UUID userId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Stripe stripe = stripeOf(userId);
+        stripe.lock.lock();
+        try {
+            HotCart hot = stripe.carts.get(userId);
+            return hot != null ? Optional.of(copyOf(hot.cart)) : Optional.empty();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Write the user's cart back if dirty and stop holding it
+     * Call before reading or changing the cart in the database (new lines, removals, checkout).
+     */
+    public void evict(UUID userId) {
+        if (!enabled) {
+            return;
+        }
+
+        Stripe stripe = stripeOf(userId);
+        stripe.lock.lock();
+        try {
+            HotCart hot = stripe.carts.get(userId);
+            if (hot != null) {
+                // Written before it is dropped, so a failed write leaves the edits here for the next flush
+                writeBack(hot);
+                stripe.carts.remove(userId);
+                forget(hot);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * evict() for whoever holds the item; nothing happens if its cart is not held here
+     */
+    public void evictOwnerOf(UUID itemId) {
+        UUID owner = itemOwners.get(itemId);
+        if (owner != null) {
+            evict(owner);
+        }
+    }
+
+    /**
+     * Write every dirty cart back, one transaction per stripe
+     * Each stripe stays locked while it is written so a newer edit can never be overwritten by an older one.
+     *
+     * @return Number of carts written
+     */
+    @Scheduled(fixedDelayString = "${app.cart.hot.flush-interval-ms:2000}")
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+
+        int written = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                List<HotCart> dirty = stripe.carts.values().stream()
+                        .filter(hot -> !hot.dirtyItemIds.isEmpty())
+                        .toList();
+                if (!dirty.isEmpty()) {
+                    List<HotCart> stale = transactionTemplate.execute(status -> dirty.stream()
+                            .filter(hot -> !write(hot))
+                            .toList());
+                    dirty.forEach(hot -> hot.dirtyItemIds.clear());
+                    // Their totals are behind the database, so the next edit starts from a fresh copy
+                    for (HotCart hot : stale) {
+                        stripe.carts.remove(hot.cart.getUserId());
+                        forget(hot);
+                    }
+                    written += dirty.size();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        if (written > 0) {
+            log.debug("Flushed {} hot carts", written);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (enabled) {
+            log.info("Flushed {} hot carts on shutdown", flush());
+        }
+    }
+
+    /**
+     * Number of carts currently held
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.carts.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private HotCart load(UUID userId) {
+        // Copied, since inside the caller's transaction the loaded cart stays managed by its persistence context
+        Cart cart = transactionTemplate.execute(status -> cartRepository.findByUserId(userId).map(HotCartStore::copyOf))
+                .orElseThrow(() -> new CartItemNotFoundException("Cart not found for user: " + userId));
+        HotCart hot = new HotCart(cart);
+        hot.items.keySet().forEach(itemId -> itemOwners.put(itemId, userId));
+        return hot;
+    }
+
+    // The stale copy's edits move onto a fresh one; its totals miss lines it never saw, so they are not kept
+    private HotCart reload(Stripe stripe, UUID userId, HotCart stale) {
+        stripe.carts.remove(userId);
+        forget(stale);
+        HotCart hot = load(userId);
+        for (UUID itemId : stale.dirtyItemIds) {
+            CartItem item = hot.items.get(itemId);
+            if (item != null) {
+                hot.cart.changeQuantity(item, stale.items.get(itemId).getQuantity());
+                hot.dirtyItemIds.add(itemId);
+            }
+        }
+        stripe.put(userId, hot);
+        return hot;
+    }
+
+    private void writeBack(HotCart hot) {
+        if (!hot.dirtyItemIds.isEmpty()) {
+            Set<UUID> written = Set.copyOf(hot.dirtyItemIds);
+            Instant storedUpdatedAt = hot.storedUpdatedAt;
+            transactionTemplate.executeWithoutResult(status -> write(hot));
+            holdAgainOnRollback(hot, written, storedUpdatedAt);
+            hot.dirtyItemIds.clear();
+        }
+    }
+
+    // Only while a caller's transaction is open, i.e. the write-back joined it
+    private void holdAgainOnRollback(HotCart hot, Set<UUID> written, Instant storedUpdatedAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        UUID userId = hot.cart.getUserId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                Stripe stripe = stripeOf(userId);
+                stripe.lock.lock();
+                try {
+                    HotCart held = stripe.carts.get(userId);
+                    if (held == null) {
+                        // Not put(): its write-back of the eldest cart would join the finished transaction;
+                        // the stripe is one over capacity until its next put
+                        hot.items.keySet().forEach(itemId -> itemOwners.put(itemId, userId));
+                        stripe.carts.put(userId, hot);
+                        held = hot;
+                    }
+                    if (held == hot) {
+                        hot.dirtyItemIds.addAll(written);
+                        hot.storedUpdatedAt = storedUpdatedAt;
+                    } else {
+                        log.warn("Dropped quantity edits of user {} rolled back while a newer copy was held", userId);
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return false if the cart changed in the database since the copy was loaded, in which case
+     *         the totals were recomputed from the lines rather than taken from the copy
+     */
+    private boolean write(HotCart hot) {
+        for (UUID itemId : hot.dirtyItemIds) {
+            cartItemRepository.updateQuantity(itemId, hot.items.get(itemId).getQuantity());
+        }
+        Cart cart = hot.cart;
+        int updated = cartRepository.updateTotals(cart.getId(), cart.getItemCount(), cart.getSubtotalPaise(),
+                cart.getSavingsPaise(), cart.getUpdatedAt(), hot.storedUpdatedAt);
+        if (updated == 0) {
+            cartRepository.recomputeTotals(List.of(cart.getId()));
+            return false;
+        }
+        hot.storedUpdatedAt = cart.getUpdatedAt();
+        return true;
+    }
+
+    private void forget(HotCart hot) {
+        hot.items.keySet().forEach(itemOwners::remove);
+    }
+
+    private Stripe stripeOf(UUID userId) {
+        return stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+    }
+
+    // Callers get their own copy so mapping a response never races with the next edit
+    private static Cart copyOf(Cart cart) {
+        Cart copy = new Cart();
+        copy.setId(cart.getId());
+        copy.setUserId(cart.getUserId());
+        copy.setItemCount(cart.getItemCount());
+        copy.setSubtotalPaise(cart.getSubtotalPaise());
+        copy.setSavingsPaise(cart.getSavingsPaise());
+        copy.setCreatedAt(cart.getCreatedAt());
+        copy.setUpdatedAt(cart.getUpdatedAt());
+        for (CartItem item : cart.getItems()) {
+            CartItem itemCopy = new CartItem(item.getId(), copy, item.getProductId(), item.getQuantity(),
+                    item.getPriceAtAdd(), item.getMrpAtAdd());
+            copy.getItems().add(itemCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * A detached cart, its lines by id, the lines edited since the last write-back and the
+     * updated_at the row had when last loaded or written from here
+     */
+    private static final class HotCart {
+        final Cart cart;
+        final Map<UUID, CartItem> items = new HashMap<>();
+        final Set<UUID> dirtyItemIds = new HashSet<>();
+        Instant storedUpdatedAt;
+
+        HotCart(Cart cart) {
+            this.cart = cart;
+            this.storedUpdatedAt = cart.getUpdatedAt();
+            cart.getItems().forEach(item -> items.put(item.getId(), item));
+        }
+    }
+
+    /**
+     * One lock and the LRU map of the carts it guards
+     */
+    private final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<UUID, HotCart> carts = new LinkedHashMap<>(16, 0.75f, true);
+        final int capacity;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        // Caller holds the lock
+        void put(UUID userId, HotCart hot) {
+            carts.put(userId, hot);
+            while (carts.size() > capacity) {
+                Iterator<HotCart> eldest = carts.values().iterator();
+                HotCart evicted = eldest.next();
+                writeBack(evicted);
+                eldest.remove();
+                forget(evicted);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.exception.ProductNotFoundException;
+import com.groceryapp.backend.model.InventoryJournalEntry;
+import com.groceryapp.backend.repository.InventoryJournalRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import com.groceryapp.backend.repository.StockReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in in-memory stock counters for flash sales (app.inventory.ledger.enabled)
+ *
+ * Each product gets its own atomic counter, so reservations are decided with a compare-and-set
+ * instead of a row lock on products.stock. Every decision is appended to inventory_journal in the
+ * caller's transaction, which keeps it durable without touching the hot product row; a scheduled
+ * flush folds the journal into products.stock in batches. After a restart a counter is rebuilt as
+ * products.stock plus the journal entries not yet flushed, so nothing committed is lost.
+ *
+ * Counters live in this process only; run a single instance while the ledger is enabled.
+ */
+@Component
+@Slf4j
+public class InventoryLedger {
+
+    private final ProductRepository productRepository;
+    private final InventoryJournalRepository journalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final Map<UUID, Counter> counters = new ConcurrentHashMap<>();
+
+    // Loading a counter reads stock and journal separately; a flush must not move entries in between
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public InventoryLedger(ProductRepository productRepository,
+                           InventoryJournalRepository journalRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.inventory.ledger.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.journalRepository = journalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take the requested quantities, all or nothing
+     * Must run inside the caller's transaction; the stock is given back if it rolls back.
+     *
+     * @param quantities Quantity per product ID
+     * @return Every product that was short; empty when all stock was taken
+     * @throws ProductNotFoundException if a product does not exist
+     */
+    public List<StockReservationRepository.Shortage> reserve(Map<UUID, Integer> quantities) {
+        // Id order keeps the give-back below deterministic when several products are short
+        SortedMap<UUID, Integer> ordered = new TreeMap<>(quantities);
+        List<Move> taken = new ArrayList<>();
+        List<StockReservationRepository.Shortage> shortages = new ArrayList<>();
+
+        for (Map.Entry<UUID, Integer> line : ordered.entrySet()) {
+            Counter counter = counter(line.getKey());
+            int requested = line.getValue();
+            int before = counter.tryTake(requested);
+            if (before < requested) {
+                shortages.add(new StockReservationRepository.Shortage(line.getKey(), counter.name(), requested, before));
+            } else {
+                taken.add(new Move(line.getKey(), counter, -requested));
+            }
+        }
+
+        if (!shortages.isEmpty()) {
+            taken.forEach(Move::undo);
+            return shortages;
+        }
+
+        journal(taken);
+        return List.of();
+    }
+
+    /**
+     * Give stock back (cancelled order)
+     *
+     * @throws ProductNotFoundException if the product does not exist
+     */
+    public void release(UUID productId, int quantity) {
+        Counter counter = counter(productId);
+        counter.stock().addAndGet(quantity);
+        journal(List.of(new Move(productId, counter, quantity)));
+    }
+
+    /**
+     * Units the ledger currently holds for a product
+     */
+    public OptionalInt available(UUID productId) {
+        Counter counter = counters.get(productId);
+        return counter != null ? OptionalInt.of(counter.stock().get()) : OptionalInt.empty();
+    }
+
+    /**
+     * Forget a product's counter after its stock was set directly (product edit)
+     * Unflushed journal entries are dropped in the caller's transaction, since the new value replaces them.
+     */
+    public void overwritten(UUID productId) {
+        if (!enabled) {
+            return;
+        }
+        journalRepository.deleteByProductId(productId);
+        afterCompletion(status -> counters.remove(productId));
+    }
+
+    /**
+     * Fold one batch of journal entries into products.stock
+     *
+     * @return Number of journal entries applied
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:500}")
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+
+        flushLock.writeLock().lock();
+        try {
+            Integer applied = transactionTemplate.execute(status -> {
+                List<InventoryJournalEntry> batch = journalRepository.findTop1000ByOrderByIdAsc();
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+
+                Map<UUID, Integer> deltas = batch.stream().collect(Collectors.groupingBy(
+                        InventoryJournalEntry::getProductId, TreeMap::new,
+                        Collectors.summingInt(InventoryJournalEntry::getDelta)));
+                Instant now = Instant.now();
+                deltas.forEach((productId, delta) -> {
+                    if (delta != 0) {
+                        productRepository.applyStockDelta(productId, delta, now);
+                    }
+                });
+                // Delete exactly what was applied; entries committed meanwhile wait for the next flush
+                journalRepository.deleteAllInBatch(batch);
+                return batch.size();
+            });
+
+            if (applied != null && applied > 0) {
+                log.debug("Flushed {} inventory journal entries", applied);
+            }
+            return applied != null ? applied : 0;
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply whatever the previous run left in the journal before taking traffic
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+
+        counters.clear();
+        log.info("Inventory ledger enabled, recovered {} journal entries", drain());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (enabled) {
+            // Leave nothing for the next start to recover
+            log.info("Flushed {} inventory journal entries on shutdown", drain());
+        }
+    }
+
+    private int drain() {
+        int total = 0;
+        int applied;
+        while ((applied = flush()) > 0) {
+            total += applied;
+        }
+        return total;
+    }
+
+    private Counter counter(UUID productId) {
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+
+        flushLock.readLock().lock();
+        try {
+            return counters.computeIfAbsent(productId, this::load);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the flush read lock; stock is read from the row, never from an entity loaded before a flush
+    private Counter load(UUID productId) {
+        ProductRepository.StockLevel level = productRepository.findStockLevelById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        int stock = level.getStock() != null ? level.getStock() : 0;
+        long pending = journalRepository.sumPendingDelta(productId);
+        return new Counter(level.getName(), new AtomicInteger((int) (stock + pending)));
+    }
+
+    private void journal(List<Move> moves) {
+        journalRepository.saveAll(moves.stream()
+                .map(move -> new InventoryJournalEntry(move.productId(), move.delta()))
+                .toList());
+
+        // The counters moved already; undo that if the journal entries never commit. The counters
+        // that moved are undone even if the map holds a newer one by then (overwritten)
+        afterCompletion(status -> {
+            if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                moves.forEach(Move::undo);
+            }
+        });
+    }
+
+    private static void afterCompletion(IntConsumer callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status);
+            }
+        });
+    }
+
+    /**
+     * A change already made to a counter, kept so it can be journaled or undone
+     */
+    private record Move(UUID productId, Counter counter, int delta) {
+
+        void undo() {
+            counter.stock().addAndGet(-delta);
+        }
+    }
+
+    /**
+     * A product's units held in memory
+     */
+    record Counter(String name, AtomicInteger stock) {
+
+        /**
+         * Take the quantity if enough units are left
+         *
+         * @return Units before the attempt; less than the quantity means nothing was taken
+         */
+        int tryTake(int quantity) {
+            while (true) {
+                int current = stock.get();
+                if (current < quantity) {
+                    return current;
+                }
+                if (stock.compareAndSet(current, current - quantity)) {
+                    return current;
+                }
+            }
+        }
+    }
+}
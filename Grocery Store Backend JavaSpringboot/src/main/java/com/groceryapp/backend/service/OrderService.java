@@ -1,11 +1,16 @@
 package com.groceryapp.backend.service;
 
+import com.groceryapp.backend.dto.CheckoutRequestDto;
 import com.groceryapp.backend.dto.CreateOrderRequestDto;
 import com.groceryapp.backend.dto.OrderResponseDto;
+import com.groceryapp.backend.dto.ReorderResponseDto;
 import com.groceryapp.backend.exception.AddressNotFoundException;
-import com.groceryapp.backend.exception.InsufficientStockException;
 import com.groceryapp.backend.exception.OrderNotFoundException;
+import com.groceryapp.backend.exception.ProductNotFoundException;
 import com.groceryapp.backend.model.Address;
+import com.groceryapp.backend.model.Cart;
+import com.groceryapp.backend.model.CartItem;
+import com.groceryapp.backend.model.Money;
 import com.groceryapp.backend.model.Order;
 import com.groceryapp.backend.model.OrderItem;
 import com.groceryapp.backend.model.Product;
@@ -16,9 +21,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -30,6 +36,7 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final AddressRepository addressRepository;
     private final ProductService productService;
+    private final CartService cartService;
     
     @Transactional
     public OrderResponseDto createOrder(CreateOrderRequestDto requestDto) {
@@ -40,67 +47,81 @@ public class OrderService {
             throw new IllegalArgumentException("Cart items cannot be empty");
         }
         
-        // Fetch delivery address
-        Address deliveryAddress = addressRepository.findById(requestDto.getDeliveryAddressId())
-                .orElseThrow(() -> new AddressNotFoundException(requestDto.getDeliveryAddressId()));
-        
-        // Normalize payment method to uppercase
-        String normalizedPaymentMethod = requestDto.getPaymentMethod().toUpperCase();
+        Order order = newOrder(requestDto.getUserId(), requestDto.getPaymentMethod(), requestDto.getDeliveryAddressId());
         
-        // Create order
-        Order order = new Order();
-        order.setUserId(requestDto.getUserId());
-        order.setOrderNumber(generateOrderNumber());
-        order.setStatus("PENDING");
-        order.setPaymentMethod(normalizedPaymentMethod);
-        order.setPaymentStatus(normalizedPaymentMethod.equals("COD") ? "PENDING" : "PENDING");
+        Money totalAmount = Money.ZERO;
         
-        // Set delivery address
-        order.setDeliveryName(deliveryAddress.getFullName());
-        order.setDeliveryPhone(deliveryAddress.getPhoneNumber());
-        order.setDeliveryAddress(deliveryAddress.getAddressLine1() + 
-                (deliveryAddress.getAddressLine2() != null ? ", " + deliveryAddress.getAddressLine2() : ""));
-        order.setDeliveryCity(deliveryAddress.getCity());
-        order.setDeliveryState(deliveryAddress.getState());
-        order.setDeliveryPincode(deliveryAddress.getPincode());
-        
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        // Load all ordered products in one query
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(requestDto.getItems().stream()
+                .map(CreateOrderRequestDto.OrderItemDto::getProductId)
+                .collect(Collectors.toSet()));
         
         // Add order items
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
         for (CreateOrderRequestDto.OrderItemDto itemDto : requestDto.getItems()) {
-            Product product = productService.getProductEntityById(itemDto.getProductId());
-            
-            // Check stock
-            if (product.getStock() < itemDto.getQuantity()) {
-                throw new InsufficientStockException(
-                        product.getName(),
-                        itemDto.getQuantity(),
-                        product.getStock()
-                );
-            }
-            
-            OrderItem orderItem = new OrderItem();
-            orderItem.setProductId(product.getId());
-            orderItem.setProductName(product.getName());
-            orderItem.setQuantity(itemDto.getQuantity());
-            orderItem.setPriceAtOrder(product.getPrice());
-            orderItem.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity())));
-            
-            order.addItem(orderItem);
-            totalAmount = totalAmount.add(orderItem.getTotalPrice());
-            
-            // Update product stock
-            product.setStock(product.getStock() - itemDto.getQuantity());
-            productService.updateProductStock(product);
+            Product product = requireProduct(products, itemDto.getProductId());
+            totalAmount = totalAmount.plus(addOrderLine(order, product, itemDto.getQuantity()));
+            quantities.merge(product.getId(), itemDto.getQuantity(), Integer::sum);
         }
         
-        order.setTotalAmount(totalAmount);
+        // Take the stock for every line in one statement; throws naming every short product
+        productService.reserveStock(quantities);
+        
+        order.setTotalAmount(totalAmount.toBigDecimal());
         Order savedOrder = orderRepository.save(order);
         
         log.info("Order created successfully with order number: {}", savedOrder.getOrderNumber());
         return mapToResponseDto(savedOrder);
     }
     
+    /**
+     * Turn the user's persisted cart into an order
+     * The cart row stays locked, the stock for every line is taken in one statement and the cart is
+     * emptied, all in this transaction, so either the order exists and the cart is empty or neither changed.
+     */
+    @Transactional
+    public OrderResponseDto checkout(CheckoutRequestDto requestDto) {
+        log.info("Checking out cart for user: {}", requestDto.getUserId());
+        
+        Cart cart = cartService.getCartForCheckout(requestDto.getUserId());
+        Order order = newOrder(requestDto.getUserId(), requestDto.getPaymentMethod(), requestDto.getDeliveryAddressId());
+        
+        // Charge today's prices, like createOrder, all read in one query
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(cart.getItems().stream()
+                .map(CartItem::getProductId)
+                .collect(Collectors.toSet()));
+        
+        Money totalAmount = Money.ZERO;
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (CartItem cartItem : cart.getItems()) {
+            Product product = requireProduct(products, cartItem.getProductId());
+            totalAmount = totalAmount.plus(addOrderLine(order, product, cartItem.getQuantity()));
+            quantities.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
+        }
+        
+        productService.reserveStock(quantities);
+        
+        order.setTotalAmount(totalAmount.toBigDecimal());
+        Order savedOrder = orderRepository.save(order);
+        cartService.emptyCart(cart);
+        
+        log.info("Checked out cart into order number: {}", savedOrder.getOrderNumber());
+        return mapToResponseDto(savedOrder);
+    }
+    
+    /**
+     * Copy a past order back into its user's cart; see CartService.addOrderToCart
+     */
+    @Transactional
+    public ReorderResponseDto reorder(UUID orderId) {
+        log.info("Re-ordering order: {}", orderId);
+        
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        
+        return cartService.addOrderToCart(order.getUserId(), order.getItems());
+    }
+    
     @Transactional(readOnly = true)
     public List<OrderResponseDto> getUserOrders(UUID userId) {
         log.info("Fetching orders for user: {}", userId);
@@ -158,9 +179,7 @@ public class OrderService {
         
         // Restore product stock
         for (OrderItem item : order.getItems()) {
-            Product product = productService.getProductEntityById(item.getProductId());
-            product.setStock(product.getStock() + item.getQuantity());
-            productService.updateProductStock(product);
+            productService.increaseStock(item.getProductId(), item.getQuantity());
         }
         
         order.setStatus("CANCELLED");
@@ -170,6 +189,60 @@ public class OrderService {
         return mapToResponseDto(updatedOrder);
     }
     
+    private Order newOrder(UUID userId, String paymentMethod, UUID deliveryAddressId) {
+        // Fetch delivery address
+        Address deliveryAddress = addressRepository.findById(deliveryAddressId)
+                .orElseThrow(() -> new AddressNotFoundException(deliveryAddressId));
+        
+        // Normalize payment method to uppercase
+        String normalizedPaymentMethod = paymentMethod.toUpperCase();
+        
+        // Create order
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setOrderNumber(generateOrderNumber());
+        order.setStatus("PENDING");
+        order.setPaymentMethod(normalizedPaymentMethod);
+        order.setPaymentStatus(normalizedPaymentMethod.equals("COD") ? "PENDING" : "PENDING");
+        
+        // Set delivery address
+        order.setDeliveryName(deliveryAddress.getFullName());
+        order.setDeliveryPhone(deliveryAddress.getPhoneNumber());
+        order.setDeliveryAddress(deliveryAddress.getAddressLine1() + 
+                (deliveryAddress.getAddressLine2() != null ? ", " + deliveryAddress.getAddressLine2() : ""));
+        order.setDeliveryCity(deliveryAddress.getCity());
+        order.setDeliveryState(deliveryAddress.getState());
+        order.setDeliveryPincode(deliveryAddress.getPincode());
+        
+        return order;
+    }
+    
+    /**
+     * Add a line at the product's current price
+     *
+     * @return The line total
+     */
+    private Money addOrderLine(Order order, Product product, int quantity) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProductId(product.getId());
+        orderItem.setProductName(product.getName());
+        orderItem.setQuantity(quantity);
+        Money lineTotal = Money.of(product.getPrice()).times(quantity);
+        orderItem.setPriceAtOrder(product.getPrice());
+        orderItem.setTotalPrice(lineTotal.toBigDecimal());
+        
+        order.addItem(orderItem);
+        return lineTotal;
+    }
+    
+    private Product requireProduct(Map<UUID, Product> products, UUID productId) {
+        Product product = products.get(productId);
+        if (product == null) {
+            throw new ProductNotFoundException(productId);
+        }
+        return product;
+    }
+    
     private String generateOrderNumber() {
         return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
@@ -0,0 +1,68 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once and served as-is, with a strong ETag over its bytes
+ *
+ * @param body UTF-8 JSON
+ * @param etag Quoted hash of the body
+ * @param gzipBody The body gzip-compressed, or null when no compressed variant was prepared
+ */
+public record PreparedJson(byte[] body, String etag, byte[] gzipBody) {
+
+    // Below this the gzip header and a round of inflating cost more than they save
+    static final int MIN_COMPRESSIBLE_SIZE = 1024;
+
+    /**
+     * Serialize a one-off response; no compressed variant is kept
+     */
+    public static PreparedJson of(ObjectMapper objectMapper, Object value) {
+        byte[] body = serialize(objectMapper, value);
+        return new PreparedJson(body, etagOf(body), null);
+    }
+
+    /**
+     * Serialize a response that will be served many times, compressing it up front
+     */
+    public static PreparedJson compressed(ObjectMapper objectMapper, Object value) {
+        byte[] body = serialize(objectMapper, value);
+        return new PreparedJson(body, etagOf(body), body.length >= MIN_COMPRESSIBLE_SIZE ? gzip(body) : null);
+    }
+
+    /**
+     * The gzip variant is a different representation, so it gets its own strong ETag
+     */
+    public String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private static byte[] serialize(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static String etagOf(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
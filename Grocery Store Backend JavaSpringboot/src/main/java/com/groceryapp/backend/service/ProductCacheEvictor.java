@@ -0,0 +1,58 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.config.CacheConfig;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Drops a product from the read caches once a write to it commits
+ * Every product write (edit, delete, stock change) publishes ProductChangedEvent, so this is the
+ * single place the caches are invalidated. Evicting after commit means a reader that starts after
+ * it loads the committed row. A reader that loaded the pre-commit row and puts it after this
+ * eviction is caught by VersionedCaffeineCache, which drops values loaded across an eviction.
+ * Cached products carry their category, subcategory and brand, so a write to those clears both
+ * caches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(CacheConfig.PRODUCTS, event.getProductId());
+        evict(CacheConfig.PRODUCT_DTOS, event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        clear(CacheConfig.PRODUCTS);
+        clear(CacheConfig.PRODUCT_DTOS);
+    }
+
+    private void evict(String cacheName, UUID productId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(productId);
+            log.debug("Evicted product {} from cache {}", productId, cacheName);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+            log.debug("Cleared cache {}", cacheName);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.groceryapp.backend.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Opaque cursor for keyset pagination over products
+ * Encodes the sort key and id of the last row of a page, together with the sort it was produced
+ * under, so the next page continues with "WHERE (key, id) > (:key, :id)" instead of an OFFSET.
+ */
+final class ProductCursor {
+    
+    private static final String SEPARATOR = "~";
+    private static final String ID = "id";
+    
+    private ProductCursor() {
+    }
+    
+    static String encode(ProductSort sort, Sort.Direction direction, KeysetScrollPosition position) {
+        Map<String, ?> keys = position.getKeys();
+        String raw = String.join(SEPARATOR,
+                sort.getProperty(),
+                direction.name(),
+                format(keys.get(sort.getProperty())),
+                String.valueOf(keys.get(ID)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static ScrollPosition decode(String cursor, ProductSort sort, Sort.Direction direction) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+        
+        if (parts.length != 4 || !parts[0].equals(sort.getProperty()) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Page cursor does not match the requested sort");
+        }
+        
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sort.getProperty(), sort.parseKey(parts[2]));
+            keys.put(ID, UUID.fromString(parts[3]));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+    
+    private static String format(Object key) {
+        if (key instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return String.valueOf(key);
+    }
+}
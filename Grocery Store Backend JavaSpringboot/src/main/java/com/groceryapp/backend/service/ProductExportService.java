@@ -0,0 +1,82 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalog as newline-delimited JSON for feeds and indexers
+ *
+ * Products are read through a database cursor and written one line at a time; each entity is
+ * detached once written, so memory stays flat however large the catalog is.
+ */
+@Service
+@Slf4j
+public class ProductExportService {
+
+    private static final byte NEWLINE = '\n';
+    private static final int FLUSH_EVERY = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter lineWriter;
+
+    public ProductExportService(ProductRepository productRepository, ProductMapper productMapper,
+                                EntityManager entityManager, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.lineWriter = objectMapper.writerFor(ProductResponseDto.class);
+    }
+
+    /**
+     * Write every product, or only those changed since a point in time, as one JSON object per line
+     * Lines are ordered by updatedAt, so a sync can resume from the last updatedAt it saw.
+     *
+     * @param updatedSince Only products updated at or after this instant; null for the whole catalog
+     * @param out Destination; left open
+     * @return Number of products written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(Instant updatedSince, OutputStream out) {
+        log.info("Exporting products as NDJSON, updatedSince: {}", updatedSince);
+
+        long written = 0;
+        try (Stream<Product> products = updatedSince != null
+                ? productRepository.streamUpdatedSinceForExport(updatedSince)
+                : productRepository.streamAllForExport()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                out.write(lineWriter.writeValueAsBytes(productMapper.toResponseDto(product)));
+                out.write(NEWLINE);
+                // Keep the persistence context from growing with the catalog
+                entityManager.detach(product);
+
+                if (++written % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Product export interrupted after " + written + " products", e);
+        }
+
+        log.info("Exported {} products", written);
+        return written;
+    }
+}
@@ -0,0 +1,565 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseDto.Bucket;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory bitmap index behind the faceted product browse and the homepage rails
+ *
+ * Every product gets a small integer ordinal, and each facet value (category, subcategory, brand,
+ * tag, price band, rating and discount step, boolean flag) keeps the set of ordinals that have it.
+ * A browse ANDs the bitsets of the selected filters, and each facet count is the cardinality of
+ * one more AND, so filtering and counting never touch the database.
+ *
+ * The index is loaded once the application is ready and kept current through ProductChangedEvent.
+ * Products are never changed in place: a stock change swaps in a new copy, so a page already
+ * returned by browse or withFlags keeps the values it was built from.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetIndex {
+
+    private static final int[] PRICE_BOUNDS = {50, 100, 200, 500};
+    private static final int[] RATING_STEPS = {4, 3, 2, 1};
+    private static final int[] DISCOUNT_STEPS = {50, 25, 10};
+    private static final int MAX_TAG_BUCKETS = 20;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    private final List<ProductResponseDto> products = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    private final BitSet live = new BitSet();
+    private final Map<Flag, BitSet> flags = newFlagBitSets();
+    private final Map<UUID, BitSet> categories = new HashMap<>();
+    private final Map<UUID, BitSet> subcategories = new HashMap<>();
+    private final Map<UUID, BitSet> brands = new HashMap<>();
+    private final Map<String, BitSet> tags = new HashMap<>();
+    private final BitSet[] priceBands = newBitSets(PRICE_BOUNDS.length + 1);
+    private final BitSet[] ratingAtLeast = newBitSets(RATING_STEPS.length);
+    private final BitSet[] discountAtLeast = newBitSets(DISCOUNT_STEPS.length);
+    private final Map<UUID, String> labels = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Boolean product attributes indexed as bitsets
+     * IN_STOCK follows ProductRepository.findInStockProducts: stock above zero and available.
+     */
+    public enum Flag {
+        AVAILABLE, IN_STOCK, FEATURED, TRENDING, NEW_ARRIVAL
+    }
+
+    /**
+     * Load every product from the database into the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reload() {
+        log.info("Building product facet index");
+        List<ProductResponseDto> all = productRepository.findAll().stream()
+                .map(productMapper::toResponseDto)
+                .collect(Collectors.toList());
+        rebuild(all);
+        log.info("Product facet index built with {} products", all.size());
+    }
+
+    // Ahead of CatalogVersion, so a listing rebuilt for the new version already sees the change
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case UPSERTED -> index(event.getProduct());
+            case DELETED -> remove(event.getProductId());
+            case STOCK_ADJUSTED -> adjustStock(event);
+        }
+    }
+
+    public void rebuild(Collection<ProductResponseDto> all) {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            ordinals.clear();
+            freeOrdinals.clear();
+            live.clear();
+            flags.values().forEach(BitSet::clear);
+            categories.clear();
+            subcategories.clear();
+            brands.clear();
+            tags.clear();
+            labels.clear();
+            Arrays.stream(priceBands).forEach(BitSet::clear);
+            Arrays.stream(ratingAtLeast).forEach(BitSet::clear);
+            Arrays.stream(discountAtLeast).forEach(BitSet::clear);
+            all.forEach(this::addProduct);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(ProductResponseDto product) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(product.getId());
+            addProduct(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjustStock(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(event.getProductId());
+            if (ordinal != null) {
+                ProductResponseDto product = event.withStockAdjustment(products.get(ordinal));
+                products.set(ordinal, product);
+                flags.get(Flag.AVAILABLE).set(ordinal, Boolean.TRUE.equals(product.getIsAvailable()));
+                flags.get(Flag.IN_STOCK).set(ordinal, isInStock(product));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filter, sort and page the catalog, and count the products behind every facet value
+     *
+     * @param request Filters, page and sort
+     * @param size Page size, already validated by the caller
+     * @return The page, the total number of matches and the facet counts
+     */
+    public ProductBrowseDto browse(ProductBrowseRequest request, int size) {
+        ProductSort sort = ProductSort.from(request.getSortBy());
+        Sort.Direction direction = sort.direction(request.getDirection());
+        int page = request.getPage() == null ? 0 : request.getPage();
+        if (page < 0) {
+            throw new IllegalArgumentException("Page cannot be negative");
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Dimension, BitSet> filters = filters(request);
+            BitSet matches = matching(filters, null);
+
+            List<ProductResponseDto> sorted = matches.stream()
+                    .mapToObj(products::get)
+                    .sorted(comparator(sort, direction))
+                    .collect(Collectors.toList());
+            long from = (long) page * size;
+            List<ProductResponseDto> items = from >= sorted.size()
+                    ? List.of()
+                    : List.copyOf(sorted.subList((int) from, (int) Math.min(sorted.size(), from + size)));
+
+            ProductBrowseDto.Facets facets = new ProductBrowseDto.Facets(
+                    idBuckets(categories, matching(filters, Dimension.CATEGORY)),
+                    idBuckets(subcategories, matching(filters, Dimension.SUBCATEGORY)),
+                    idBuckets(brands, matching(filters, Dimension.BRAND)),
+                    priceBuckets(matching(filters, Dimension.PRICE)),
+                    stepBuckets(RATING_STEPS, ratingAtLeast, matching(filters, Dimension.RATING), " and above"),
+                    stepBuckets(DISCOUNT_STEPS, discountAtLeast, matching(filters, Dimension.DISCOUNT), "% off or more"),
+                    tagBuckets(matches),
+                    countAnd(matching(filters, Dimension.IN_STOCK), flags.get(Flag.IN_STOCK)));
+
+            return new ProductBrowseDto(items, sorted.size(), page, items.size(),
+                    from + items.size() < sorted.size(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Products carrying every given flag, optionally within a category and brand, newest first
+     * e.g. the featured rail is withFlags(EnumSet.of(FEATURED, AVAILABLE), null, null, 12).
+     *
+     * @param limit Maximum number of products, or 0 for all of them
+     */
+    public List<ProductResponseDto> withFlags(Set<Flag> required, UUID categoryId, UUID brandId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = withAll(required);
+            if (categoryId != null) {
+                matches.and(categories.getOrDefault(categoryId, new BitSet()));
+            }
+            if (brandId != null) {
+                matches.and(brands.getOrDefault(brandId, new BitSet()));
+            }
+            return matches.stream()
+                    .mapToObj(products::get)
+                    .sorted(comparator(ProductSort.CREATED_AT, Sort.Direction.DESC))
+                    .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of products carrying every given flag
+     */
+    public int count(Set<Flag> required) {
+        lock.readLock().lock();
+        try {
+            return withAll(required).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private enum Dimension {
+        CATEGORY, SUBCATEGORY, BRAND, PRICE, RATING, DISCOUNT, IN_STOCK, FLAGS, TAGS
+    }
+
+    private Map<Dimension, BitSet> filters(ProductBrowseRequest request) {
+        Map<Dimension, BitSet> filters = new EnumMap<>(Dimension.class);
+        if (request.getCategoryId() != null) {
+            filters.put(Dimension.CATEGORY, categories.getOrDefault(request.getCategoryId(), new BitSet()));
+        }
+        if (request.getSubcategoryId() != null) {
+            filters.put(Dimension.SUBCATEGORY, subcategories.getOrDefault(request.getSubcategoryId(), new BitSet()));
+        }
+        if (request.getBrandId() != null && !request.getBrandId().isEmpty()) {
+            BitSet anyBrand = new BitSet();
+            request.getBrandId().stream().map(brands::get).filter(Objects::nonNull).forEach(anyBrand::or);
+            filters.put(Dimension.BRAND, anyBrand);
+        }
+        if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+            filters.put(Dimension.PRICE, priceRange(request.getMinPrice(), request.getMaxPrice()));
+        }
+        if (request.getMinRating() != null) {
+            filters.put(Dimension.RATING, atLeast(RATING_STEPS, ratingAtLeast, request.getMinRating(), ProductResponseDto::getRating));
+        }
+        if (request.getMinDiscount() != null) {
+            filters.put(Dimension.DISCOUNT, atLeast(DISCOUNT_STEPS, discountAtLeast, request.getMinDiscount(), ProductResponseDto::getDiscountPercentage));
+        }
+        if (Boolean.TRUE.equals(request.getInStock())) {
+            filters.put(Dimension.IN_STOCK, flags.get(Flag.IN_STOCK));
+        }
+        Set<Flag> requiredFlags = EnumSet.noneOf(Flag.class);
+        if (Boolean.TRUE.equals(request.getFeatured())) {
+            requiredFlags.add(Flag.FEATURED);
+        }
+        if (Boolean.TRUE.equals(request.getTrending())) {
+            requiredFlags.add(Flag.TRENDING);
+        }
+        if (Boolean.TRUE.equals(request.getNewArrival())) {
+            requiredFlags.add(Flag.NEW_ARRIVAL);
+        }
+        if (!requiredFlags.isEmpty()) {
+            filters.put(Dimension.FLAGS, withAll(requiredFlags));
+        }
+        if (request.getTag() != null && !request.getTag().isEmpty()) {
+            BitSet allTags = (BitSet) live.clone();
+            request.getTag().forEach(tag -> allTags.and(tags.getOrDefault(normalizeTag(tag), new BitSet())));
+            filters.put(Dimension.TAGS, allTags);
+        }
+        return filters;
+    }
+
+    private BitSet withAll(Set<Flag> required) {
+        BitSet result = (BitSet) live.clone();
+        required.forEach(flag -> result.and(flags.get(flag)));
+        return result;
+    }
+
+    /**
+     * Products matching every filter except the one on the given dimension
+     */
+    private BitSet matching(Map<Dimension, BitSet> filters, Dimension excluded) {
+        BitSet result = (BitSet) live.clone();
+        filters.forEach((dimension, bits) -> {
+            if (dimension != excluded) {
+                result.and(bits);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Bands entirely inside the range are taken whole; only bands the range cuts through are scanned
+     */
+    private BitSet priceRange(BigDecimal min, BigDecimal max) {
+        BitSet result = new BitSet();
+        for (int band = 0; band < priceBands.length; band++) {
+            BigDecimal lower = band == 0 ? null : BigDecimal.valueOf(PRICE_BOUNDS[band - 1]);
+            BigDecimal upper = band == PRICE_BOUNDS.length ? null : BigDecimal.valueOf(PRICE_BOUNDS[band]);
+            boolean belowRange = min != null && upper != null && upper.compareTo(min) <= 0;
+            boolean aboveRange = max != null && lower != null && lower.compareTo(max) > 0;
+            if (belowRange || aboveRange) {
+                continue;
+            }
+            boolean lowerInside = min == null || (lower != null && lower.compareTo(min) >= 0);
+            boolean upperInside = max == null || (upper != null && upper.compareTo(max) <= 0);
+            if (lowerInside && upperInside) {
+                result.or(priceBands[band]);
+            } else {
+                priceBands[band].stream()
+                        .filter(ordinal -> inRange(products.get(ordinal).getPrice(), min, max))
+                        .forEach(result::set);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The nearest step at or below the threshold narrows the candidates, the rest are checked one by one
+     */
+    private BitSet atLeast(int[] steps, BitSet[] stepBits, BigDecimal threshold,
+                           Function<ProductResponseDto, BigDecimal> value) {
+        BitSet candidates = live;
+        for (int i = 0; i < steps.length; i++) {
+            int comparison = BigDecimal.valueOf(steps[i]).compareTo(threshold);
+            if (comparison == 0) {
+                return stepBits[i];
+            }
+            if (comparison < 0) {
+                candidates = stepBits[i];
+                break;
+            }
+        }
+        BitSet result = new BitSet();
+        candidates.stream()
+                .filter(ordinal -> {
+                    BigDecimal actual = value.apply(products.get(ordinal));
+                    return actual != null && actual.compareTo(threshold) >= 0;
+                })
+                .forEach(result::set);
+        return result;
+    }
+
+    private List<Bucket> idBuckets(Map<UUID, BitSet> values, BitSet base) {
+        return values.entrySet().stream()
+                .map(entry -> new Bucket(entry.getKey().toString(), labels.get(entry.getKey()), countAnd(base, entry.getValue())))
+                .filter(bucket -> bucket.count() > 0)
+                .sorted(Comparator.comparing(Bucket::label, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .collect(Collectors.toList());
+    }
+
+    private List<Bucket> priceBuckets(BitSet base) {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int band = 0; band < priceBands.length; band++) {
+            long count = countAnd(base, priceBands[band]);
+            if (count == 0) {
+                continue;
+            }
+            String lower = band == 0 ? "0" : String.valueOf(PRICE_BOUNDS[band - 1]);
+            if (band == PRICE_BOUNDS.length) {
+                buckets.add(new Bucket(lower + "-", lower + " and above", count));
+            } else {
+                String upper = String.valueOf(PRICE_BOUNDS[band]);
+                buckets.add(new Bucket(lower + "-" + upper, band == 0 ? "Under " + upper : lower + " - " + upper, count));
+            }
+        }
+        return buckets;
+    }
+
+    private static List<Bucket> stepBuckets(int[] steps, BitSet[] stepBits, BitSet base, String labelSuffix) {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < steps.length; i++) {
+            long count = countAnd(base, stepBits[i]);
+            if (count > 0) {
+                buckets.add(new Bucket(String.valueOf(steps[i]), steps[i] + labelSuffix, count));
+            }
+        }
+        return buckets;
+    }
+
+    private List<Bucket> tagBuckets(BitSet base) {
+        return tags.entrySet().stream()
+                .map(entry -> new Bucket(entry.getKey(), entry.getKey(), countAnd(base, entry.getValue())))
+                .filter(bucket -> bucket.count() > 0)
+                .sorted(Comparator.comparingLong(Bucket::count).reversed().thenComparing(Bucket::value))
+                .limit(MAX_TAG_BUCKETS)
+                .collect(Collectors.toList());
+    }
+
+    private static long countAnd(BitSet base, BitSet values) {
+        BitSet both = (BitSet) base.clone();
+        both.and(values);
+        return both.cardinality();
+    }
+
+    private static Comparator<ProductResponseDto> comparator(ProductSort sort, Sort.Direction direction) {
+        Comparator<ProductResponseDto> byKey = switch (sort) {
+            case PRICE -> Comparator.comparing(ProductResponseDto::getPrice, nullsLast(direction));
+            case RATING -> Comparator.comparing(ProductResponseDto::getRating, nullsLast(direction));
+            case CREATED_AT -> Comparator.comparing(ProductResponseDto::getCreatedAt, nullsLast(direction));
+        };
+        return byKey.thenComparing(ProductResponseDto::getId);
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<T> nullsLast(Sort.Direction direction) {
+        Comparator<T> natural = Comparator.naturalOrder();
+        return Comparator.nullsLast(direction.isAscending() ? natural : natural.reversed());
+    }
+
+    private void addProduct(ProductResponseDto source) {
+        ProductResponseDto product = new ProductResponseDto();
+        BeanUtils.copyProperties(source, product);
+
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = products.size();
+            products.add(product);
+        } else {
+            ordinal = freeOrdinals.pop();
+            products.set(ordinal, product);
+        }
+        ordinals.put(product.getId(), ordinal);
+        live.set(ordinal);
+        flags.get(Flag.AVAILABLE).set(ordinal, Boolean.TRUE.equals(product.getIsAvailable()));
+        flags.get(Flag.IN_STOCK).set(ordinal, isInStock(product));
+        flags.get(Flag.FEATURED).set(ordinal, Boolean.TRUE.equals(product.getIsFeatured()));
+        flags.get(Flag.TRENDING).set(ordinal, Boolean.TRUE.equals(product.getIsTrending()));
+        flags.get(Flag.NEW_ARRIVAL).set(ordinal, Boolean.TRUE.equals(product.getIsNewArrival()));
+
+        addValue(categories, product.getCategoryId(), product.getCategoryName(), ordinal);
+        addValue(subcategories, product.getSubcategoryId(), product.getSubcategoryName(), ordinal);
+        addValue(brands, product.getBrandId(), product.getBrandName(), ordinal);
+        if (product.getTags() != null) {
+            Arrays.stream(product.getTags())
+                    .filter(tag -> tag != null && !tag.isBlank())
+                    .forEach(tag -> tags.computeIfAbsent(normalizeTag(tag), key -> new BitSet()).set(ordinal));
+        }
+        if (product.getPrice() != null) {
+            priceBands[priceBand(product.getPrice())].set(ordinal);
+        }
+        setSteps(RATING_STEPS, ratingAtLeast, product.getRating(), ordinal);
+        setSteps(DISCOUNT_STEPS, discountAtLeast, product.getDiscountPercentage(), ordinal);
+    }
+
+    private void removeProduct(UUID productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+
+        live.clear(ordinal);
+        flags.values().forEach(bits -> bits.clear(ordinal));
+        clearValue(categories, ordinal);
+        clearValue(subcategories, ordinal);
+        clearValue(brands, ordinal);
+        tags.values().forEach(bits -> bits.clear(ordinal));
+        tags.values().removeIf(BitSet::isEmpty);
+        Arrays.stream(priceBands).forEach(bits -> bits.clear(ordinal));
+        Arrays.stream(ratingAtLeast).forEach(bits -> bits.clear(ordinal));
+        Arrays.stream(discountAtLeast).forEach(bits -> bits.clear(ordinal));
+
+        products.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    private void addValue(Map<UUID, BitSet> values, UUID id, String label, int ordinal) {
+        if (id == null) {
+            return;
+        }
+        values.computeIfAbsent(id, key -> new BitSet()).set(ordinal);
+        if (label != null) {
+            labels.put(id, label);
+        }
+    }
+
+    private void clearValue(Map<UUID, BitSet> values, int ordinal) {
+        values.values().forEach(bits -> bits.clear(ordinal));
+        values.entrySet().removeIf(entry -> {
+            if (entry.getValue().isEmpty()) {
+                labels.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static void setSteps(int[] steps, BitSet[] stepBits, BigDecimal value, int ordinal) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < steps.length; i++) {
+            if (value.compareTo(BigDecimal.valueOf(steps[i])) >= 0) {
+                stepBits[i].set(ordinal);
+            }
+        }
+    }
+
+    private static int priceBand(BigDecimal price) {
+        int band = 0;
+        while (band < PRICE_BOUNDS.length && price.compareTo(BigDecimal.valueOf(PRICE_BOUNDS[band])) >= 0) {
+            band++;
+        }
+        return band;
+    }
+
+    private static boolean inRange(BigDecimal price, BigDecimal min, BigDecimal max) {
+        return price != null
+                && (min == null || price.compareTo(min) >= 0)
+                && (max == null || price.compareTo(max) <= 0);
+    }
+
+    private static boolean isInStock(ProductResponseDto product) {
+        return product.getStock() != null && product.getStock() > 0 && Boolean.TRUE.equals(product.getIsAvailable());
+    }
+
+    private static String normalizeTag(String tag) {
+        return tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<Flag, BitSet> newFlagBitSets() {
+        Map<Flag, BitSet> bitSets = new EnumMap<>(Flag.class);
+        for (Flag flag : Flag.values()) {
+            bitSets.put(flag, new BitSet());
+        }
+        return bitSets;
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] bitSets = new BitSet[count];
+        Arrays.setAll(bitSets, i -> new BitSet());
+        return bitSets;
+    }
+}
@@ -0,0 +1,613 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.groceryapp.backend.dto.ProductImportReportDto;
+import com.groceryapp.backend.dto.ProductImportRow;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.model.Brand;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.model.Subcategory;
+import com.groceryapp.backend.repository.BrandRepository;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import com.groceryapp.backend.repository.SubcategoryRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import of CSV or NDJSON catalog feeds
+ *
+ * The feed is parsed one record at a time. Category, subcategory and brand names are resolved
+ * against maps loaded once per import, and valid rows are written with JDBC batch inserts, one
+ * transaction per batch. A row that fails validation, resolution or its insert is reported with
+ * its line number and the rest of the feed carries on. Every imported product is published as a
+ * ProductChangedEvent, so the search index and catalog caches pick it up.
+ *
+ * In UPSERT mode rows are matched to existing products by SKU. Each row's content hash is
+ * compared with the one stored by the previous import, so unchanged products are skipped without
+ * a write; changed ones are updated in place and new SKUs inserted. Stock and availability are
+ * only taken from the feed for new products, since orders own them afterwards.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    /**
+     * Supported feed formats
+     */
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * Pick the format from the file extension, falling back to the content type
+         *
+         * @throws IllegalArgumentException if neither identifies a supported format
+         */
+        public static Format detect(String filename, String contentType) {
+            String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+            if (name.endsWith(".csv") || "text/csv".equals(contentType)) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || "application/x-ndjson".equals(contentType)) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Unsupported feed format: " + filename + " (" + contentType + ")");
+        }
+    }
+
+    /**
+     * INSERT adds every row as a new product; UPSERT matches rows to existing products by SKU
+     */
+    public enum Mode {
+        INSERT,
+        UPSERT
+    }
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final Set<String> LIST_COLUMNS = Set.of("tags", "imageUrls");
+
+    private static final String INSERT_SQL = """
+            INSERT INTO products (id, name, description, price, mrp, category_id, subcategory_id, brand_id,
+                                  stock, unit, quantity_per_unit, weight_quantity, discount_percentage, rating,
+                                  review_count, image_url, image_urls, is_available, is_featured, is_trending,
+                                  is_new_arrival, tags, min_order_quantity, max_order_quantity, created_at, updated_at,
+                                  sku, content_hash)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    // Columns a feed overwrites on an existing product, in bindUpdate order
+    private static final List<String> FEED_COLUMNS = List.of("name", "description", "price", "mrp", "category_id",
+            "subcategory_id", "brand_id", "unit", "quantity_per_unit", "weight_quantity", "discount_percentage",
+            "image_url", "image_urls", "is_featured", "tags", "min_order_quantity", "max_order_quantity",
+            "content_hash", "updated_at");
+
+    private static final String UPDATE_SQL = "UPDATE products SET "
+            + FEED_COLUMNS.stream().map(column -> column + " = ?").collect(Collectors.joining(", "))
+            + " WHERE id = ?";
+
+    // PostgreSQL only; a row that changed concurrently to the same content is left alone
+    private static final String UPSERT_SQL = INSERT_SQL + " ON CONFLICT (sku) DO UPDATE SET "
+            + FEED_COLUMNS.stream().map(column -> column + " = EXCLUDED." + column).collect(Collectors.joining(", "))
+            + " WHERE products.content_hash IS DISTINCT FROM EXCLUDED.content_hash";
+
+    private static final String EXISTING_SQL = "SELECT sku, id, content_hash FROM products WHERE sku IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final BrandRepository brandRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+    private final Validator validator;
+    private final int batchSize;
+
+    private volatile Boolean postgres;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                CategoryRepository categoryRepository,
+                                SubcategoryRepository subcategoryRepository,
+                                BrandRepository brandRepository,
+                                ProductRepository productRepository,
+                                ProductMapper productMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${app.catalog.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryRepository = categoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.brandRepository = brandRepository;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(ProductImportRow.class);
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import every product in a feed
+     * Batches already written stay written if the feed is cut off part way.
+     *
+     * @param in Feed content, UTF-8; closed when the import ends
+     * @param format Feed format
+     * @param mode Insert every row, or upsert by SKU
+     * @return Counts and the first row errors
+     */
+    public ProductImportReportDto importProducts(InputStream in, Format format, Mode mode) {
+        log.info("Importing products from {} feed in {} mode", format, mode);
+        long started = System.nanoTime();
+
+        ImportRun run = new ImportRun(mode, transactionTemplate.execute(status -> loadReferences()),
+                mode == Mode.UPSERT ? loadExisting() : Map.of());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (format == Format.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Product import interrupted after " + run.rowsRead + " rows", e);
+        } finally {
+            flush(run);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Product import finished: {} rows read, {} inserted, {} updated, {} unchanged, {} failed in {} ms",
+                run.rowsRead, run.inserted, run.updated, run.unchanged, run.failed, durationMs);
+
+        ProductImportReportDto report = new ProductImportReportDto();
+        report.setFormat(format.name());
+        report.setMode(mode.name());
+        report.setRowsRead(run.rowsRead);
+        report.setImported(run.inserted + run.updated);
+        report.setInserted(run.inserted);
+        report.setUpdated(run.updated);
+        report.setUnchanged(run.unchanged);
+        report.setFailed(run.failed);
+        report.setDurationMs(durationMs);
+        report.setErrors(run.errors);
+        return report;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        header = header.stream().map(String::trim).toList();
+
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (IllegalArgumentException e) {
+                // Nothing after an unclosed quote can be trusted
+                run.rowsRead++;
+                run.fail(csv.recordLine(), e.getMessage());
+                return;
+            }
+            if (record == null) {
+                return;
+            }
+
+            run.rowsRead++;
+            if (record.size() != header.size()) {
+                run.fail(csv.recordLine(), "Expected " + header.size() + " columns but found " + record.size());
+                continue;
+            }
+
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = record.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                values.put(header.get(i), LIST_COLUMNS.contains(header.get(i))
+                        ? Arrays.stream(value.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toList()
+                        : value);
+            }
+
+            ProductImportRow row;
+            try {
+                row = objectMapper.convertValue(values, ProductImportRow.class);
+            } catch (IllegalArgumentException e) {
+                run.fail(csv.recordLine(), "Invalid value: " + e.getMessage());
+                continue;
+            }
+            accept(csv.recordLine(), row, run);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            run.rowsRead++;
+            ProductImportRow row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                run.fail(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            accept(lineNumber, row, run);
+        }
+    }
+
+    private void accept(long line, ProductImportRow row, ImportRun run) {
+        Set<ConstraintViolation<ProductImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            run.fail(line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+
+        References references = run.references;
+        Category category = references.categories().get(key(row.getCategory()));
+        if (category == null) {
+            run.fail(line, "Unknown category: " + row.getCategory());
+            return;
+        }
+
+        Subcategory subcategory = null;
+        if (hasText(row.getSubcategory())) {
+            subcategory = references.subcategories().get(category.getId() + "/" + key(row.getSubcategory()));
+            if (subcategory == null) {
+                run.fail(line, "Unknown subcategory '" + row.getSubcategory() + "' in category '" + category.getName() + "'");
+                return;
+            }
+        }
+
+        Brand brand = null;
+        if (hasText(row.getBrand())) {
+            brand = references.brands().get(key(row.getBrand()));
+            if (brand == null) {
+                run.fail(line, "Unknown brand: " + row.getBrand());
+                return;
+            }
+        }
+
+        Product product = toProduct(row, category, subcategory, brand);
+        String sku = product.getSku();
+        if (sku == null && run.mode == Mode.UPSERT) {
+            run.fail(line, "SKU is required in UPSERT mode");
+            return;
+        }
+        if (sku != null) {
+            Long firstLine = run.seenSkus.putIfAbsent(sku, line);
+            if (firstLine != null) {
+                run.fail(line, "Duplicate SKU " + sku + ", first seen on line " + firstLine);
+                return;
+            }
+        }
+
+        Existing existing = sku != null ? run.existing.get(sku) : null;
+        if (existing != null) {
+            if (product.getContentHash().equals(existing.contentHash())) {
+                run.unchanged++;
+                return;
+            }
+            product.setId(existing.id());
+        }
+        run.pending.add(new PendingRow(line, product, existing != null));
+        if (run.pending.size() >= batchSize) {
+            flush(run);
+        }
+    }
+
+    private void flush(ImportRun run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+
+        List<PendingRow> rows = List.copyOf(run.pending);
+        run.pending.clear();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(rows, run.mode));
+            rows.forEach(run::written);
+        } catch (DataAccessException e) {
+            // One bad row fails the whole JDBC batch; retry the batch row by row to find it
+            log.warn("Batch write of {} products failed, retrying row by row: {}", rows.size(), e.getMostSpecificCause().getMessage());
+            for (PendingRow row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(List.of(row), run.mode));
+                    run.written(row);
+                } catch (DataAccessException rowError) {
+                    run.fail(row.line(), "Write failed: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        log.info("Product import progress: {} rows read, {} inserted, {} updated, {} unchanged, {} failed",
+                run.rowsRead, run.inserted, run.updated, run.unchanged, run.failed);
+    }
+
+    private void write(List<PendingRow> rows, Mode mode) {
+        if (mode == Mode.UPSERT && onPostgres()) {
+            // Also covers a SKU inserted by someone else since the import started. That row keeps its
+            // own id, so listeners get the products as stored rather than as built from the feed.
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> bind(ps, row.product()));
+            publishUpserted(productRepository.findBySkuIn(rows.stream().map(row -> row.product().getSku()).toList()));
+            return;
+        }
+
+        List<PendingRow> inserts = rows.stream().filter(row -> !row.update()).toList();
+        List<PendingRow> updates = rows.stream().filter(PendingRow::update).toList();
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, row) -> bind(ps, row.product()));
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, row) -> bindUpdate(ps, row.product()));
+        }
+
+        // Listeners run after this batch commits. Updated rows are reloaded, since the feed does
+        // not carry the stock, rating and timestamps the events need.
+        publishUpserted(inserts.stream().map(PendingRow::product).toList());
+        if (!updates.isEmpty()) {
+            publishUpserted(productRepository.findAllById(updates.stream().map(row -> row.product().getId()).toList()));
+        }
+    }
+
+    private void publishUpserted(List<Product> products) {
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.upserted(productMapper.toResponseDto(product))));
+    }
+
+    private static void bind(PreparedStatement ps, Product product) throws SQLException {
+        Timestamp now = Timestamp.from(product.getCreatedAt());
+        ps.setObject(1, product.getId());
+        ps.setString(2, product.getName());
+        ps.setString(3, product.getDescription());
+        ps.setBigDecimal(4, product.getPrice());
+        ps.setBigDecimal(5, product.getMrp());
+        ps.setObject(6, product.getCategory().getId());
+        ps.setObject(7, product.getSubcategory() != null ? product.getSubcategory().getId() : null);
+        ps.setObject(8, product.getBrand() != null ? product.getBrand().getId() : null);
+        ps.setInt(9, product.getStock());
+        ps.setString(10, product.getUnit());
+        ps.setBigDecimal(11, product.getQuantityPerUnit());
+        ps.setString(12, product.getWeightQuantity());
+        ps.setBigDecimal(13, product.getDiscountPercentage());
+        ps.setBigDecimal(14, product.getRating());
+        ps.setInt(15, product.getReviewCount());
+        ps.setString(16, product.getImageUrl());
+        setTextArray(ps, 17, product.getImageUrls());
+        ps.setBoolean(18, product.getIsAvailable());
+        ps.setBoolean(19, product.getIsFeatured());
+        ps.setBoolean(20, product.getIsTrending());
+        ps.setBoolean(21, product.getIsNewArrival());
+        setTextArray(ps, 22, product.getTags());
+        ps.setInt(23, product.getMinOrderQuantity());
+        ps.setObject(24, product.getMaxOrderQuantity(), Types.INTEGER);
+        ps.setTimestamp(25, now);
+        ps.setTimestamp(26, now);
+        ps.setString(27, product.getSku());
+        ps.setString(28, product.getContentHash());
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Product product) throws SQLException {
+        ps.setString(1, product.getName());
+        ps.setString(2, product.getDescription());
+        ps.setBigDecimal(3, product.getPrice());
+        ps.setBigDecimal(4, product.getMrp());
+        ps.setObject(5, product.getCategory().getId());
+        ps.setObject(6, product.getSubcategory() != null ? product.getSubcategory().getId() : null);
+        ps.setObject(7, product.getBrand() != null ? product.getBrand().getId() : null);
+        ps.setString(8, product.getUnit());
+        ps.setBigDecimal(9, product.getQuantityPerUnit());
+        ps.setString(10, product.getWeightQuantity());
+        ps.setBigDecimal(11, product.getDiscountPercentage());
+        ps.setString(12, product.getImageUrl());
+        setTextArray(ps, 13, product.getImageUrls());
+        ps.setBoolean(14, product.getIsFeatured());
+        setTextArray(ps, 15, product.getTags());
+        ps.setInt(16, product.getMinOrderQuantity());
+        ps.setObject(17, product.getMaxOrderQuantity(), Types.INTEGER);
+        ps.setString(18, product.getContentHash());
+        ps.setTimestamp(19, Timestamp.from(product.getUpdatedAt()));
+        ps.setObject(20, product.getId());
+    }
+
+    private static void setTextArray(PreparedStatement ps, int index, String[] values) throws SQLException {
+        if (values == null) {
+            ps.setNull(index, Types.ARRAY);
+        } else {
+            ps.setArray(index, ps.getConnection().createArrayOf("text", values));
+        }
+    }
+
+    /**
+     * Same defaults as ProductService.createProduct
+     */
+    private static Product toProduct(ProductImportRow row, Category category, Subcategory subcategory, Brand brand) {
+        Instant now = Instant.now();
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName(row.getName().trim());
+        product.setSku(hasText(row.getSku()) ? row.getSku().trim() : null);
+        product.setDescription(row.getDescription());
+        product.setPrice(row.getPrice());
+        product.setMrp(row.getMrp() != null ? row.getMrp() : row.getPrice());
+        product.setCategory(category);
+        product.setSubcategory(subcategory);
+        product.setBrand(brand);
+        product.setStock(row.getStock() != null ? row.getStock() : 0);
+        product.setUnit(row.getUnit());
+        product.setQuantityPerUnit(row.getQuantityPerUnit());
+        product.setWeightQuantity(row.getWeightQuantity());
+        product.setDiscountPercentage(row.getDiscountPercentage() != null ? row.getDiscountPercentage() : BigDecimal.ZERO);
+        product.setImageUrl(row.getImageUrl());
+        product.setImageUrls(row.getImageUrls());
+        product.setIsAvailable(row.getIsAvailable() != null ? row.getIsAvailable() : true);
+        product.setIsFeatured(row.getIsFeatured() != null ? row.getIsFeatured() : false);
+        product.setTags(row.getTags());
+        product.setMinOrderQuantity(row.getMinOrderQuantity() != null ? row.getMinOrderQuantity() : 1);
+        product.setMaxOrderQuantity(row.getMaxOrderQuantity());
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+        product.setContentHash(contentHash(product));
+        return product;
+    }
+
+    /**
+     * SHA-256 over the columns a feed owns (FEED_COLUMNS), with references by id
+     */
+    static String contentHash(Product product) {
+        String content = Stream.of(product.getName(), product.getDescription(), plain(product.getPrice()),
+                        plain(product.getMrp()), product.getCategory().getId(),
+                        product.getSubcategory() != null ? product.getSubcategory().getId() : null,
+                        product.getBrand() != null ? product.getBrand().getId() : null, product.getUnit(), plain(product.getQuantityPerUnit()),
+                        product.getWeightQuantity(), plain(product.getDiscountPercentage()), product.getImageUrl(),
+                        joined(product.getImageUrls()), product.getIsFeatured(), joined(product.getTags()),
+                        product.getMinOrderQuantity(), product.getMaxOrderQuantity())
+                .map(value -> value != null ? value.toString() : "\u0000")
+                .collect(Collectors.joining("\u001f"));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros().toPlainString() : null;
+    }
+
+    private static String joined(String[] values) {
+        return values != null ? String.join("\u001e", values) : null;
+    }
+
+    private Map<String, Existing> loadExisting() {
+        Map<String, Existing> existing = new HashMap<>();
+        jdbcTemplate.query(EXISTING_SQL, (RowCallbackHandler) rs -> existing.put(rs.getString("sku"),
+                new Existing(rs.getObject("id", UUID.class), rs.getString("content_hash"))));
+        log.debug("Loaded {} existing SKUs for upsert", existing.size());
+        return existing;
+    }
+
+    private boolean onPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    private References loadReferences() {
+        Map<String, Category> categories = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(category -> key(category.getName()), Function.identity(), (first, second) -> first));
+        Map<String, Subcategory> subcategories = subcategoryRepository.findAll().stream()
+                .collect(Collectors.toMap(subcategory -> subcategory.getCategory().getId() + "/" + key(subcategory.getName()),
+                        Function.identity(), (first, second) -> first));
+        Map<String, Brand> brands = brandRepository.findAll().stream()
+                .collect(Collectors.toMap(brand -> key(brand.getName()), Function.identity(), (first, second) -> first));
+        log.debug("Loaded {} categories, {} subcategories and {} brands for import",
+                categories.size(), subcategories.size(), brands.size());
+        return new References(categories, subcategories, brands);
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Lookup maps keyed by lower-cased name; subcategories by category id and name
+     */
+    private record References(Map<String, Category> categories,
+                              Map<String, Subcategory> subcategories,
+                              Map<String, Brand> brands) {
+    }
+
+    private record Existing(UUID id, String contentHash) {
+    }
+
+    /**
+     * @param update The SKU exists, so the row overwrites that product
+     */
+    private record PendingRow(long line, Product product, boolean update) {
+    }
+
+    private static class ImportRun {
+
+        private final Mode mode;
+        private final References references;
+        private final Map<String, Existing> existing;
+        private final Map<String, Long> seenSkus = new HashMap<>();
+        private final List<PendingRow> pending = new ArrayList<>();
+        private final List<ProductImportReportDto.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long unchanged;
+        private long failed;
+
+        ImportRun(Mode mode, References references, Map<String, Existing> existing) {
+            this.mode = mode;
+            this.references = references;
+            this.existing = existing;
+        }
+
+        void written(PendingRow row) {
+            if (row.update()) {
+                updated++;
+            } else {
+                inserted++;
+            }
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportReportDto.RowError(line, message));
+            }
+        }
+    }
+}
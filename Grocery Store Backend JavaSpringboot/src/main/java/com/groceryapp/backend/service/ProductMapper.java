@@ -0,0 +1,83 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.model.Brand;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.model.Subcategory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Maps Product entities to their API representation
+ * Shared by ProductService and the in-memory catalog structures built from products
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductMapper {
+
+    private final ReferenceDataRegistry referenceData;
+
+    public ProductResponseDto toResponseDto(Product product) {
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setSku(product.getSku());
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPrice());
+        dto.setMrp(product.getMrp());
+
+        if (product.getCategory() != null) {
+            dto.setCategoryId(product.getCategory().getId());
+            dto.setCategoryName(nameOf(product.getCategory(), dto.getCategoryId(), Category::getName, referenceData::categoryName));
+        }
+
+        if (product.getSubcategory() != null) {
+            dto.setSubcategoryId(product.getSubcategory().getId());
+            dto.setSubcategoryName(nameOf(product.getSubcategory(), dto.getSubcategoryId(), Subcategory::getName, referenceData::subcategoryName));
+        }
+
+        if (product.getBrand() != null) {
+            dto.setBrandId(product.getBrand().getId());
+            dto.setBrandName(nameOf(product.getBrand(), dto.getBrandId(), Brand::getName, referenceData::brandName));
+        }
+
+        dto.setStock(product.getStock());
+        dto.setUnit(product.getUnit());
+        dto.setQuantityPerUnit(product.getQuantityPerUnit());
+        dto.setWeightQuantity(product.getWeightQuantity());
+        dto.setDiscountPercentage(product.getDiscountPercentage());
+        dto.setRating(product.getRating());
+        dto.setReviewCount(product.getReviewCount());
+        dto.setImageUrl(product.getImageUrl());
+        dto.setImageUrls(product.getImageUrls());
+        dto.setIsAvailable(product.getIsAvailable());
+        dto.setIsFeatured(product.getIsFeatured());
+        dto.setIsTrending(product.getIsTrending());
+        dto.setIsNewArrival(product.getIsNewArrival());
+        dto.setTags(product.getTags());
+        dto.setMinOrderQuantity(product.getMinOrderQuantity());
+        dto.setMaxOrderQuantity(product.getMaxOrderQuantity());
+        dto.setCreatedAt(product.getCreatedAt());
+        dto.setUpdatedAt(product.getUpdatedAt());
+
+        return dto;
+    }
+
+    /**
+     * Name of a category, subcategory or brand without loading it
+     * A reference attached with getReferenceById is resolved from the registry; a loaded one is read directly.
+     */
+    private static <T> String nameOf(T reference, UUID id, Function<T, String> name,
+                                     Function<UUID, Optional<String>> registered) {
+        if (Hibernate.isInitialized(reference)) {
+            return name.apply(reference);
+        }
+        return registered.apply(id).orElseGet(() -> name.apply(reference));
+    }
+}
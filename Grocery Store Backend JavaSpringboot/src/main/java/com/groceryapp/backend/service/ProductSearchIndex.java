@@ -0,0 +1,311 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the product catalog
+ * Keeps token, prefix and trigram postings for name, description, category, brand and tags
+ * so that product search never has to scan the products table.
+ *
+ * The index is loaded once the application is ready and kept current through ProductChangedEvent.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int GRAM_SIZE = 3;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    private final Map<UUID, IndexedProduct> documents = new HashMap<>();
+    private final Map<String, Set<UUID>> tokenPostings = new HashMap<>();
+    private final Map<String, Set<UUID>> prefixPostings = new HashMap<>();
+    private final Map<String, Set<UUID>> gramPostings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Load every product from the database into the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reload() {
+        log.info("Building product search index");
+        List<ProductResponseDto> products = productRepository.findAll().stream()
+                .map(productMapper::toResponseDto)
+                .collect(Collectors.toList());
+        rebuild(products);
+        log.info("Product search index built with {} products and {} distinct tokens", products.size(), tokenCount());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case UPSERTED -> index(event.getProduct());
+            case DELETED -> remove(event.getProductId());
+            case STOCK_ADJUSTED -> adjustStock(event);
+        }
+    }
+
+    public void rebuild(Collection<ProductResponseDto> products) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            tokenPostings.clear();
+            prefixPostings.clear();
+            gramPostings.clear();
+            products.forEach(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(ProductResponseDto product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjustStock(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // Stock is not indexed, only the returned product is swapped; postings are unchanged
+            IndexedProduct doc = documents.get(event.getProductId());
+            if (doc != null) {
+                documents.put(doc.product().getId(), doc.withProduct(event.withStockAdjustment(doc.product())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Find products whose indexed text contains every token of the search term
+     * Results are ranked so that whole-word and name matches come first.
+     *
+     * @param searchTerm Free text as typed by the user
+     * @return Matching products, best match first
+     */
+    public List<ProductResponseDto> search(String searchTerm) {
+        List<String> queryTokens = tokenize(searchTerm).stream()
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH)
+                .distinct()
+                .collect(Collectors.toList());
+
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<UUID> candidates = null;
+            for (String token : queryTokens) {
+                Set<UUID> matches = matchToken(token);
+                if (candidates == null) {
+                    candidates = new HashSet<>(matches);
+                } else {
+                    candidates.retainAll(matches);
+                }
+                if (candidates.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return candidates.stream()
+                    .map(documents::get)
+                    .sorted(Comparator.comparingInt((IndexedProduct doc) -> -doc.score(queryTokens))
+                            .thenComparing(doc -> doc.product().getName(), String.CASE_INSENSITIVE_ORDER))
+                    .map(IndexedProduct::product)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int tokenCount() {
+        lock.readLock().lock();
+        try {
+            return tokenPostings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<UUID> matchToken(String token) {
+        if (token.length() < GRAM_SIZE) {
+            return prefixPostings.getOrDefault(token, Set.of());
+        }
+
+        // Trigram intersection narrows the candidates, the substring check removes false positives
+        Set<UUID> candidates = null;
+        for (String gram : grams(token)) {
+            Set<UUID> posting = gramPostings.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(posting);
+            } else {
+                candidates.retainAll(posting);
+            }
+        }
+
+        candidates.removeIf(id -> !documents.get(id).text().contains(token));
+        return candidates;
+    }
+
+    private void addDocument(ProductResponseDto product) {
+        IndexedProduct doc = IndexedProduct.of(product);
+        UUID id = product.getId();
+        documents.put(id, doc);
+
+        for (String token : doc.tokens()) {
+            tokenPostings.computeIfAbsent(token, key -> new HashSet<>()).add(id);
+            for (int length = MIN_TOKEN_LENGTH; length <= token.length(); length++) {
+                prefixPostings.computeIfAbsent(token.substring(0, length), key -> new HashSet<>()).add(id);
+            }
+            for (String gram : grams(token)) {
+                gramPostings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+            }
+        }
+    }
+
+    private void removeDocument(UUID productId) {
+        IndexedProduct doc = documents.remove(productId);
+        if (doc == null) {
+            return;
+        }
+
+        for (String token : doc.tokens()) {
+            removePosting(tokenPostings, token, productId);
+            for (int length = MIN_TOKEN_LENGTH; length <= token.length(); length++) {
+                removePosting(prefixPostings, token.substring(0, length), productId);
+            }
+            for (String gram : grams(token)) {
+                removePosting(gramPostings, gram, productId);
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Set<UUID>> postings, String key, UUID productId) {
+        Set<UUID> posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static List<String> grams(String token) {
+        if (token.length() < GRAM_SIZE) {
+            return List.of();
+        }
+        List<String> grams = new ArrayList<>(token.length() - GRAM_SIZE + 1);
+        for (int i = 0; i + GRAM_SIZE <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A product together with the normalised text it was indexed under
+     */
+    private record IndexedProduct(ProductResponseDto product, String name, Set<String> nameTokens,
+                                  String text, Set<String> tokens) {
+
+        static IndexedProduct of(ProductResponseDto product) {
+            List<String> fields = new ArrayList<>();
+            fields.add(product.getName());
+            fields.add(product.getDescription());
+            fields.add(product.getCategoryName());
+            fields.add(product.getBrandName());
+            if (product.getTags() != null) {
+                fields.addAll(Arrays.asList(product.getTags()));
+            }
+
+            List<String> nameTokens = tokenize(product.getName());
+            Set<String> tokens = new HashSet<>();
+            fields.forEach(field -> tokens.addAll(tokenize(field)));
+
+            return new IndexedProduct(
+                    product,
+                    String.join(" ", nameTokens),
+                    new HashSet<>(nameTokens),
+                    String.join(" ", tokens),
+                    tokens
+            );
+        }
+
+        IndexedProduct withProduct(ProductResponseDto replacement) {
+            return new IndexedProduct(replacement, name, nameTokens, text, tokens);
+        }
+
+        int score(List<String> queryTokens) {
+            int score = 0;
+            for (String token : queryTokens) {
+                if (nameTokens.contains(token)) {
+                    score += 8;
+                } else if (nameTokens.stream().anyMatch(nameToken -> nameToken.startsWith(token))) {
+                    score += 6;
+                } else if (name.contains(token)) {
+                    score += 4;
+                } else if (tokens.contains(token)) {
+                    score += 3;
+                } else if (tokens.stream().anyMatch(indexed -> indexed.startsWith(token))) {
+                    score += 2;
+                } else {
+                    score += 1;
+                }
+            }
+            return score;
+        }
+    }
+}
@@ -1,26 +1,46 @@
 package com.groceryapp.backend.service;
 
+import com.groceryapp.backend.config.CacheConfig;
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductPageDto;
+import com.groceryapp.backend.dto.ProductPageRequest;
+import com.groceryapp.backend.dto.ProductRailsDto;
 import com.groceryapp.backend.dto.ProductRequestDto;
 import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.exception.InsufficientStockException;
 import com.groceryapp.backend.exception.ProductNotFoundException;
 import com.groceryapp.backend.model.Brand;
 import com.groceryapp.backend.model.Category;
 import com.groceryapp.backend.model.Product;
 import com.groceryapp.backend.model.Subcategory;
-import com.groceryapp.backend.repository.BrandRepository;
-import com.groceryapp.backend.repository.CategoryRepository;
 import com.groceryapp.backend.repository.ProductRepository;
-import com.groceryapp.backend.repository.SubcategoryRepository;
+import com.groceryapp.backend.repository.StockReservationRepository;
+import com.groceryapp.backend.service.ProductFacetIndex.Flag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,30 +50,37 @@ import java.util.stream.Collectors;
 public class ProductService {
     
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
-    private final SubcategoryRepository subcategoryRepository;
-    private final BrandRepository brandRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ColumnarCatalogStore columnarCatalogStore;
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryLedger inventoryLedger;
+    private final CatalogTaxonomy catalogTaxonomy;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.catalog.page.default-size:24}")
+    private int defaultPageSize;
+    
+    @Value("${app.catalog.page.max-size:100}")
+    private int maxPageSize;
     
     public ProductResponseDto createProduct(ProductRequestDto requestDto) {
         log.info("Creating new product: {}", requestDto.getName());
         
-        Category category = categoryRepository.findById(requestDto.getCategoryId())
-                .orElseThrow(() -> new RuntimeException("Category not found with ID: " + requestDto.getCategoryId()));
-        
-        Subcategory subcategory = null;
-        if (requestDto.getSubcategoryId() != null) {
-            subcategory = subcategoryRepository.findById(requestDto.getSubcategoryId())
-                    .orElseThrow(() -> new RuntimeException("Subcategory not found with ID: " + requestDto.getSubcategoryId()));
-        }
-        
-        Brand brand = null;
-        if (requestDto.getBrandId() != null) {
-            brand = brandRepository.findById(requestDto.getBrandId())
-                    .orElseThrow(() -> new RuntimeException("Brand not found with ID: " + requestDto.getBrandId()));
-        }
+        // Checked against the registry and attached as proxies, so no SELECT per reference
+        Category category = referenceData.category(requestDto.getCategoryId());
+        Subcategory subcategory = requestDto.getSubcategoryId() != null
+                ? referenceData.subcategory(requestDto.getSubcategoryId())
+                : null;
+        Brand brand = requestDto.getBrandId() != null
+                ? referenceData.brand(requestDto.getBrandId())
+                : null;
         
         Product product = new Product();
         product.setName(requestDto.getName());
+        product.setSku(requestDto.getSku());
         product.setDescription(requestDto.getDescription());
         product.setPrice(requestDto.getPrice());
         product.setMrp(requestDto.getMrp() != null ? requestDto.getMrp() : requestDto.getPrice());
@@ -76,7 +103,7 @@ public class ProductService {
         Product savedProduct = productRepository.save(product);
         log.info("Product created successfully with ID: {}", savedProduct.getId());
         
-        return mapToResponseDto(savedProduct);
+        return publishUpserted(savedProduct);
     }
     
     @Transactional(readOnly = true)
@@ -89,19 +116,17 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
     
-    @Transactional(readOnly = true)
+    /**
+     * Names of active categories that have products, in display order
+     * Served from the taxonomy snapshot, so no products are loaded.
+     */
     public List<String> getAllCategories() {
         log.info("Fetching all unique categories");
-        
-        List<Product> products = productRepository.findAll();
-        return products.stream()
-                .map(product -> product.getCategory().getName())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return catalogTaxonomy.categoryNames();
     }
     
     @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.PRODUCT_DTOS)
     public ProductResponseDto getProductById(@NonNull UUID productId) {
         log.info("Fetching product with ID: {}", productId);
         
@@ -117,22 +142,19 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException(productId));
         
-        Category category = categoryRepository.findById(requestDto.getCategoryId())
-                .orElseThrow(() -> new RuntimeException("Category not found with ID: " + requestDto.getCategoryId()));
-        
-        Subcategory subcategory = null;
-        if (requestDto.getSubcategoryId() != null) {
-            subcategory = subcategoryRepository.findById(requestDto.getSubcategoryId())
-                    .orElseThrow(() -> new RuntimeException("Subcategory not found with ID: " + requestDto.getSubcategoryId()));
-        }
-        
-        Brand brand = null;
-        if (requestDto.getBrandId() != null) {
-            brand = brandRepository.findById(requestDto.getBrandId())
-                    .orElseThrow(() -> new RuntimeException("Brand not found with ID: " + requestDto.getBrandId()));
-        }
+        // Checked against the registry and attached as proxies, so no SELECT per reference
+        Category category = referenceData.category(requestDto.getCategoryId());
+        Subcategory subcategory = requestDto.getSubcategoryId() != null
+                ? referenceData.subcategory(requestDto.getSubcategoryId())
+                : null;
+        Brand brand = requestDto.getBrandId() != null
+                ? referenceData.brand(requestDto.getBrandId())
+                : null;
         
         product.setName(requestDto.getName());
+        if (requestDto.getSku() != null) {
+            product.setSku(requestDto.getSku());
+        }
         product.setDescription(requestDto.getDescription());
         product.setPrice(requestDto.getPrice());
         product.setMrp(requestDto.getMrp() != null ? requestDto.getMrp() : requestDto.getPrice());
@@ -151,12 +173,15 @@ public class ProductService {
         product.setTags(requestDto.getTags());
         product.setMinOrderQuantity(requestDto.getMinOrderQuantity() != null ? requestDto.getMinOrderQuantity() : 1);
         product.setMaxOrderQuantity(requestDto.getMaxOrderQuantity());
+        // The next feed upsert must not treat this product as unchanged
+        product.setContentHash(null);
         product.setUpdatedAt(Instant.now());
         
         Product updatedProduct = productRepository.save(product);
+        inventoryLedger.overwritten(updatedProduct.getId());
         log.info("Product updated successfully with ID: {}", updatedProduct.getId());
         
-        return mapToResponseDto(updatedProduct);
+        return publishUpserted(updatedProduct);
     }
     
     public void deleteProduct(@NonNull UUID productId) {
@@ -167,6 +192,7 @@ public class ProductService {
         }
         
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productId));
         log.info("Product deleted successfully with ID: {}", productId);
     }
     
@@ -199,10 +225,7 @@ public class ProductService {
             return List.of();
         }
         
-        List<Product> products = productRepository.searchByNameDescriptionOrCategory(searchTerm.trim());
-        return products.stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return productSearchIndex.search(searchTerm.trim());
     }
     
     @Transactional(readOnly = true)
@@ -246,101 +269,187 @@ public class ProductService {
     @Transactional(readOnly = true)
     public List<ProductResponseDto> getFeaturedProducts() {
         log.info("Fetching featured products");
+        return productFacetIndex.withFlags(EnumSet.of(Flag.FEATURED), null, null, 0);
+    }
+    
+    /**
+     * Featured, trending and new arrival rails for the homepage, from the flag bitsets in ProductFacetIndex
+     *
+     * @param categoryId Optional category to narrow every rail to
+     * @param limit Products per rail, capped like a page size
+     */
+    @Transactional(readOnly = true)
+    public ProductRailsDto getHomeRails(UUID categoryId, Integer limit) {
+        log.info("Fetching homepage rails. CategoryId: {}, Limit: {}", categoryId, limit);
+        
+        int size = resolvePageSize(limit);
+        return new ProductRailsDto(
+                productFacetIndex.withFlags(EnumSet.of(Flag.FEATURED, Flag.AVAILABLE), categoryId, null, size),
+                productFacetIndex.withFlags(EnumSet.of(Flag.TRENDING, Flag.AVAILABLE), categoryId, null, size),
+                productFacetIndex.withFlags(EnumSet.of(Flag.NEW_ARRIVAL, Flag.AVAILABLE), categoryId, null, size),
+                productFacetIndex.count(EnumSet.of(Flag.IN_STOCK)));
+    }
+    
+    /**
+     * Get one page of products, optionally narrowed to a subcategory or category
+     * Uses keyset pagination, so every page costs the same regardless of how deep it is.
+     *
+     * @param categoryId Category filter, ignored when subcategoryId is given
+     * @param subcategoryId Subcategory filter
+     * @param pageRequest Page size, cursor and sort
+     * @return The page with a cursor for the next one
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDto getProductsPage(UUID categoryId, UUID subcategoryId, ProductPageRequest pageRequest) {
+        log.info("Fetching products page. CategoryId: {}, SubcategoryId: {}, Page: {}", categoryId, subcategoryId, pageRequest);
         
-        List<Product> products = productRepository.findByIsFeaturedTrue();
-        return products.stream()
+        if (subcategoryId != null) {
+            return fetchPage(pageRequest, (position, sort, limit) ->
+                    productRepository.findBySubcategoryId(subcategoryId, position, sort, limit));
+        }
+        if (categoryId != null) {
+            return fetchPage(pageRequest, (position, sort, limit) ->
+                    productRepository.findByCategoryId(categoryId, position, sort, limit));
+        }
+        return fetchPage(pageRequest, productRepository::findAllBy);
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductPageDto getFeaturedProductsPage(ProductPageRequest pageRequest) {
+        log.info("Fetching featured products page: {}", pageRequest);
+        return fetchPage(pageRequest, productRepository::findByIsFeaturedTrue);
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductPageDto getProductsByCategoryNamePage(String categoryName, ProductPageRequest pageRequest) {
+        log.info("Fetching products page by category name: {}, Page: {}", categoryName, pageRequest);
+        
+        String titleCaseName = convertKebabCaseToTitleCase(categoryName);
+        return fetchPage(pageRequest, (position, sort, limit) ->
+                productRepository.findByCategoryNameIgnoreCase(titleCaseName, position, sort, limit));
+    }
+    
+    /**
+     * Filter the catalog on any combination of facets and count the products behind each facet value
+     * Served from ProductFacetIndex, or from ColumnarCatalogStore when it is enabled and no tags are asked for.
+     *
+     * @param browseRequest Filters, page number, page size and sort
+     * @return The page, the total number of matches and the facet counts
+     */
+    @Transactional(readOnly = true)
+    public ProductBrowseDto browseProducts(ProductBrowseRequest browseRequest) {
+        log.info("Browsing products: {}", browseRequest);
+        int size = resolvePageSize(browseRequest.getSize());
+        boolean byTag = browseRequest.getTag() != null && !browseRequest.getTag().isEmpty();
+        if (columnarCatalogStore.isEnabled() && !byTag) {
+            return columnarCatalogStore.browse(browseRequest, size);
+        }
+        return productFacetIndex.browse(browseRequest, size);
+    }
+    
+    private ProductPageDto fetchPage(ProductPageRequest pageRequest, PageQuery query) {
+        ProductSort productSort = ProductSort.from(pageRequest.getSortBy());
+        Sort.Direction direction = productSort.direction(pageRequest.getDirection());
+        ScrollPosition position = ProductCursor.decode(pageRequest.getCursor(), productSort, direction);
+        int size = resolvePageSize(pageRequest.getSize());
+        
+        Window<Product> window = query.fetch(position, Sort.by(direction, productSort.getProperty()), Limit.of(size));
+        
+        List<ProductResponseDto> items = window.getContent().stream()
                 .map(this::mapToResponseDto)
                 .collect(Collectors.toList());
+        
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = ProductCursor.encode(productSort, direction, last);
+        }
+        
+        return new ProductPageDto(items, nextCursor, nextCursor != null, items.size());
     }
     
+    private int resolvePageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(requested, maxPageSize);
+    }
+    
+    @FunctionalInterface
+    private interface PageQuery {
+        Window<Product> fetch(ScrollPosition position, Sort sort, Limit limit);
+    }
+    
+    /**
+     * Load a product with its category, subcategory and brand
+     * The result is detached and served from the cache as a copy, so callers may not share it.
+     */
     @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.PRODUCTS)
     public Product getProductEntityById(@NonNull UUID productId) {
         return productRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException(productId));
     }
     
+    /**
+     * Load several products with a single query
+     * @param productIds The product IDs, duplicates are ignored
+     * @return Products keyed by ID; IDs with no matching product are absent from the map
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Product> getProductEntitiesByIds(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        
+        return productRepository.findAllById(new HashSet<>(productIds)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+    
     @Transactional
     public void updateProductStock(Product product) {
         log.info("Updating stock for product: {}", product.getId());
         productRepository.save(product);
+        inventoryLedger.overwritten(product.getId());
+        publishUpserted(product);
     }
     
     private ProductResponseDto mapToResponseDto(Product product) {
-        ProductResponseDto dto = new ProductResponseDto();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setMrp(product.getMrp());
-        
-        if (product.getCategory() != null) {
-            dto.setCategoryId(product.getCategory().getId());
-            dto.setCategoryName(product.getCategory().getName());
-        }
-        
-        if (product.getSubcategory() != null) {
-            dto.setSubcategoryId(product.getSubcategory().getId());
-            dto.setSubcategoryName(product.getSubcategory().getName());
-        }
-        
-        if (product.getBrand() != null) {
-            dto.setBrandId(product.getBrand().getId());
-            dto.setBrandName(product.getBrand().getName());
-        }
-        
-        dto.setStock(product.getStock());
-        dto.setUnit(product.getUnit());
-        dto.setQuantityPerUnit(product.getQuantityPerUnit());
-        dto.setWeightQuantity(product.getWeightQuantity());
-        dto.setDiscountPercentage(product.getDiscountPercentage());
-        dto.setRating(product.getRating());
-        dto.setReviewCount(product.getReviewCount());
-        dto.setImageUrl(product.getImageUrl());
-        dto.setImageUrls(product.getImageUrls());
-        dto.setIsAvailable(product.getIsAvailable());
-        dto.setIsFeatured(product.getIsFeatured());
-        dto.setIsTrending(product.getIsTrending());
-        dto.setIsNewArrival(product.getIsNewArrival());
-        dto.setTags(product.getTags());
-        dto.setMinOrderQuantity(product.getMinOrderQuantity());
-        dto.setMaxOrderQuantity(product.getMaxOrderQuantity());
-        dto.setCreatedAt(product.getCreatedAt());
-        dto.setUpdatedAt(product.getUpdatedAt());
-        
+        return productMapper.toResponseDto(product);
+    }
+    
+    private ProductResponseDto publishUpserted(Product product) {
+        ProductResponseDto dto = mapToResponseDto(product);
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(dto));
         return dto;
     }
     
     /**
      * Decrease product stock (when adding to cart or placing order)
+     * Runs as one conditional UPDATE, so concurrent callers can never take more than is in stock;
+     * with the inventory ledger enabled the in-memory counter decides instead.
      * @param productId The product ID
      * @param quantity The quantity to decrease
      * @throws ProductNotFoundException if product not found
-     * @throws RuntimeException if insufficient stock
+     * @throws InsufficientStockException if insufficient stock
      */
     @Transactional
     public void decreaseStock(UUID productId, int quantity) {
         log.info("Decreasing stock for product: {} by quantity: {}", productId, quantity);
         
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException(productId));
-        
-        if (product.getStock() < quantity) {
-            throw new RuntimeException(String.format(
-                "Insufficient stock for product: %s. Available: %d, Requested: %d",
-                product.getName(), product.getStock(), quantity
-            ));
-        }
-        
-        product.setStock(product.getStock() - quantity);
-        
-        // Update availability if stock becomes zero
-        if (product.getStock() == 0) {
-            product.setIsAvailable(false);
-            log.info("Product {} is now out of stock", product.getName());
+        if (inventoryLedger.isEnabled()) {
+            List<StockReservationRepository.Shortage> shortages = inventoryLedger.reserve(Map.of(productId, quantity));
+            if (!shortages.isEmpty()) {
+                throw new InsufficientStockException(shortages.get(0).productName(), quantity, shortages.get(0).available());
+            }
+        } else if (productRepository.decrementStock(productId, quantity, Instant.now()) == 0) {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+            throw new InsufficientStockException(product.getName(), quantity, product.getStock());
         }
         
-        productRepository.save(product);
-        log.info("Stock decreased successfully. New stock: {}", product.getStock());
+        eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, -quantity));
+        log.info("Stock decreased successfully for product: {}", productId);
     }
     
     /**
@@ -353,18 +462,49 @@ public class ProductService {
     public void increaseStock(UUID productId, int quantity) {
         log.info("Increasing stock for product: {} by quantity: {}", productId, quantity);
         
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException(productId));
+        if (inventoryLedger.isEnabled()) {
+            inventoryLedger.release(productId, quantity);
+        } else if (productRepository.incrementStock(productId, quantity, Instant.now()) == 0) {
+            throw new ProductNotFoundException(productId);
+        }
+        
+        eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, quantity));
+        log.info("Stock increased successfully for product: {}", productId);
+    }
+    
+    /**
+     * Reserve stock for every product of an order at once (when placing an order)
+     * All quantities are taken in one set-based statement (or from the inventory ledger), or none are.
+     * @param quantities Quantity per product ID
+     * @throws ProductNotFoundException if a product does not exist
+     * @throws InsufficientStockException naming every product that is short
+     */
+    @Transactional
+    public void reserveStock(Map<UUID, Integer> quantities) {
+        log.info("Reserving stock for {} products", quantities.size());
         
-        product.setStock(product.getStock() + quantity);
+        List<StockReservationRepository.Shortage> shortages = inventoryLedger.isEnabled()
+                ? inventoryLedger.reserve(quantities)
+                : stockReservationRepository.reserve(quantities);
         
-        // Make product available again if it was out of stock
-        if (!product.getIsAvailable() && product.getStock() > 0) {
-            product.setIsAvailable(true);
-            log.info("Product {} is now back in stock", product.getName());
+        if (!shortages.isEmpty()) {
+            for (StockReservationRepository.Shortage shortage : shortages) {
+                if (shortage.missing()) {
+                    throw new ProductNotFoundException(shortage.productId());
+                }
+            }
+            
+            String details = shortages.stream()
+                    .map(shortage -> String.format("'%s' (Requested: %d, Available: %d)",
+                            shortage.productName(), shortage.requested(), shortage.available()))
+                    .collect(Collectors.joining(", "));
+            throw new InsufficientStockException(
+                    "Insufficient stock for " + shortages.size() + " product(s): " + details,
+                    shortages.stream().map(StockReservationRepository.Shortage::productId).toList());
         }
         
-        productRepository.save(product);
-        log.info("Stock increased successfully. New stock: {}", product.getStock());
+        quantities.forEach((productId, quantity) ->
+                eventPublisher.publishEvent(ProductChangedEvent.stockAdjusted(productId, -quantity)));
+        log.info("Stock reserved successfully for {} products", quantities.size());
     }
 }
@@ -0,0 +1,54 @@
+package com.groceryapp.backend.service;
+
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Sort keys supported by the keyset-paginated product listings
+ * Each key knows its entity property, default direction and how to read a cursor value back.
+ */
+@Getter
+public enum ProductSort {
+    
+    PRICE("price", Sort.Direction.ASC, BigDecimal::new),
+    RATING("rating", Sort.Direction.DESC, BigDecimal::new),
+    CREATED_AT("createdAt", Sort.Direction.DESC, Instant::parse);
+    
+    private final String property;
+    private final Sort.Direction defaultDirection;
+    private final Function<String, Object> keyParser;
+    
+    ProductSort(String property, Sort.Direction defaultDirection, Function<String, Object> keyParser) {
+        this.property = property;
+        this.defaultDirection = defaultDirection;
+        this.keyParser = keyParser;
+    }
+    
+    public static ProductSort from(String sortBy) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return CREATED_AT;
+        }
+        return Arrays.stream(values())
+                .filter(sort -> sort.property.equalsIgnoreCase(sortBy.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Unsupported sort field: " + sortBy + ". Supported fields: price, rating, createdAt"));
+    }
+    
+    public Sort.Direction direction(String direction) {
+        if (direction == null || direction.isBlank()) {
+            return defaultDirection;
+        }
+        return Sort.Direction.fromOptionalString(direction.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort direction: " + direction));
+    }
+    
+    Object parseKey(String value) {
+        return keyParser.apply(value);
+    }
+}
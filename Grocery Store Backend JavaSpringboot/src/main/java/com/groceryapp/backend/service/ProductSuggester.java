@@ -0,0 +1,346 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.dto.SuggestionDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autocomplete over product and category names
+ *
+ * Names are held in a compact character trie: children are kept in sorted char arrays and
+ * every node stores the ordinals of its best-ranked entries, so a prefix lookup is a walk
+ * down the trie followed by copying a precomputed list. Each name is inserted once per word
+ * so that "milk" finds "Amul Taaza Toned Milk". Lookups tolerate one typo (edit distance 1).
+ *
+ * Writes only mark the trie stale; it is rebuilt on the next lookup. Category entries are
+ * reloaded at that point too when ReferenceDataRegistry reported a category write.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggester {
+
+    public static final int MAX_LIMIT = 10;
+    private static final int MIN_FUZZY_PREFIX_LENGTH = 3;
+
+    private static final String PRODUCT = "PRODUCT";
+    private static final String CATEGORY = "CATEGORY";
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Trie trie = Trie.EMPTY;
+    private volatile boolean stale = true;
+    private volatile boolean categoriesStale = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reload() {
+        entries.clear();
+        loadCategories();
+        for (Product product : productRepository.findAll()) {
+            entries.put(product.getId(), new Entry(product.getName(), PRODUCT, product.getId(),
+                    productWeight(product.getRating(), product.getReviewCount(), product.getIsTrending()),
+                    product.getStock() != null ? product.getStock() : 0,
+                    !Boolean.FALSE.equals(product.getIsAvailable())));
+        }
+        stale = true;
+        log.info("Loaded {} autocomplete entries", entries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case UPSERTED -> {
+                ProductResponseDto product = event.getProduct();
+                entries.put(product.getId(), new Entry(product.getName(), PRODUCT, product.getId(),
+                        productWeight(product.getRating(), product.getReviewCount(), product.getIsTrending()),
+                        product.getStock() != null ? product.getStock() : 0,
+                        !Boolean.FALSE.equals(product.getIsAvailable())));
+                stale = true;
+            }
+            case DELETED -> {
+                entries.remove(event.getProductId());
+                stale = true;
+            }
+            case STOCK_ADJUSTED -> entries.computeIfPresent(event.getProductId(), (id, entry) -> {
+                int stock = entry.stock() + event.getStockDelta();
+                boolean available = event.availableAfterAdjustment(entry.available(), stock);
+                if (available != entry.available()) {
+                    // Only a stock-out or restock changes what is suggested
+                    stale = true;
+                }
+                return new Entry(entry.text(), entry.type(), entry.id(), entry.weight(), stock, available);
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        categoriesStale = true;
+        stale = true;
+    }
+
+    /**
+     * Top-ranked product and category names starting with the given prefix
+     * Falls back to names within one edit of the prefix when exact matches run out.
+     *
+     * @param prefix Text typed so far
+     * @param limit Maximum number of suggestions, capped at MAX_LIMIT
+     * @return Suggestions, best first
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        Trie current = currentTrie();
+        LinkedHashSet<Integer> ordinals = new LinkedHashSet<>();
+
+        Trie.Node exact = current.find(key);
+        if (exact != null) {
+            addTop(ordinals, exact, max);
+        }
+
+        if (ordinals.size() < max && key.length() >= MIN_FUZZY_PREFIX_LENGTH) {
+            List<Trie.Node> fuzzyNodes = new ArrayList<>();
+            current.collectWithinOneEdit(current.root, key, 0, true, fuzzyNodes);
+            fuzzyNodes.stream()
+                    .flatMapToInt(node -> Arrays.stream(node.top))
+                    .boxed()
+                    .distinct()
+                    .sorted() // ordinals are assigned in rank order
+                    .forEach(ordinal -> {
+                        if (ordinals.size() < max) {
+                            ordinals.add(ordinal);
+                        }
+                    });
+        }
+
+        List<SuggestionDto> suggestions = new ArrayList<>(ordinals.size());
+        for (int ordinal : ordinals) {
+            Entry entry = current.entries[ordinal];
+            suggestions.add(new SuggestionDto(entry.text(), entry.type(), entry.id()));
+        }
+        return suggestions;
+    }
+
+    private static void addTop(Set<Integer> ordinals, Trie.Node node, int max) {
+        for (int ordinal : node.top) {
+            if (ordinals.size() >= max) {
+                return;
+            }
+            ordinals.add(ordinal);
+        }
+    }
+
+    private Trie currentTrie() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    stale = false;
+                    if (categoriesStale) {
+                        categoriesStale = false;
+                        loadCategories();
+                    }
+                    trie = Trie.build(entries.values().stream().filter(Entry::available).toList());
+                }
+            }
+        }
+        return trie;
+    }
+
+    private void loadCategories() {
+        entries.values().removeIf(entry -> CATEGORY.equals(entry.type()));
+        for (Category category : categoryRepository.findByIsActiveTrue()) {
+            entries.put(category.getId(), new Entry(category.getName(), CATEGORY, category.getId(), categoryWeight(category), 0, true));
+        }
+    }
+
+    static double productWeight(BigDecimal rating, Integer reviewCount, Boolean isTrending) {
+        double weight = rating != null ? rating.doubleValue() * 10 : 0;
+        weight += reviewCount != null ? Math.log1p(reviewCount) * 5 : 0;
+        weight += Boolean.TRUE.equals(isTrending) ? 25 : 0;
+        return weight;
+    }
+
+    private static double categoryWeight(Category category) {
+        // Categories outrank products for the same prefix; lower display order ranks higher
+        int displayOrder = category.getDisplayOrder() != null ? category.getDisplayOrder() : 100;
+        return 200 - Math.min(displayOrder, 100);
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /**
+     * A suggestible name; products out of stock or switched off stay here but are left out of the trie
+     */
+    record Entry(String text, String type, UUID id, double weight, int stock, boolean available) {
+    }
+
+    /**
+     * Immutable trie built from a snapshot of the entries
+     */
+    static final class Trie {
+
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_ENTRIES = new int[0];
+
+        static final Trie EMPTY = build(List.of());
+
+        final Node root = new Node();
+        final Entry[] entries;
+
+        private Trie(Entry[] entries) {
+            this.entries = entries;
+        }
+
+        static Trie build(List<Entry> entries) {
+            // Insert best entries first so each node's top list fills in rank order
+            Entry[] ranked = entries.stream()
+                    .sorted(Comparator.comparingDouble(Entry::weight).reversed()
+                            .thenComparing(Entry::text, String.CASE_INSENSITIVE_ORDER))
+                    .toArray(Entry[]::new);
+
+            Trie trie = new Trie(ranked);
+            for (int ordinal = 0; ordinal < ranked.length; ordinal++) {
+                String name = normalize(ranked[ordinal].text());
+                // One key per word start, so "toned milk" and "milk" both reach the same entry
+                for (int start = 0; start < name.length(); start++) {
+                    if (start == 0 || name.charAt(start - 1) == ' ') {
+                        trie.insert(name.substring(start), ordinal);
+                    }
+                }
+            }
+            return trie;
+        }
+
+        private void insert(String key, int ordinal) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                node.offer(ordinal);
+            }
+        }
+
+        Node find(String key) {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            return node;
+        }
+
+        /**
+         * Collect nodes whose path is within one substitution, insertion, deletion or
+         * adjacent transposition of the key
+         */
+        void collectWithinOneEdit(Node node, String key, int pos, boolean editAvailable, List<Node> matches) {
+            if (pos == key.length()) {
+                matches.add(node);
+                return;
+            }
+
+            char expected = key.charAt(pos);
+            Node next = node.child(expected);
+            if (next != null) {
+                collectWithinOneEdit(next, key, pos + 1, editAvailable, matches);
+            }
+
+            if (!editAvailable) {
+                return;
+            }
+
+            // Extra character typed
+            collectWithinOneEdit(node, key, pos + 1, false, matches);
+
+            for (int i = 0; i < node.labels.length; i++) {
+                if (node.labels[i] != expected) {
+                    // Wrong character typed
+                    collectWithinOneEdit(node.children[i], key, pos + 1, false, matches);
+                }
+                // Character missed
+                collectWithinOneEdit(node.children[i], key, pos, false, matches);
+            }
+
+            // Two neighbouring characters swapped
+            if (pos + 1 < key.length() && key.charAt(pos + 1) != expected) {
+                Node swapped = node.child(key.charAt(pos + 1));
+                if (swapped != null) {
+                    swapped = swapped.child(expected);
+                    if (swapped != null) {
+                        collectWithinOneEdit(swapped, key, pos + 2, false, matches);
+                    }
+                }
+            }
+        }
+
+        static final class Node {
+            char[] labels = NO_LABELS;
+            Node[] children = NO_CHILDREN;
+            int[] top = NO_ENTRIES;
+
+            Node child(char label) {
+                int index = Arrays.binarySearch(labels, label);
+                return index >= 0 ? children[index] : null;
+            }
+
+            Node childOrCreate(char label) {
+                int index = Arrays.binarySearch(labels, label);
+                if (index >= 0) {
+                    return children[index];
+                }
+
+                int insertAt = -index - 1;
+                char[] newLabels = new char[labels.length + 1];
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(labels, 0, newLabels, 0, insertAt);
+                System.arraycopy(children, 0, newChildren, 0, insertAt);
+                System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+                System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+                Node created = new Node();
+                newLabels[insertAt] = label;
+                newChildren[insertAt] = created;
+                labels = newLabels;
+                children = newChildren;
+                return created;
+            }
+
+            void offer(int ordinal) {
+                // Ordinals arrive in rank order, so appending keeps the list sorted
+                if (top.length >= MAX_LIMIT || (top.length > 0 && top[top.length - 1] == ordinal)) {
+                    return;
+                }
+                int[] newTop = Arrays.copyOf(top, top.length + 1);
+                newTop[top.length] = ordinal;
+                top = newTop;
+            }
+        }
+    }
+}
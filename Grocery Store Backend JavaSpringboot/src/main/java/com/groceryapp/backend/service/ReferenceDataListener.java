@@ -0,0 +1,27 @@
+package com.groceryapp.backend.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on Category, Subcategory and Brand that keeps ReferenceDataRegistry current
+ * The registry is looked up on use; Hibernate creates this listener while the repositories the
+ * registry needs are still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataListener {
+
+    private final ObjectProvider<ReferenceDataRegistry> referenceDataRegistry;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        referenceDataRegistry.ifAvailable(ReferenceDataRegistry::invalidate);
+    }
+}
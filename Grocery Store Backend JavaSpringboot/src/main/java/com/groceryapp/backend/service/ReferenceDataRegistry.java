@@ -0,0 +1,137 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import com.groceryapp.backend.model.Brand;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Subcategory;
+import com.groceryapp.backend.repository.BrandRepository;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.SubcategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the category, subcategory and brand names the product write path needs
+ *
+ * These tables are small and rarely written. Product writes check ids here and attach
+ * getReferenceById proxies instead of loading each row, and ProductMapper reads names from here
+ * when a reference was attached that way. Every JPA write to the tables marks the copy stale
+ * (ReferenceDataListener) and it is rebuilt on the next read; call invalidate() after writing
+ * them with SQL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataRegistry {
+
+    private final CategoryRepository categoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final BrandRepository brandRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    /**
+     * Reference to an existing category, without loading it
+     *
+     * @throws RuntimeException if there is no category with this ID
+     */
+    public Category category(UUID id) {
+        require(currentSnapshot().categoryNames(), id, "Category");
+        return categoryRepository.getReferenceById(id);
+    }
+
+    /**
+     * Reference to an existing subcategory, without loading it
+     *
+     * @throws RuntimeException if there is no subcategory with this ID
+     */
+    public Subcategory subcategory(UUID id) {
+        require(currentSnapshot().subcategoryNames(), id, "Subcategory");
+        return subcategoryRepository.getReferenceById(id);
+    }
+
+    /**
+     * Reference to an existing brand, without loading it
+     *
+     * @throws RuntimeException if there is no brand with this ID
+     */
+    public Brand brand(UUID id) {
+        require(currentSnapshot().brandNames(), id, "Brand");
+        return brandRepository.getReferenceById(id);
+    }
+
+    public Optional<String> categoryName(UUID id) {
+        return Optional.ofNullable(currentSnapshot().categoryNames().get(id));
+    }
+
+    public Optional<String> subcategoryName(UUID id) {
+        return Optional.ofNullable(currentSnapshot().subcategoryNames().get(id));
+    }
+
+    public Optional<String> brandName(UUID id) {
+        return Optional.ofNullable(currentSnapshot().brandNames().get(id));
+    }
+
+    /**
+     * Rebuild on the next read
+     * Inside a transaction the copy is marked stale again once it ends, so a read that rebuilt
+     * from the old rows before the commit is not kept. Publishes ReferenceDataChangedEvent for the
+     * other caches built from these tables.
+     */
+    public void invalidate() {
+        stale = true;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stale = true;
+                }
+            });
+        }
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent());
+    }
+
+    private Snapshot currentSnapshot() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    stale = false;
+                    snapshot = build();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private Snapshot build() {
+        Snapshot built = new Snapshot(
+                categoryRepository.findAll().stream().collect(Collectors.toUnmodifiableMap(Category::getId, Category::getName)),
+                subcategoryRepository.findAll().stream().collect(Collectors.toUnmodifiableMap(Subcategory::getId, Subcategory::getName)),
+                brandRepository.findAll().stream().collect(Collectors.toUnmodifiableMap(Brand::getId, Brand::getName)));
+        log.info("Loaded reference data: {} categories, {} subcategories, {} brands",
+                built.categoryNames().size(), built.subcategoryNames().size(), built.brandNames().size());
+        return built;
+    }
+
+    private static void require(Map<UUID, String> names, UUID id, String type) {
+        if (!names.containsKey(id)) {
+            throw new RuntimeException(type + " not found with ID: " + id);
+        }
+    }
+
+    private record Snapshot(Map<UUID, String> categoryNames,
+                            Map<UUID, String> subcategoryNames,
+                            Map<UUID, String> brandNames) {
+    }
+}
@@ -0,0 +1,26 @@
+-- ================================================
+-- SCHEMA UPGRADE
+-- ================================================
+-- Run on every startup (spring.sql.init, after Hibernate); ddl-auto is none in production, so
+-- tables and columns added to the entities after a database was created are added here.
+-- Every statement must be safe to repeat.
+
+-- Inventory ledger journal (app.inventory.ledger.enabled)
+CREATE TABLE IF NOT EXISTS inventory_journal (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id UUID NOT NULL,
+    delta INTEGER NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_inventory_journal_product ON inventory_journal (product_id);
+
+-- Catalog feed upserts: ON CONFLICT (sku) needs the unique index
+ALTER TABLE IF EXISTS products ADD COLUMN IF NOT EXISTS sku VARCHAR(64);
+ALTER TABLE IF EXISTS products ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_products_sku ON products (sku);
+
+-- Cart running totals; carts that had lines start at 0 and CartTotalsReconciler backfills them on startup
+ALTER TABLE IF EXISTS carts ADD COLUMN IF NOT EXISTS item_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS carts ADD COLUMN IF NOT EXISTS subtotal_paise BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS carts ADD COLUMN IF NOT EXISTS savings_paise BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS cart_items ADD COLUMN IF NOT EXISTS mrp_at_add NUMERIC(10, 2);
@@ -0,0 +1,109 @@
+package com.groceryapp.backend.benchmark;
+
+import com.groceryapp.backend.model.Cart;
+import com.groceryapp.backend.model.CartItem;
+import com.groceryapp.backend.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart total of a 50-line basket: BigDecimal multiply/add per line against Money on paise
+ *
+ * Run the main method (IDE, or java -cp with the test classpath); the GC profiler reports
+ * gc.alloc.rate.norm, the bytes allocated per total, next to the average time.
+ * bigDecimalTotal is the arithmetic CartService used to do; moneyTotal is what it does now,
+ * including the conversion of each stored price and of the result back to BigDecimal.
+ * The running-total pair times one line change: bigDecimalRunningTotals moves BigDecimal
+ * subtotal/savings fields the way Cart once did, cartChangeQuantity moves Cart's paise fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CartTotalsBenchmark {
+
+    @Param("50")
+    private int lines;
+
+    private BigDecimal[] prices;
+    private int[] quantities;
+    private Cart cart;
+    private CartItem[] items;
+    private BigDecimal subtotal;
+    private BigDecimal savings;
+    private int changes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(1_000 + random.nextInt(50_000), 2);
+            quantities[i] = 1 + random.nextInt(12);
+        }
+        cart = new Cart();
+        items = new CartItem[lines];
+        for (int i = 0; i < lines; i++) {
+            items[i] = new CartItem(cart, UUID.randomUUID(), quantities[i], prices[i]);
+            items[i].setMrpAtAdd(prices[i].add(BigDecimal.ONE));
+            cart.addItem(items[i]);
+        }
+        subtotal = cart.getSubtotal();
+        savings = cart.getSavings();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal moneyTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(Money.of(prices[i]).times(quantities[i]));
+        }
+        return total.toBigDecimal();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalRunningTotals() {
+        CartItem item = items[changes % lines];
+        int delta = (changes++ / lines) % 2 == 0 ? 1 : -1;
+        subtotal = Money.of(subtotal).plus(Money.of(item.getPriceAtAdd()).times(delta)).toBigDecimal();
+        savings = Money.of(savings).plus(item.unitSavings().times(delta)).toBigDecimal();
+        return subtotal;
+    }
+
+    @Benchmark
+    public long cartChangeQuantity() {
+        CartItem item = items[changes % lines];
+        int delta = (changes++ / lines) % 2 == 0 ? 1 : -1;
+        cart.changeQuantity(item, item.getQuantity() + delta);
+        return cart.getSubtotalPaise();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CartTotalsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,7 +1,9 @@
 package com.groceryapp.backend.controller;
 
+import com.groceryapp.backend.dto.ProductImportReportDto;
 import com.groceryapp.backend.model.User;
 import com.groceryapp.backend.repository.UserRepository;
+import com.groceryapp.backend.service.ProductImportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,17 +11,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,6 +48,9 @@ class AdminControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private ProductImportService productImportService;
+
     private User testUser1;
     private User testUser2;
 
@@ -195,23 +206,57 @@ class AdminControllerTest {
         verify(userRepository, times(1)).findAll();
     }
 
-    /**
-     * Testing Limitation for loadProducts():
-     * 
-     * The loadProducts() method has hardcoded file path and uses Files.readString()
-     * which makes it impossible to unit test all branches without:
-     * 1. Refactoring to inject a file reader service
-     * 2. Using PowerMock to mock static methods (not recommended)
-     * 3. Making the file path configurable via @Value
-     * 
-     * Current branches untested:
-     * - 6 branches in loadProducts() (file read, SQL parsing, loop conditions, error paths)
-     * - Cannot mock static method Files.readString() with standard Mockito
-     * - Cannot control file existence/content in test environment
-     * 
-     * Recommendation: Refactor AdminController to inject a FileReaderService
-     * or make file path configurable for testing purposes.
-     * 
-     * This is an architectural limitation, not a testing gap.
-     */
+    @Test
+    void loadProducts_WithoutConfiguredFile_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/admin/load-products"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("app.catalog.import.file is not configured"));
+
+        verifyNoInteractions(productImportService);
+    }
+
+    @Test
+    void importProducts_WithCsvUpload_ShouldReturnReport() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "feed.csv", "text/csv",
+                "name,price,category\nMilk,30,Dairy & Bakery\n".getBytes(StandardCharsets.UTF_8));
+        ProductImportReportDto report = new ProductImportReportDto("CSV", "INSERT", 2, 1, 1, 0, 0, 1, 12,
+                List.of(new ProductImportReportDto.RowError(3, "Unknown category: Toys")));
+        when(productImportService.importProducts(any(InputStream.class), eq(ProductImportService.Format.CSV),
+                eq(ProductImportService.Mode.INSERT))).thenReturn(report);
+
+        mockMvc.perform(multipart("/admin/products/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Unknown category: Toys"));
+    }
+
+    @Test
+    void importProducts_WithFormatAndModeParameters_ShouldPassThem() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "feed.txt", "text/plain", new byte[0]);
+        ProductImportReportDto report = new ProductImportReportDto();
+        report.setUpdated(3);
+        report.setUnchanged(97);
+        when(productImportService.importProducts(any(InputStream.class), eq(ProductImportService.Format.NDJSON),
+                eq(ProductImportService.Mode.UPSERT))).thenReturn(report);
+
+        mockMvc.perform(multipart("/admin/products/import").file(file)
+                        .param("format", "NDJSON")
+                        .param("mode", "UPSERT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3))
+                .andExpect(jsonPath("$.unchanged").value(97));
+    }
+
+    @Test
+    void importProducts_WithUnknownFormat_ShouldReturn400() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "feed.xlsx", "application/octet-stream", new byte[0]);
+
+        mockMvc.perform(multipart("/admin/products/import").file(file))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productImportService);
+    }
 }
@@ -2,6 +2,7 @@ package com.groceryapp.backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.groceryapp.backend.dto.AddToCartRequestDto;
+import com.groceryapp.backend.dto.CartBatchRequestDto;
 import com.groceryapp.backend.dto.CartResponseDto;
 import com.groceryapp.backend.dto.UpdateCartItemRequestDto;
 import com.groceryapp.backend.service.CartService;
@@ -16,6 +17,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -120,6 +122,37 @@ class CartControllerTest {
         verify(cartService, times(1)).clearCart(userId);
     }
 
+    @Test
+    void applyCartBatch_ShouldReturnUpdatedCart() throws Exception {
+        CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.ADD, null, productId, 2),
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.REMOVE, cartItemId, null, null)));
+
+        when(cartService.applyBatch(eq(userId), any(CartBatchRequestDto.class))).thenReturn(cartResponse);
+
+        mockMvc.perform(patch("/cart/{userId}/items", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPrice").value(100.00));
+
+        verify(cartService, times(1)).applyBatch(eq(userId), argThat(batch -> batch.getOperations().size() == 2
+                && batch.getOperations().get(1).getItemId().equals(cartItemId)));
+    }
+
+    @Test
+    void applyCartBatch_WithInvalidOperation_ShouldReturnBadRequest() throws Exception {
+        CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartBatchRequestDto.Operation(null, null, productId, 0)));
+
+        mockMvc.perform(patch("/cart/{userId}/items", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isBadRequest());
+
+        verify(cartService, never()).applyBatch(any(), any());
+    }
+
     @Test
     void addItemToCart_WithInvalidData_ShouldReturnBadRequest() throws Exception {
         AddToCartRequestDto requestDto = new AddToCartRequestDto();
@@ -1,6 +1,8 @@
 package com.groceryapp.backend.controller;
 
-import com.groceryapp.backend.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.service.CatalogTaxonomy;
+import com.groceryapp.backend.service.PreparedJson;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,7 +27,7 @@ class CategoriesApiControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private ProductService productService;
+    private CatalogTaxonomy catalogTaxonomy;
 
     private List<String> categories;
 
@@ -36,7 +38,7 @@ class CategoriesApiControllerTest {
 
     @Test
     void getAllCategories_ShouldReturnCategoriesList() throws Exception {
-        when(productService.getAllCategories()).thenReturn(categories);
+        when(catalogTaxonomy.categoryNamesJson()).thenReturn(json(categories));
 
         mockMvc.perform(get("/api-categories"))
                 .andExpect(status().isOk())
@@ -47,24 +49,24 @@ class CategoriesApiControllerTest {
                 .andExpect(jsonPath("$[2]").value("Dairy"))
                 .andExpect(jsonPath("$[3]").value("Snacks"));
 
-        verify(productService, times(1)).getAllCategories();
+        verify(catalogTaxonomy, times(1)).categoryNamesJson();
     }
 
     @Test
     void getAllCategories_WithEmptyList_ShouldReturnEmptyArray() throws Exception {
-        when(productService.getAllCategories()).thenReturn(Collections.emptyList());
+        when(catalogTaxonomy.categoryNamesJson()).thenReturn(json(Collections.emptyList()));
 
         mockMvc.perform(get("/api-categories"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(productService, times(1)).getAllCategories();
+        verify(catalogTaxonomy, times(1)).categoryNamesJson();
     }
 
     @Test
     void getAllCategories_WithSingleCategory_ShouldReturnSingleElement() throws Exception {
-        when(productService.getAllCategories()).thenReturn(Collections.singletonList("Fruits"));
+        when(catalogTaxonomy.categoryNamesJson()).thenReturn(json(Collections.singletonList("Fruits")));
 
         mockMvc.perform(get("/api-categories"))
                 .andExpect(status().isOk())
@@ -72,6 +74,24 @@ class CategoriesApiControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0]").value("Fruits"));
 
-        verify(productService, times(1)).getAllCategories();
+        verify(catalogTaxonomy, times(1)).categoryNamesJson();
+    }
+
+    @Test
+    void getAllCategories_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        PreparedJson json = json(categories);
+        when(catalogTaxonomy.categoryNamesJson()).thenReturn(json);
+
+        mockMvc.perform(get("/api-categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", json.etag()));
+
+        mockMvc.perform(get("/api-categories").header("If-None-Match", json.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    private static PreparedJson json(Object value) {
+        return PreparedJson.of(new ObjectMapper(), value);
     }
 }
@@ -1,6 +1,13 @@
 package com.groceryapp.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.dto.CategoryTreeDto;
+import com.groceryapp.backend.dto.ProductPageDto;
+import com.groceryapp.backend.dto.ProductPageRequest;
 import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.service.CatalogTaxonomy;
+import com.groceryapp.backend.service.PreparedJson;
+import com.groceryapp.backend.service.CatalogSnapshotCache;
 import com.groceryapp.backend.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,14 +34,23 @@ class CategoryControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CatalogSnapshotCache catalogSnapshotCache;
+
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private CatalogTaxonomy catalogTaxonomy;
+
     private List<String> categories;
     private List<ProductResponseDto> products;
 
     @BeforeEach
     void setUp() {
+        // Listings are kept per catalog version, which mocked or direct repository writes never bump
+        catalogSnapshotCache.clear();
+
         categories = Arrays.asList("Electronics", "Groceries", "Home Appliances");
 
         ProductResponseDto product = new ProductResponseDto();
@@ -47,15 +64,41 @@ class CategoryControllerTest {
 
     @Test
     void getAllCategories_ShouldReturnAllCategories() throws Exception {
-        when(productService.getAllCategories()).thenReturn(categories);
+        PreparedJson json = PreparedJson.of(new ObjectMapper(), categories);
+        when(catalogTaxonomy.categoryNamesJson()).thenReturn(json);
 
         mockMvc.perform(get("/categories"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", json.etag()))
                 .andExpect(jsonPath("$[0]").value("Electronics"))
                 .andExpect(jsonPath("$[1]").value("Groceries"))
                 .andExpect(jsonPath("$[2]").value("Home Appliances"));
 
-        verify(productService, times(1)).getAllCategories();
+        verify(catalogTaxonomy, times(1)).categoryNamesJson();
+    }
+
+    @Test
+    void getAllCategories_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        PreparedJson json = PreparedJson.of(new ObjectMapper(), categories);
+        when(catalogTaxonomy.categoryNamesJson()).thenReturn(json);
+
+        mockMvc.perform(get("/categories").header("If-None-Match", json.etag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getCategoryTree_ShouldReturnCategoriesWithSubcategories() throws Exception {
+        CategoryTreeDto.SubcategoryNodeDto laptops = new CategoryTreeDto.SubcategoryNodeDto(UUID.randomUUID(), "Laptops", null, 1, 1);
+        CategoryTreeDto electronics = new CategoryTreeDto(UUID.randomUUID(), "Electronics", null, null, 1, 1, List.of(laptops));
+        when(catalogTaxonomy.treeJson()).thenReturn(PreparedJson.of(new ObjectMapper(), List.of(electronics)));
+
+        mockMvc.perform(get("/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Electronics"))
+                .andExpect(jsonPath("$[0].productCount").value(1))
+                .andExpect(jsonPath("$[0].subcategories[0].name").value("Laptops"));
+
+        verify(productService, never()).getProductsByCategoryName(anyString());
     }
 
     @Test
@@ -79,4 +122,19 @@ class CategoryControllerTest {
 
         verify(productService, times(1)).getProductsByCategoryName("home-appliances");
     }
+
+    @Test
+    void getProductsByCategoryName_WithSize_ShouldReturnPage() throws Exception {
+        ProductPageDto page = new ProductPageDto(products, "next-cursor", true, 1);
+        when(productService.getProductsByCategoryNamePage("home-appliances", new ProductPageRequest(1, null, "rating", null)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/categories/{categoryName}", "home-appliances").param("size", "1").param("sortBy", "rating"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Laptop"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(productService, never()).getProductsByCategoryName(anyString());
+    }
 }
@@ -2,7 +2,10 @@ package com.groceryapp.backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.groceryapp.backend.dto.CreateOrderRequestDto;
+import com.groceryapp.backend.dto.CartResponseDto;
+import com.groceryapp.backend.dto.CheckoutRequestDto;
 import com.groceryapp.backend.dto.OrderResponseDto;
+import com.groceryapp.backend.dto.ReorderResponseDto;
 import com.groceryapp.backend.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -117,6 +120,50 @@ class OrderControllerTest {
         verify(orderService, times(1)).getOrderByOrderNumber("ORD-12345");
     }
 
+    @Test
+    void checkout_ShouldReturnCreated() throws Exception {
+        CheckoutRequestDto checkoutRequest = new CheckoutRequestDto(userId, "upi", UUID.randomUUID());
+        when(orderService.checkout(any(CheckoutRequestDto.class))).thenReturn(orderResponse);
+
+        mockMvc.perform(post("/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(checkoutRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.orderNumber").value("ORD-12345"));
+
+        verify(orderService, times(1)).checkout(checkoutRequest);
+    }
+
+    @Test
+    void checkout_WithoutDeliveryAddress_ShouldReturnBadRequest() throws Exception {
+        CheckoutRequestDto checkoutRequest = new CheckoutRequestDto(userId, "COD", null);
+
+        mockMvc.perform(post("/orders/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(checkoutRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).checkout(any());
+    }
+
+    @Test
+    void reorder_ShouldReturnCartAndLineOutcomes() throws Exception {
+        UUID productId = UUID.randomUUID();
+        ReorderResponseDto reorder = new ReorderResponseDto(new CartResponseDto(), List.of(
+                new ReorderResponseDto.LineDto(productId, "Amul Butter", 2, 0, new BigDecimal("56.00"),
+                        new BigDecimal("58.00"), true, ReorderResponseDto.LineStatus.OUT_OF_STOCK)));
+
+        when(orderService.reorder(orderId)).thenReturn(reorder);
+
+        mockMvc.perform(post("/orders/{id}/reorder", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines[0].productId").value(productId.toString()))
+                .andExpect(jsonPath("$.lines[0].priceChanged").value(true))
+                .andExpect(jsonPath("$.lines[0].status").value("OUT_OF_STOCK"));
+
+        verify(orderService, times(1)).reorder(orderId);
+    }
+
     @Test
     void updateOrderStatus_WithValidData_ShouldReturnUpdatedOrder() throws Exception {
         OrderResponseDto updatedOrder = new OrderResponseDto();
@@ -0,0 +1,25 @@
+package com.groceryapp.backend.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreparedJsonWriterTest {
+
+    @Test
+    void acceptsGzip_ShouldFollowAcceptEncoding() {
+        assertThat(PreparedJsonWriter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PreparedJsonWriter.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(PreparedJsonWriter.acceptsGzip("*")).isTrue();
+        assertThat(PreparedJsonWriter.acceptsGzip("x-gzip")).isTrue();
+    }
+
+    @Test
+    void acceptsGzip_WhenAbsentOrRefused_ShouldBeFalse() {
+        assertThat(PreparedJsonWriter.acceptsGzip(null)).isFalse();
+        assertThat(PreparedJsonWriter.acceptsGzip("identity")).isFalse();
+        assertThat(PreparedJsonWriter.acceptsGzip("br, deflate")).isFalse();
+        assertThat(PreparedJsonWriter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PreparedJsonWriter.acceptsGzip("gzip;q=0.0, br")).isFalse();
+    }
+}
@@ -1,9 +1,18 @@
 package com.groceryapp.backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductPageDto;
+import com.groceryapp.backend.dto.ProductPageRequest;
+import com.groceryapp.backend.dto.ProductRailsDto;
 import com.groceryapp.backend.dto.ProductRequestDto;
 import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.dto.SuggestionDto;
+import com.groceryapp.backend.service.CatalogSnapshotCache;
+import com.groceryapp.backend.service.ProductExportService;
 import com.groceryapp.backend.service.ProductService;
+import com.groceryapp.backend.service.ProductSuggester;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,12 +21,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -32,12 +50,21 @@ class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CatalogSnapshotCache catalogSnapshotCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductSuggester productSuggester;
+
+    @MockBean
+    private ProductExportService productExportService;
+
     private ProductRequestDto productRequest;
     private ProductResponseDto productResponse;
     private UUID productId;
@@ -46,6 +73,9 @@ class ProductControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Listings are kept per catalog version, which mocked or direct repository writes never bump
+        catalogSnapshotCache.clear();
+
         productId = UUID.randomUUID();
         categoryId = UUID.randomUUID();
         subcategoryId = UUID.randomUUID();
@@ -99,6 +129,55 @@ class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void getAllProducts_Repeated_ShouldServeSnapshotAndHonourETag() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(productResponse));
+
+        String etag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$[0].name").value("Apple"));
+
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // Built once, then served from the snapshot
+        verify(productService, times(1)).getAllProducts();
+    }
+
+    @Test
+    void getAllProducts_AcceptingGzip_ShouldServeCompressedVariant() throws Exception {
+        List<ProductResponseDto> catalog = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            catalog.add(productResponse);
+        }
+        when(productService.getAllProducts()).thenReturn(catalog);
+
+        MvcResult result = mockMvc.perform(get("/products").header("Accept-Encoding", "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+        assertThat(etag).endsWith("-gzip\"");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).contains("\"name\":\"Apple\"");
+        }
+
+        mockMvc.perform(get("/products").header("Accept-Encoding", "gzip").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$[0].name").value("Apple"));
+    }
+
     @Test
     void getAllProducts_WithCategoryFilter_ShouldReturnFilteredProducts() throws Exception {
         List<ProductResponseDto> products = Arrays.asList(productResponse);
@@ -150,6 +229,119 @@ class ProductControllerTest {
         verify(productService, times(1)).getFeaturedProducts();
     }
 
+    @Test
+    void getProducts_WithSize_ShouldReturnPage() throws Exception {
+        ProductPageDto page = new ProductPageDto(List.of(productResponse), "next-cursor", true, 1);
+        ProductPageRequest expected = new ProductPageRequest(1, null, "price", "asc");
+        when(productService.getProductsPage(categoryId, null, expected)).thenReturn(page);
+
+        mockMvc.perform(get("/products")
+                        .param("categoryId", categoryId.toString())
+                        .param("size", "1")
+                        .param("sortBy", "price")
+                        .param("direction", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Apple"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(productService, never()).getProductsByCategory(any());
+    }
+
+    @Test
+    void getProducts_WithSizeAndSearch_ShouldKeepSearching() throws Exception {
+        when(productService.searchProducts("apple")).thenReturn(List.of(productResponse));
+
+        mockMvc.perform(get("/products").param("search", "apple").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Apple"));
+
+        verify(productService, never()).getProductsPage(any(), any(), any());
+    }
+
+    @Test
+    void getFeaturedProducts_WithSize_ShouldReturnPage() throws Exception {
+        ProductPageDto page = new ProductPageDto(List.of(productResponse), null, false, 1);
+        when(productService.getFeaturedProductsPage(any(ProductPageRequest.class))).thenReturn(page);
+
+        mockMvc.perform(get("/products/featured").param("size", "24").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].isFeatured").value(true))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(productService).getFeaturedProductsPage(new ProductPageRequest(24, "abc", null, null));
+    }
+
+    @Test
+    void getProducts_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(productService.getProductsPage(any(), any(), any(ProductPageRequest.class)))
+                .thenThrow(new IllegalArgumentException("Invalid page cursor"));
+
+        mockMvc.perform(get("/products").param("size", "10").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void browseProducts_ShouldBindFiltersAndReturnFacets() throws Exception {
+        UUID brandA = UUID.randomUUID();
+        UUID brandB = UUID.randomUUID();
+        ProductBrowseDto.Facets facets = new ProductBrowseDto.Facets(
+                List.of(new ProductBrowseDto.Bucket(categoryId.toString(), "Fruits & Vegetables", 1)),
+                List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), 1);
+        ProductBrowseDto browse = new ProductBrowseDto(List.of(productResponse), 1, 0, 1, false, facets);
+        ProductBrowseRequest expected = new ProductBrowseRequest(categoryId, null, List.of(brandA, brandB),
+                new BigDecimal("50"), null, null, null, true, null, null, null, List.of("organic"), null, 10, "price", null);
+        when(productService.browseProducts(expected)).thenReturn(browse);
+
+        mockMvc.perform(get("/products/browse")
+                        .param("categoryId", categoryId.toString())
+                        .param("brandId", brandA.toString(), brandB.toString())
+                        .param("minPrice", "50")
+                        .param("inStock", "true")
+                        .param("tag", "organic")
+                        .param("size", "10")
+                        .param("sortBy", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Apple"))
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.facets.categories[0].label").value("Fruits & Vegetables"))
+                .andExpect(jsonPath("$.facets.inStock").value(1));
+    }
+
+    @Test
+    void getHomeRails_ShouldReturnRails() throws Exception {
+        ProductRailsDto rails = new ProductRailsDto(List.of(productResponse), List.of(), List.of(productResponse), 3);
+        when(productService.getHomeRails(categoryId, 6)).thenReturn(rails);
+
+        mockMvc.perform(get("/products/rails")
+                        .param("categoryId", categoryId.toString())
+                        .param("limit", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.featured[0].name").value("Apple"))
+                .andExpect(jsonPath("$.trending").isEmpty())
+                .andExpect(jsonPath("$.inStock").value(3));
+    }
+
+    @Test
+    void exportProducts_ShouldStreamNdjson() throws Exception {
+        Instant since = Instant.parse("2024-05-01T00:00:00Z");
+        when(productExportService.exportNdjson(eq(since), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"name\":\"Apple\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/products/export").param("updatedSince", "2024-05-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().exists("X-Export-Started-At"))
+                .andExpect(content().string("{\"name\":\"Apple\"}\n"));
+    }
+
     @Test
     void searchProducts_WithQuery_ShouldReturnSearchResults() throws Exception {
         List<ProductResponseDto> products = Arrays.asList(productResponse);
@@ -163,6 +355,25 @@ class ProductControllerTest {
         verify(productService, times(1)).searchProducts("apple");
     }
 
+    @Test
+    void suggest_WithPrefix_ShouldReturnSuggestions() throws Exception {
+        List<SuggestionDto> suggestions = Arrays.asList(
+                new SuggestionDto("Fruits", "CATEGORY", categoryId),
+                new SuggestionDto("Apple", "PRODUCT", productId));
+        when(productSuggester.suggest("fr", 5)).thenReturn(suggestions);
+
+        mockMvc.perform(get("/products/suggest")
+                        .param("prefix", "fr")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Fruits"))
+                .andExpect(jsonPath("$[0].type").value("CATEGORY"))
+                .andExpect(jsonPath("$[1].id").value(productId.toString()));
+
+        verify(productSuggester, times(1)).suggest("fr", 5);
+        verifyNoInteractions(productService);
+    }
+
     @Test
     void getProductById_WithValidId_ShouldReturnProduct() throws Exception {
         when(productService.getProductById(productId)).thenReturn(productResponse);
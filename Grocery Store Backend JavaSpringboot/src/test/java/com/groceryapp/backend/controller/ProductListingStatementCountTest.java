@@ -0,0 +1,134 @@
+package com.groceryapp.backend.controller;
+
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.ProductRepository;
+import com.groceryapp.backend.service.CatalogSnapshotCache;
+import com.groceryapp.backend.service.ProductFacetIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the product listing endpoints against N+1 lazy loading
+ * Every listing must load its products together with category, subcategory and brand in one statement.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc(addFilters = false)
+class ProductListingStatementCountTest {
+
+    private static final long MAX_STATEMENTS_PER_LISTING = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogSnapshotCache catalogSnapshotCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    private Statistics statistics;
+    private Product product;
+    private Boolean originalFeatured;
+
+    @BeforeEach
+    void setUp() {
+        // Listings are kept per catalog version, which mocked or direct repository writes never bump
+        catalogSnapshotCache.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Sample data has no featured products
+        product = productRepository.findAll().get(0);
+        originalFeatured = product.getIsFeatured();
+        product.setIsFeatured(true);
+        productRepository.save(product);
+        productFacetIndex.reload(); // the featured listing is served from the flag index
+    }
+
+    @AfterEach
+    void tearDown() {
+        // The context is shared with other tests, which expect the sample data as loaded
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        stored.setIsFeatured(originalFeatured);
+        productRepository.save(stored);
+        productFacetIndex.reload();
+        catalogSnapshotCache.clear();
+    }
+
+    @Test
+    void getAllProducts_ShouldUseOneStatement() throws Exception {
+        assertListingStatementCount(get("/products"), "$");
+    }
+
+    @Test
+    void getProductsByCategory_ShouldUseOneStatement() throws Exception {
+        assertListingStatementCount(get("/products").param("categoryId", product.getCategory().getId().toString()), "$");
+    }
+
+    @Test
+    void getProductsBySubcategory_ShouldUseOneStatement() throws Exception {
+        assertListingStatementCount(get("/products").param("subcategoryId", product.getSubcategory().getId().toString()), "$");
+    }
+
+    @Test
+    void getFeaturedProducts_ShouldUseOneStatement() throws Exception {
+        assertListingStatementCount(get("/products/featured"), "$");
+    }
+
+    @Test
+    void getProductsByCategoryName_ShouldUseOneStatement() throws Exception {
+        assertListingStatementCount(get("/categories/{categoryName}", product.getCategory().getName()), "$");
+    }
+
+    @Test
+    void getProductsPage_ShouldUseOneStatement() throws Exception {
+        assertListingStatementCount(get("/products").param("size", "5").param("sortBy", "price"), "$.items");
+        assertListingStatementCount(get("/categories/{categoryName}", product.getCategory().getName()).param("size", "5"), "$.items");
+    }
+
+    @Test
+    void getProductById_ShouldUseOneStatement() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categoryName").exists());
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_LISTING);
+    }
+
+    private void assertListingStatementCount(RequestBuilder request, String itemsPath) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(itemsPath, hasSize(greaterThan(0))))
+                .andExpect(jsonPath(itemsPath + "[0].categoryName").exists());
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements issued by the listing")
+                .isLessThanOrEqualTo(MAX_STATEMENTS_PER_LISTING);
+    }
+}
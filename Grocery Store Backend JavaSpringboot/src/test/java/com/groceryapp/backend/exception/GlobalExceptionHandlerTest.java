@@ -17,7 +17,9 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import java.lang.reflect.Method;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -117,6 +119,22 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getMessage()).isEqualTo(TEST_MESSAGE);
     }
 
+    @Test
+    void whenHandleInsufficientStockExceptionWithShortProducts_thenListsThemInResponse() {
+        // Given
+        UUID shortProductId = UUID.randomUUID();
+        InsufficientStockException exception = new InsufficientStockException(TEST_MESSAGE, List.of(shortProductId));
+
+        // When
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler
+                .handleInsufficientStockException(exception, mockRequest);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isInstanceOf(StockErrorResponse.class);
+        assertThat(((StockErrorResponse) response.getBody()).getShortProductIds()).containsExactly(shortProductId);
+    }
+
     // ===== MethodArgumentNotValidException Tests =====
 
     @Test
@@ -42,7 +42,7 @@ class CartItemTest {
         UUID productId = UUID.randomUUID();
         BigDecimal price = BigDecimal.valueOf(25.50);
         
-        CartItem item = new CartItem(id, null, productId, 5, price);
+        CartItem item = new CartItem(id, null, productId, 5, price, null);
 
         assertThat(item.getId()).isEqualTo(id);
         assertThat(item.getProductId()).isEqualTo(productId);
@@ -93,4 +93,23 @@ class CartItemTest {
         assertThat(item.getQuantity()).isEqualTo(4);
         assertThat(item.getPriceAtAdd()).isEqualTo(price);
     }
+
+    @Test
+    void testLineTotal() {
+        CartItem item = new CartItem(new Cart(), UUID.randomUUID(), 3, new BigDecimal("19.99"));
+
+        assertThat(item.lineTotal()).isEqualTo(Money.ofPaise(5997));
+    }
+
+    @Test
+    void testUnitSavings() {
+        CartItem item = new CartItem(new Cart(), UUID.randomUUID(), 2, new BigDecimal("56.00"));
+        assertThat(item.unitSavings()).isEqualTo(Money.ZERO);
+
+        item.setMrpAtAdd(new BigDecimal("60.50"));
+        assertThat(item.unitSavings()).isEqualTo(Money.ofPaise(450));
+
+        item.setMrpAtAdd(new BigDecimal("50.00"));
+        assertThat(item.unitSavings()).isEqualTo(Money.ZERO);
+    }
 }
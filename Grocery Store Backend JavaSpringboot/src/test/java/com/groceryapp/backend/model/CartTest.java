@@ -56,9 +56,39 @@ class CartTest {
     void testAllArgsConstructor() {
         UUID id = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
-        Cart cart = new Cart(id, userId, null, null, null);
+        Cart cart = new Cart(id, userId, null, 0, 0L, 0L, null, null);
 
         assertThat(cart.getId()).isEqualTo(id);
         assertThat(cart.getUserId()).isEqualTo(userId);
     }
+
+    @Test
+    void testRunningTotalsFollowLineChanges() {
+        Cart cart = new Cart();
+        CartItem butter = new CartItem(cart, UUID.randomUUID(), 2, new BigDecimal("56.00"));
+        butter.setMrpAtAdd(new BigDecimal("60.00"));
+        CartItem bread = new CartItem(cart, UUID.randomUUID(), 1, new BigDecimal("45.50"));
+
+        cart.addItem(butter);
+        cart.addItem(bread);
+        assertThat(cart.getItemCount()).isEqualTo(3);
+        assertThat(cart.getSubtotal()).isEqualByComparingTo("157.50");
+        assertThat(cart.getSavings()).isEqualByComparingTo("8.00");
+
+        cart.changeQuantity(butter, 5);
+        assertThat(butter.getQuantity()).isEqualTo(5);
+        assertThat(cart.getItemCount()).isEqualTo(6);
+        assertThat(cart.getSubtotal()).isEqualByComparingTo("325.50");
+        assertThat(cart.getSavings()).isEqualByComparingTo("20.00");
+
+        cart.removeItem(butter);
+        assertThat(cart.getItemCount()).isEqualTo(1);
+        assertThat(cart.getSubtotal()).isEqualByComparingTo("45.50");
+        assertThat(cart.getSavings()).isEqualByComparingTo("0.00");
+
+        cart.clearItems();
+        assertThat(cart.getItems()).isEmpty();
+        assertThat(cart.getItemCount()).isZero();
+        assertThat(cart.getSubtotal()).isEqualByComparingTo("0");
+    }
 }
@@ -0,0 +1,47 @@
+package com.groceryapp.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void of_ShouldConvertRupeesToPaise() {
+        assertThat(Money.of(new BigDecimal("15.99")).paise()).isEqualTo(1599);
+        assertThat(Money.of(new BigDecimal("40")).paise()).isEqualTo(4000);
+        assertThat(Money.of(new BigDecimal("0.005")).paise()).isEqualTo(1);
+    }
+
+    @Test
+    void arithmetic_ShouldBeExact() {
+        Money price = Money.of(new BigDecimal("19.99"));
+
+        assertThat(price.times(3)).isEqualTo(Money.ofPaise(5997));
+        assertThat(price.times(3).plus(Money.ofPaise(3))).isEqualTo(Money.of(new BigDecimal("60.00")));
+        assertThat(price.minus(price).isZero()).isTrue();
+    }
+
+    @Test
+    void toBigDecimal_ShouldHaveTwoDecimals() {
+        assertThat(Money.ofPaise(1250).toBigDecimal()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(Money.ofPaise(1250)).hasToString("12.50");
+    }
+
+    @Test
+    void overflow_ShouldThrow() {
+        assertThatThrownBy(() -> Money.ofPaise(Long.MAX_VALUE).plus(Money.ofPaise(1)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofPaise(Long.MAX_VALUE / 2).times(3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void compareTo_ShouldOrderByAmount() {
+        assertThat(Money.ofPaise(100)).isLessThan(Money.ofPaise(101));
+        assertThat(Money.ZERO.compareTo(Money.ofPaise(0))).isZero();
+    }
+}
@@ -0,0 +1,109 @@
+package com.groceryapp.backend.repository;
+
+import com.groceryapp.backend.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs bulk reservations against the test database to check they are all or nothing
+ */
+@SpringBootTest
+class StockReservationRepositoryTest {
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product apples;
+    private Product bread;
+
+    @BeforeEach
+    void setUp() {
+        apples = save("Reservation Test Apples", 10);
+        bread = save("Reservation Test Bread", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllById(List.of(apples.getId(), bread.getId()));
+    }
+
+    @Test
+    void reserve_WhenEverythingAvailable_ShouldTakeAllStock() {
+        List<StockReservationRepository.Shortage> shortages = reserveAndRollBackOnShortage(
+                Map.of(apples.getId(), 4, bread.getId(), 2));
+
+        assertThat(shortages).isEmpty();
+        assertThat(stockOf(apples)).isEqualTo(6);
+        assertThat(stockOf(bread)).isZero();
+        assertThat(productRepository.findById(bread.getId()).orElseThrow().getIsAvailable()).isFalse();
+    }
+
+    @Test
+    void reserve_WhenOneProductShort_ShouldReportItAndTakeNothing() {
+        List<StockReservationRepository.Shortage> shortages = reserveAndRollBackOnShortage(
+                Map.of(apples.getId(), 4, bread.getId(), 3));
+
+        assertThat(shortages).containsExactly(
+                new StockReservationRepository.Shortage(bread.getId(), "Reservation Test Bread", 3, 2));
+        assertThat(stockOf(apples)).isEqualTo(10);
+        assertThat(stockOf(bread)).isEqualTo(2);
+    }
+
+    @Test
+    void reserve_WhenProductMissing_ShouldReportItAsMissing() {
+        UUID missingId = UUID.randomUUID();
+
+        List<StockReservationRepository.Shortage> shortages = reserveAndRollBackOnShortage(
+                Map.of(apples.getId(), 1, missingId, 1));
+
+        assertThat(shortages).hasSize(1);
+        assertThat(shortages.get(0).productId()).isEqualTo(missingId);
+        assertThat(shortages.get(0).missing()).isTrue();
+        assertThat(stockOf(apples)).isEqualTo(10);
+    }
+
+    private List<StockReservationRepository.Shortage> reserveAndRollBackOnShortage(Map<UUID, Integer> quantities) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<StockReservationRepository.Shortage> shortages = stockReservationRepository.reserve(quantities);
+            if (!shortages.isEmpty()) {
+                status.setRollbackOnly();
+            }
+            return shortages;
+        });
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    private Product save(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory(categoryRepository.findAll().get(0));
+        product.setStock(stock);
+        product.setIsAvailable(true);
+        return productRepository.save(product);
+    }
+}
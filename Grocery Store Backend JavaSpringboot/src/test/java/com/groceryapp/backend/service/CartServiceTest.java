@@ -1,30 +1,39 @@
 package com.groceryapp.backend.service;
 
 import com.groceryapp.backend.dto.AddToCartRequestDto;
+import com.groceryapp.backend.dto.CartBatchRequestDto;
+import com.groceryapp.backend.dto.ReorderResponseDto;
 import com.groceryapp.backend.dto.CartResponseDto;
 import com.groceryapp.backend.dto.UpdateCartItemRequestDto;
 import com.groceryapp.backend.exception.CartItemNotFoundException;
 import com.groceryapp.backend.exception.InsufficientStockException;
+import com.groceryapp.backend.exception.ProductNotFoundException;
 import com.groceryapp.backend.model.Cart;
 import com.groceryapp.backend.model.CartItem;
+import com.groceryapp.backend.model.OrderItem;
 import com.groceryapp.backend.model.Product;
 import com.groceryapp.backend.repository.CartItemRepository;
 import com.groceryapp.backend.repository.CartRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +48,9 @@ class CartServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private HotCartStore hotCartStore;
+
     @InjectMocks
     private CartService cartService;
 
@@ -81,7 +93,7 @@ class CartServiceTest {
     void getOrCreateCart_WhenCartExists_ShouldReturnExistingCart() {
         // Arrange
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
-        when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
 
         // Act
         CartResponseDto result = cartService.getOrCreateCart(userId);
@@ -122,6 +134,7 @@ class CartServiceTest {
         requestDto.setUserId(userId);
 
         when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
         when(cartItemRepository.findByCartAndProductId(testCart, productId)).thenReturn(Optional.empty());
         when(cartItemRepository.save(any(CartItem.class))).thenReturn(testCartItem);
@@ -144,6 +157,7 @@ class CartServiceTest {
         requestDto.setUserId(userId);
 
         when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
         when(cartItemRepository.findByCartAndProductId(testCart, productId)).thenReturn(Optional.of(testCartItem));
         when(cartItemRepository.save(any(CartItem.class))).thenReturn(testCartItem);
@@ -183,6 +197,7 @@ class CartServiceTest {
 
         when(cartItemRepository.findById(cartItemId)).thenReturn(Optional.of(testCartItem));
         when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(cartItemRepository.save(any(CartItem.class))).thenReturn(testCartItem);
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
 
@@ -296,6 +311,7 @@ class CartServiceTest {
         newCart.setItems(new ArrayList<>());
 
         when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
         when(cartRepository.save(any(Cart.class))).thenReturn(newCart, testCart);
         when(cartItemRepository.findByCartAndProductId(any(Cart.class), eq(productId))).thenReturn(Optional.empty());
@@ -397,6 +413,7 @@ class CartServiceTest {
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
         when(cartItemRepository.findById(cartItemId)).thenReturn(Optional.of(testCartItem));
         when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(cartItemRepository.save(any(CartItem.class))).thenReturn(testCartItem);
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
 
@@ -431,4 +448,322 @@ class CartServiceTest {
 
         verify(cartItemRepository, never()).save(any(CartItem.class));
     }
+
+    @Test
+    void getOrCreateCart_WithSeveralItems_ShouldLoadProductsInOneCall() {
+        // Arrange
+        Product otherProduct = new Product();
+        otherProduct.setId(UUID.randomUUID());
+        otherProduct.setName("Other Product");
+        otherProduct.setPrice(BigDecimal.valueOf(4.00));
+        testCart.addItem(new CartItem(testCart, otherProduct.getId(), 3, BigDecimal.valueOf(4.00)));
+
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection()))
+                .thenReturn(Map.of(productId, testProduct, otherProduct.getId(), otherProduct));
+
+        // Act
+        CartResponseDto result = cartService.getOrCreateCart(userId);
+
+        // Assert
+        assertThat(result.getItems()).extracting("productName").containsExactly("Test Product", "Other Product");
+        assertThat(result.getTotalPrice()).isEqualByComparingTo("32.00");
+        verify(productService, times(1)).getProductEntitiesByIds(anyCollection());
+        verify(productService, never()).getProductEntityById(any());
+    }
+
+    @Test
+    void addItemToCart_ShouldMoveRunningTotalsByDelta() {
+        // Arrange
+        Product discounted = new Product();
+        discounted.setId(UUID.randomUUID());
+        discounted.setName("Discounted Product");
+        discounted.setPrice(BigDecimal.valueOf(8.00));
+        discounted.setMrp(BigDecimal.valueOf(10.00));
+        discounted.setStock(50);
+
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(discounted.getId());
+        requestDto.setQuantity(4);
+        requestDto.setUserId(userId);
+
+        when(productService.getProductEntityById(discounted.getId())).thenReturn(discounted);
+        when(productService.getProductEntitiesByIds(anyCollection()))
+                .thenReturn(Map.of(productId, testProduct, discounted.getId(), discounted));
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.findByCartAndProductId(testCart, discounted.getId())).thenReturn(Optional.empty());
+        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+
+        // Act
+        CartResponseDto result = cartService.addItemToCart(userId, requestDto);
+
+        // Assert: 2 x 10.00 already in the cart plus 4 x 8.00, saving 2.00 a unit on the new line
+        assertThat(result.getTotalItems()).isEqualTo(2);
+        assertThat(result.getTotalQuantity()).isEqualTo(6);
+        assertThat(result.getTotalPrice()).isEqualByComparingTo("52.00");
+        assertThat(result.getTotalSavings()).isEqualByComparingTo("8.00");
+    }
+
+    @Test
+    void updateCartItem_ShouldMoveRunningTotalsByDelta() {
+        // Arrange
+        UpdateCartItemRequestDto requestDto = new UpdateCartItemRequestDto();
+        requestDto.setQuantity(7);
+
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.findById(cartItemId)).thenReturn(Optional.of(testCartItem));
+        when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+
+        // Act
+        CartResponseDto result = cartService.updateCartItem(userId, cartItemId, requestDto);
+
+        // Assert
+        assertThat(result.getTotalQuantity()).isEqualTo(7);
+        assertThat(result.getTotalPrice()).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void removeAndClear_ShouldResetRunningTotals() {
+        // Arrange
+        CartItem otherItem = new CartItem(testCart, UUID.randomUUID(), 3, BigDecimal.valueOf(4.00));
+        testCart.addItem(otherItem);
+        when(cartItemRepository.findById(cartItemId)).thenReturn(Optional.of(testCartItem));
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+
+        // Act & Assert
+        cartService.removeItemFromCart(cartItemId);
+        assertThat(testCart.getItemCount()).isEqualTo(3);
+        assertThat(testCart.getSubtotal()).isEqualByComparingTo("12.00");
+
+        cartService.clearCart(userId);
+        assertThat(testCart.getItemCount()).isZero();
+        assertThat(testCart.getSubtotal()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void updateCartItemById_WhenHotStoreEnabled_ShouldEditInMemory() {
+        // Arrange
+        UpdateCartItemRequestDto requestDto = new UpdateCartItemRequestDto();
+        requestDto.setQuantity(5);
+
+        when(hotCartStore.isEnabled()).thenReturn(true);
+        when(hotCartStore.updateQuantity(isNull(), eq(cartItemId), eq(5), any())).thenReturn(testCart);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+
+        // Act
+        CartResponseDto result = cartService.updateCartItemById(cartItemId, requestDto);
+
+        // Assert
+        assertThat(result.getCartId()).isEqualTo(cartId);
+        verifyNoInteractions(cartRepository, cartItemRepository);
+    }
+
+    @Test
+    void getOrCreateCart_WhenCartIsHot_ShouldServeUnflushedEdits() {
+        // Arrange
+        when(hotCartStore.get(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+
+        // Act
+        CartResponseDto result = cartService.getOrCreateCart(userId);
+
+        // Assert
+        assertThat(result.getTotalPrice()).isEqualByComparingTo("20.00");
+        verify(cartRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    void clearCart_ShouldWriteBackHotCartFirst() {
+        // Arrange
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+
+        // Act
+        cartService.clearCart(userId);
+
+        // Assert
+        InOrder inOrder = inOrder(hotCartStore, cartRepository);
+        inOrder.verify(hotCartStore).evict(userId);
+        inOrder.verify(cartRepository).findByUserId(userId);
+    }
+
+    @Test
+    void applyBatch_ShouldApplyOperationsInOrderWithOneProductQuery() {
+        // Arrange
+        Product bread = new Product();
+        bread.setId(UUID.randomUUID());
+        bread.setName("Bread");
+        bread.setPrice(BigDecimal.valueOf(40.00));
+        bread.setMrp(BigDecimal.valueOf(45.00));
+        bread.setStock(10);
+
+        CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.ADD, null, bread.getId(), 1),
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.ADD, null, bread.getId(), 2),
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.UPDATE, cartItemId, null, 4)));
+
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection()))
+                .thenReturn(Map.of(productId, testProduct, bread.getId(), bread));
+        when(cartRepository.save(testCart)).thenReturn(testCart);
+
+        // Act
+        CartResponseDto result = cartService.applyBatch(userId, requestDto);
+
+        // Assert: 4 x 10.00 plus 3 x 40.00, saving 5.00 a loaf
+        assertThat(result.getItems()).extracting("productName", "quantity")
+                .containsExactly(tuple("Test Product", 4), tuple("Bread", 3));
+        assertThat(result.getTotalPrice()).isEqualByComparingTo("160.00");
+        assertThat(result.getTotalSavings()).isEqualByComparingTo("15.00");
+        verify(hotCartStore).evict(userId);
+        verify(productService, times(1)).getProductEntitiesByIds(anyCollection());
+        verify(productService, never()).getProductEntityById(any());
+        verify(cartItemRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void applyBatch_WhenRemovingByProduct_ShouldDeleteTheLine() {
+        // Arrange
+        CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.REMOVE, null, productId, null)));
+
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+        when(cartRepository.save(testCart)).thenReturn(testCart);
+
+        // Act
+        CartResponseDto result = cartService.applyBatch(userId, requestDto);
+
+        // Assert
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.getTotalPrice()).isEqualByComparingTo("0");
+        verify(cartItemRepository).deleteAll(List.of(testCartItem));
+    }
+
+    @Test
+    void applyBatch_WhenFinalQuantityExceedsStock_ShouldSaveNothing() {
+        // Arrange: each add fits on its own, together they do not
+        CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.ADD, null, productId, 30),
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.ADD, null, productId, 20)));
+
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+
+        // Act & Assert
+        assertThatThrownBy(() -> cartService.applyBatch(userId, requestDto))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("52");
+        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartItemRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void applyBatch_WithUnknownItem_ShouldThrowException() {
+        // Arrange
+        CartBatchRequestDto requestDto = new CartBatchRequestDto(List.of(
+                new CartBatchRequestDto.Operation(CartBatchRequestDto.Action.UPDATE, UUID.randomUUID(), null, 2)));
+
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+
+        // Act & Assert
+        assertThatThrownBy(() -> cartService.applyBatch(userId, requestDto))
+                .isInstanceOf(CartItemNotFoundException.class);
+    }
+
+    @Test
+    void addOrderToCart_ShouldAddWhatStockAllowsAndReportEachLine() {
+        // Arrange: 2 already in the cart out of 50 in stock
+        Product pricier = new Product();
+        pricier.setId(UUID.randomUUID());
+        pricier.setName("Pricier Product");
+        pricier.setPrice(BigDecimal.valueOf(12.00));
+        pricier.setStock(3);
+        Product soldOut = new Product();
+        soldOut.setId(UUID.randomUUID());
+        soldOut.setName("Sold Out Product");
+        soldOut.setPrice(BigDecimal.valueOf(5.00));
+        soldOut.setStock(0);
+        UUID deletedId = UUID.randomUUID();
+
+        List<OrderItem> orderItems = List.of(
+                orderItem(productId, 48, "10.00"),
+                orderItem(pricier.getId(), 5, "11.00"),
+                orderItem(soldOut.getId(), 1, "5.00"),
+                orderItem(deletedId, 1, "7.00"));
+
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection()))
+                .thenReturn(Map.of(productId, testProduct, pricier.getId(), pricier, soldOut.getId(), soldOut));
+        when(cartRepository.save(testCart)).thenReturn(testCart);
+
+        // Act
+        ReorderResponseDto result = cartService.addOrderToCart(userId, orderItems);
+
+        // Assert
+        assertThat(result.getLines())
+                .extracting(ReorderResponseDto.LineDto::getAddedQuantity, ReorderResponseDto.LineDto::isPriceChanged,
+                        ReorderResponseDto.LineDto::getStatus)
+                .containsExactly(
+                        tuple(48, false, ReorderResponseDto.LineStatus.ADDED),
+                        tuple(3, true, ReorderResponseDto.LineStatus.PARTIAL),
+                        tuple(0, false, ReorderResponseDto.LineStatus.OUT_OF_STOCK),
+                        tuple(0, false, ReorderResponseDto.LineStatus.OUT_OF_STOCK));
+        assertThat(result.getLines().get(3).getCurrentPrice()).isNull();
+        assertThat(result.getCart().getItems()).extracting("productName", "quantity")
+                .containsExactly(tuple("Test Product", 50), tuple("Pricier Product", 3));
+        assertThat(result.getCart().getTotalPrice()).isEqualByComparingTo("536.00");
+        verify(hotCartStore).evict(userId);
+        verify(productService, times(1)).getProductEntitiesByIds(anyCollection());
+        verify(productService, never()).getProductEntityById(any());
+    }
+
+    @Test
+    void getCartForCheckout_ShouldWriteBackHotCartAndLockTheRow() {
+        // Arrange
+        when(cartRepository.findByUserIdForUpdate(userId)).thenReturn(Optional.of(testCart));
+
+        // Act
+        Cart result = cartService.getCartForCheckout(userId);
+
+        // Assert
+        assertThat(result).isSameAs(testCart);
+        InOrder inOrder = inOrder(hotCartStore, cartRepository);
+        inOrder.verify(hotCartStore).evict(userId);
+        inOrder.verify(cartRepository).findByUserIdForUpdate(userId);
+    }
+
+    @Test
+    void getCartForCheckout_WhenCartIsEmpty_ShouldThrowException() {
+        // Arrange
+        testCart.clearItems();
+        when(cartRepository.findByUserIdForUpdate(userId)).thenReturn(Optional.of(testCart));
+
+        // Act & Assert
+        assertThatThrownBy(() -> cartService.getCartForCheckout(userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cart items cannot be empty");
+    }
+
+    @Test
+    void getOrCreateCart_WhenProductNoLongerExists_ShouldThrowException() {
+        // Arrange
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(testCart));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> cartService.getOrCreateCart(userId))
+                .isInstanceOf(ProductNotFoundException.class);
+    }
+
+    private static OrderItem orderItem(UUID productId, int quantity, String priceAtOrder) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProductId(productId);
+        orderItem.setProductName("Ordered " + productId);
+        orderItem.setQuantity(quantity);
+        orderItem.setPriceAtOrder(new BigDecimal(priceAtOrder));
+        return orderItem;
+    }
 }
@@ -0,0 +1,98 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.model.Cart;
+import com.groceryapp.backend.model.CartItem;
+import com.groceryapp.backend.repository.CartItemRepository;
+import com.groceryapp.backend.repository.CartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Corrupts the running totals of a cart in the test database and checks the job recomputes them
+ */
+@SpringBootTest
+class CartTotalsReconcilerTest {
+
+    @Autowired
+    private CartTotalsReconciler cartTotalsReconciler;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Cart cart;
+
+    @AfterEach
+    void tearDown() {
+        if (cart != null) {
+            cartRepository.deleteById(cart.getId());
+        }
+    }
+
+    @Test
+    void reconcile_ShouldRecomputeDriftedTotalsFromItems() {
+        // Arrange: the helpers keep the totals right, so a consistent cart is left alone
+        cart = new Cart();
+        cart.setUserId(UUID.randomUUID());
+        CartItem butter = new CartItem(cart, UUID.randomUUID(), 2, new BigDecimal("56.00"));
+        butter.setMrpAtAdd(new BigDecimal("60.00"));
+        cart.addItem(butter);
+        cart.addItem(new CartItem(cart, UUID.randomUUID(), 1, new BigDecimal("45.50")));
+        cart = cartRepository.save(cart);
+        assertThat(cartTotalsReconciler.reconcile()).isZero();
+
+        // A line deleted behind the cart's back
+        cartItemRepository.delete(cartItemRepository.findByCartIdAndProductId(cart.getId(), butter.getProductId()).orElseThrow());
+
+        // Act
+        int reconciled = cartTotalsReconciler.reconcile();
+
+        // Assert
+        Cart reloaded = cartRepository.findById(cart.getId()).orElseThrow();
+        assertThat(reconciled).isEqualTo(1);
+        assertThat(reloaded.getItemCount()).isEqualTo(1);
+        assertThat(reloaded.getSubtotal()).isEqualByComparingTo("45.50");
+        assertThat(reloaded.getSavings()).isEqualByComparingTo("0");
+        assertThat(cartTotalsReconciler.reconcile()).isZero();
+    }
+
+    @Test
+    void reconcileOnStartup_AfterUpgradeAddedTheTotalsColumns_ShouldBackfillThem() {
+        // Arrange: a cart from before the running totals existed
+        cart = new Cart();
+        cart.setUserId(UUID.randomUUID());
+        cart.addItem(new CartItem(cart, UUID.randomUUID(), 3, new BigDecimal("12.50")));
+        cart = cartRepository.save(cart);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("ALTER TABLE carts DROP COLUMN item_count");
+        jdbcTemplate.execute("ALTER TABLE carts DROP COLUMN subtotal_paise");
+        jdbcTemplate.execute("ALTER TABLE carts DROP COLUMN savings_paise");
+
+        // Act
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema-upgrade.sql")).execute(dataSource);
+        cartTotalsReconciler.reconcileOnStartup();
+
+        // Assert
+        Cart reloaded = cartRepository.findById(cart.getId()).orElseThrow();
+        assertThat(reloaded.getItemCount()).isEqualTo(3);
+        assertThat(reloaded.getSubtotal()).isEqualByComparingTo("37.50");
+        assertThat(reloaded.getSavings()).isEqualByComparingTo("0");
+    }
+}
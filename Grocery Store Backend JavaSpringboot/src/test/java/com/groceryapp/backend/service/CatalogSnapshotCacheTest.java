@@ -0,0 +1,166 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotCacheTest {
+
+    @Mock
+    private ProductService productService;
+
+    private CatalogVersion catalogVersion;
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogSnapshotCache catalogSnapshotCache;
+    private ProductResponseDto apple;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        meterRegistry = new SimpleMeterRegistry();
+        catalogSnapshotCache = new CatalogSnapshotCache(productService, catalogVersion,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+
+        apple = new ProductResponseDto();
+        apple.setId(UUID.randomUUID());
+        apple.setName("Apple");
+    }
+
+    @Test
+    void allProducts_AtSameVersion_ShouldSerializeOnce() {
+        when(productService.getAllProducts()).thenReturn(List.of(apple));
+
+        PreparedJson first = catalogSnapshotCache.allProducts();
+        PreparedJson second = catalogSnapshotCache.allProducts();
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.body(), StandardCharsets.UTF_8)).contains("\"name\":\"Apple\"");
+        verify(productService, times(1)).getAllProducts();
+    }
+
+    @Test
+    void allProducts_AfterProductWrite_ShouldRebuildWithNewETag() {
+        when(productService.getAllProducts()).thenReturn(List.of(apple));
+        PreparedJson before = catalogSnapshotCache.allProducts();
+
+        apple.setName("Green Apple");
+        catalogVersion.onProductChanged(ProductChangedEvent.stockAdjusted(apple.getId(), -1));
+        PreparedJson after = catalogSnapshotCache.allProducts();
+
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(new String(after.body(), StandardCharsets.UTF_8)).contains("Green Apple");
+        verify(productService, times(2)).getAllProducts();
+    }
+
+    @Test
+    void allProducts_AfterCategoryRename_ShouldRebuildWithNewETag() {
+        apple.setCategoryName("Fruits");
+        when(productService.getAllProducts()).thenReturn(List.of(apple));
+        PreparedJson before = catalogSnapshotCache.allProducts();
+
+        apple.setCategoryName("Fresh Fruits");
+        catalogVersion.onReferenceDataChanged(new ReferenceDataChangedEvent());
+        PreparedJson after = catalogSnapshotCache.allProducts();
+
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(new String(after.body(), StandardCharsets.UTF_8)).contains("Fresh Fruits");
+    }
+
+    @Test
+    void listings_ShouldBeKeptSeparately() {
+        UUID categoryId = UUID.randomUUID();
+        UUID subcategoryId = UUID.randomUUID();
+        when(productService.getProductsByCategory(categoryId)).thenReturn(List.of(apple));
+        when(productService.getProductsBySubcategory(subcategoryId)).thenReturn(List.of());
+        when(productService.getFeaturedProducts()).thenReturn(List.of());
+
+        assertThat(catalogSnapshotCache.productsByCategory(categoryId).body()).isNotEqualTo(
+                catalogSnapshotCache.productsBySubcategory(subcategoryId).body());
+        catalogSnapshotCache.featuredProducts();
+        catalogSnapshotCache.productsByCategory(categoryId);
+
+        verify(productService, times(1)).getProductsByCategory(categoryId);
+        verify(productService, times(1)).getFeaturedProducts();
+    }
+
+    @Test
+    void productsByCategoryName_ShouldIgnoreCase() {
+        when(productService.getProductsByCategoryName("cold-drinks")).thenReturn(List.of(apple));
+
+        PreparedJson first = catalogSnapshotCache.productsByCategoryName("cold-drinks");
+        PreparedJson second = catalogSnapshotCache.productsByCategoryName("Cold-Drinks");
+
+        assertThat(second).isSameAs(first);
+        verify(productService, never()).getProductsByCategoryName("Cold-Drinks");
+    }
+
+    @Test
+    void clear_ShouldDropSnapshots() {
+        when(productService.getAllProducts()).thenReturn(List.of(apple));
+        catalogSnapshotCache.allProducts();
+
+        catalogSnapshotCache.clear();
+        catalogSnapshotCache.allProducts();
+
+        verify(productService, times(2)).getAllProducts();
+    }
+
+    @Test
+    void allProducts_ShouldCountHitsAndMisses() {
+        when(productService.getAllProducts()).thenReturn(List.of(apple));
+
+        catalogSnapshotCache.allProducts();
+        catalogSnapshotCache.allProducts();
+        catalogSnapshotCache.allProducts();
+
+        assertThat(meterRegistry.counter(CatalogSnapshotCache.LOOKUPS_METRIC, "result", "miss").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter(CatalogSnapshotCache.LOOKUPS_METRIC, "result", "hit").count()).isEqualTo(2);
+    }
+
+    @Test
+    void allProducts_WithLargeCatalog_ShouldKeepGzipVariant() throws IOException {
+        List<ProductResponseDto> catalog = IntStream.range(0, 50).mapToObj(i -> {
+            ProductResponseDto product = new ProductResponseDto();
+            product.setId(UUID.randomUUID());
+            product.setName("Product " + i);
+            product.setDescription("A fairly long description that repeats across the catalog");
+            return product;
+        }).toList();
+        when(productService.getAllProducts()).thenReturn(catalog);
+
+        PreparedJson json = catalogSnapshotCache.allProducts();
+
+        assertThat(json.gzipBody()).isNotNull();
+        assertThat(json.gzipBody().length).isLessThan(json.body().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(json.gzipBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(json.body());
+        }
+        assertThat(json.gzipEtag()).isNotEqualTo(json.etag()).endsWith("-gzip\"");
+    }
+
+    @Test
+    void allProducts_WithSmallCatalog_ShouldSkipCompression() {
+        when(productService.getAllProducts()).thenReturn(List.of(apple));
+
+        assertThat(catalogSnapshotCache.allProducts().gzipBody()).isNull();
+    }
+}
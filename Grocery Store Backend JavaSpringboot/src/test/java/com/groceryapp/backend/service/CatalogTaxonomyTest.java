@@ -0,0 +1,176 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.dto.CategoryTreeDto;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Subcategory;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import com.groceryapp.backend.repository.SubcategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogTaxonomyTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubcategoryRepository subcategoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private CatalogTaxonomy catalogTaxonomy;
+
+    private Category fruits;
+    private Category dairy;
+    private Category snacks;
+    private Subcategory freshFruits;
+    private Subcategory exoticFruits;
+
+    @BeforeEach
+    void setUp() {
+        catalogTaxonomy = new CatalogTaxonomy(categoryRepository, subcategoryRepository, productRepository, new ObjectMapper());
+
+        fruits = category("Fruits & Vegetables", 1);
+        dairy = category("Dairy & Bakery", 2);
+        snacks = category("Snacks", null);
+        freshFruits = subcategory(fruits, "Fresh Fruits", 2);
+        exoticFruits = subcategory(fruits, "Exotic Fruits", 1);
+
+        when(categoryRepository.findByIsActiveTrue()).thenReturn(List.of(snacks, dairy, fruits));
+        when(subcategoryRepository.findByIsActiveTrue()).thenReturn(List.of(freshFruits, exoticFruits));
+        when(productRepository.countByCategoryAndSubcategory()).thenReturn(List.of(
+                count(fruits, freshFruits, 3),
+                count(fruits, exoticFruits, 1),
+                count(fruits, null, 2),
+                count(snacks, null, 4)));
+    }
+
+    @Test
+    void tree_ShouldOrderByDisplayOrderAndCountProducts() {
+        List<CategoryTreeDto> tree = catalogTaxonomy.tree();
+
+        assertThat(tree).extracting(CategoryTreeDto::getName)
+                .containsExactly("Fruits & Vegetables", "Dairy & Bakery", "Snacks");
+        assertThat(tree.get(0).getProductCount()).isEqualTo(6);
+        assertThat(tree.get(0).getSubcategories()).extracting(CategoryTreeDto.SubcategoryNodeDto::getName)
+                .containsExactly("Exotic Fruits", "Fresh Fruits");
+        assertThat(tree.get(0).getSubcategories()).extracting(CategoryTreeDto.SubcategoryNodeDto::getProductCount)
+                .containsExactly(1L, 3L);
+        assertThat(tree.get(1).getProductCount()).isZero();
+        assertThat(tree.get(1).getSubcategories()).isEmpty();
+    }
+
+    @Test
+    void categoryNames_ShouldSkipCategoriesWithoutProducts() {
+        assertThat(catalogTaxonomy.categoryNames()).containsExactly("Fruits & Vegetables", "Snacks");
+    }
+
+    @Test
+    void categoryNamesJson_ShouldBeSerializedOnceWithStableETag() {
+        PreparedJson first = catalogTaxonomy.categoryNamesJson();
+        PreparedJson second = catalogTaxonomy.categoryNamesJson();
+
+        assertThat(new String(first.body(), StandardCharsets.UTF_8)).isEqualTo("[\"Fruits & Vegetables\",\"Snacks\"]");
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag()).startsWith("\"").endsWith("\"");
+        verify(productRepository, times(1)).countByCategoryAndSubcategory();
+    }
+
+    @Test
+    void onProductChanged_ShouldRebuildOnlyForCatalogChanges() {
+        catalogTaxonomy.categoryNames();
+
+        catalogTaxonomy.onProductChanged(ProductChangedEvent.stockAdjusted(UUID.randomUUID(), -1));
+        catalogTaxonomy.categoryNames();
+        verify(productRepository, times(1)).countByCategoryAndSubcategory();
+
+        ProductResponseDto product = new ProductResponseDto();
+        product.setId(UUID.randomUUID());
+        catalogTaxonomy.onProductChanged(ProductChangedEvent.upserted(product));
+        catalogTaxonomy.categoryNames();
+        verify(productRepository, times(2)).countByCategoryAndSubcategory();
+    }
+
+    @Test
+    void refresh_ShouldRebuildOnNextRead() {
+        String etagBefore = catalogTaxonomy.categoryNamesJson().etag();
+        when(productRepository.countByCategoryAndSubcategory()).thenReturn(List.of(count(dairy, null, 1)));
+
+        catalogTaxonomy.refresh();
+
+        assertThat(catalogTaxonomy.categoryNames()).containsExactly("Dairy & Bakery");
+        assertThat(catalogTaxonomy.categoryNamesJson().etag()).isNotEqualTo(etagBefore);
+    }
+
+    @Test
+    void onReferenceDataChanged_ShouldRebuildOnNextRead() {
+        catalogTaxonomy.categoryNames();
+        snacks.setName("Snacks & Branded Foods");
+
+        catalogTaxonomy.onReferenceDataChanged(new ReferenceDataChangedEvent());
+
+        assertThat(catalogTaxonomy.categoryNames()).containsExactly("Fruits & Vegetables", "Snacks & Branded Foods");
+    }
+
+    @Test
+    void tree_ShouldBeUnmodifiable() {
+        List<CategoryTreeDto> tree = catalogTaxonomy.tree();
+
+        assertThatThrownBy(() -> tree.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> tree.get(0).getSubcategories().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static Category category(String name, Integer displayOrder) {
+        Category category = new Category();
+        category.setId(UUID.randomUUID());
+        category.setName(name);
+        category.setDisplayOrder(displayOrder);
+        return category;
+    }
+
+    private static Subcategory subcategory(Category category, String name, Integer displayOrder) {
+        Subcategory subcategory = new Subcategory();
+        subcategory.setId(UUID.randomUUID());
+        subcategory.setName(name);
+        subcategory.setDisplayOrder(displayOrder);
+        subcategory.setCategory(category);
+        return subcategory;
+    }
+
+    private static ProductRepository.TaxonomyCount count(Category category, Subcategory subcategory, long productCount) {
+        return new ProductRepository.TaxonomyCount() {
+            @Override
+            public UUID getCategoryId() {
+                return category.getId();
+            }
+
+            @Override
+            public UUID getSubcategoryId() {
+                return subcategory != null ? subcategory.getId() : null;
+            }
+
+            @Override
+            public long getProductCount() {
+                return productCount;
+            }
+        };
+    }
+}
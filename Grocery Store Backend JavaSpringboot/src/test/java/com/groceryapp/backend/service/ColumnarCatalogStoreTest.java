@@ -0,0 +1,148 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductRequestDto;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.model.Brand;
+import com.groceryapp.backend.model.Subcategory;
+import com.groceryapp.backend.repository.BrandRepository;
+import com.groceryapp.backend.repository.SubcategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the columnar store answers browse requests exactly like the facet index, tags aside
+ */
+@SpringBootTest(properties = "app.catalog.columnar.enabled=true")
+class ColumnarCatalogStoreTest {
+
+    @Autowired
+    private ColumnarCatalogStore columnarCatalogStore;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private SubcategoryRepository subcategoryRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    private Subcategory subcategory;
+    private List<Brand> brands;
+    private final List<UUID> createdProducts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Other tests write products straight through the repository, which no index hears about
+        columnarCatalogStore.reload();
+        productFacetIndex.reload();
+        subcategory = subcategoryRepository.findAll().get(0);
+        brands = brandRepository.findAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        createdProducts.forEach(productService::deleteProduct);
+    }
+
+    @Test
+    void browse_ShouldMatchFacetIndex() {
+        assertSameResults(request(null, null, null, null, "price", "asc", 0, 5));
+        assertSameResults(request(categoryId(), null, null, null, "rating", null, 0, 50));
+        assertSameResults(request(null, new BigDecimal("20"), new BigDecimal("80.50"), true, "createdAt", null, 1, 3));
+
+        ProductBrowseRequest byBrand = request(null, null, null, null, "price", "desc", 0, 10);
+        byBrand.setBrandId(List.of(brands.get(0).getId(), brands.get(1).getId()));
+        byBrand.setMinRating(new BigDecimal("3.5"));
+        assertSameResults(byBrand);
+    }
+
+    @Test
+    void productEvents_ShouldKeepColumnsCurrent() {
+        int before = columnarCatalogStore.size();
+        ProductResponseDto created = productService.createProduct(productRequest(new BigDecimal("98765.43")));
+        createdProducts.add(created.getId());
+
+        ProductBrowseRequest expensive = request(null, new BigDecimal("98765.43"), null, true, "price", null, 0, 10);
+        assertThat(columnarCatalogStore.size()).isEqualTo(before + 1);
+        assertThat(ids(columnarCatalogStore.browse(expensive, 10))).containsExactly(created.getId());
+
+        productService.decreaseStock(created.getId(), 5);
+        assertThat(columnarCatalogStore.browse(expensive, 10).getTotal()).isZero();
+        assertThat(columnarCatalogStore.browse(expensive, 10).getFacets().getInStock()).isZero();
+
+        productService.deleteProduct(createdProducts.remove(0));
+        expensive.setInStock(null);
+        assertThat(columnarCatalogStore.browse(expensive, 10).getTotal()).isZero();
+        assertThat(columnarCatalogStore.size()).isEqualTo(before);
+    }
+
+    private void assertSameResults(ProductBrowseRequest request) {
+        ProductBrowseDto fromColumns = columnarCatalogStore.browse(request, request.getSize());
+        ProductBrowseDto fromBitsets = productFacetIndex.browse(request, request.getSize());
+
+        assertThat(ids(fromColumns)).isEqualTo(ids(fromBitsets));
+        assertThat(fromColumns.getItems()).extracting(ProductResponseDto::getCategoryName).doesNotContainNull();
+        assertThat(fromColumns.getTotal()).isEqualTo(fromBitsets.getTotal());
+        assertThat(fromColumns.isHasNext()).isEqualTo(fromBitsets.isHasNext());
+
+        ProductBrowseDto.Facets columnFacets = fromColumns.getFacets();
+        ProductBrowseDto.Facets bitsetFacets = fromBitsets.getFacets();
+        assertThat(columnFacets.getCategories()).isEqualTo(bitsetFacets.getCategories());
+        assertThat(columnFacets.getSubcategories()).isEqualTo(bitsetFacets.getSubcategories());
+        assertThat(columnFacets.getBrands()).isEqualTo(bitsetFacets.getBrands());
+        assertThat(columnFacets.getPriceBands()).isEqualTo(bitsetFacets.getPriceBands());
+        assertThat(columnFacets.getRatings()).isEqualTo(bitsetFacets.getRatings());
+        assertThat(columnFacets.getDiscounts()).isEqualTo(bitsetFacets.getDiscounts());
+        assertThat(columnFacets.getInStock()).isEqualTo(bitsetFacets.getInStock());
+    }
+
+    private UUID categoryId() {
+        // getId() on the lazy proxy does not need a session
+        return subcategory.getCategory().getId();
+    }
+
+    private static List<UUID> ids(ProductBrowseDto browse) {
+        return browse.getItems().stream().map(ProductResponseDto::getId).toList();
+    }
+
+    private static ProductBrowseRequest request(UUID categoryId, BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                                                String sortBy, String direction, int page, int size) {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setCategoryId(categoryId);
+        request.setMinPrice(minPrice);
+        request.setMaxPrice(maxPrice);
+        request.setInStock(inStock);
+        request.setSortBy(sortBy);
+        request.setDirection(direction);
+        request.setPage(page);
+        request.setSize(size);
+        return request;
+    }
+
+    private ProductRequestDto productRequest(BigDecimal price) {
+        ProductRequestDto request = new ProductRequestDto();
+        request.setName("Columnar Test Product");
+        request.setPrice(price);
+        request.setCategoryId(categoryId());
+        request.setSubcategoryId(subcategory.getId());
+        request.setBrandId(brands.get(0).getId());
+        request.setStock(5);
+        return request;
+    }
+}
@@ -0,0 +1,45 @@
+package com.groceryapp.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void next_ShouldSplitPlainAndQuotedFields() throws Exception {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,\"b,c\",\"say \"\"hi\"\"\",\r\nx,y,z,\n"));
+
+        assertThat(reader.next()).containsExactly("a", "b,c", "say \"hi\"", "");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        assertThat(reader.next()).containsExactly("x", "y", "z", "");
+        assertThat(reader.recordLine()).isEqualTo(2);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void next_ShouldKeepLineBreaksInsideQuotesAndSkipBlankLines() throws Exception {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"one\ntwo\",3\n\n\nlast"));
+
+        assertThat(reader.next()).containsExactly("one\ntwo", "3");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        assertThat(reader.next()).isEqualTo(List.of("last"));
+        assertThat(reader.recordLine()).isEqualTo(5);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void next_WithUnterminatedQuote_ShouldThrow() throws Exception {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("ok\n\"never closed,1\n"));
+
+        assertThat(reader.next()).containsExactly("ok");
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated quoted field");
+        assertThat(reader.recordLine()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,265 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.UpdateCartItemRequestDto;
+import com.groceryapp.backend.exception.CartItemNotFoundException;
+import com.groceryapp.backend.model.Cart;
+import com.groceryapp.backend.model.CartItem;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.CartItemRepository;
+import com.groceryapp.backend.repository.CartRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks when quantity edits held in memory reach the test database
+ * One stripe holding one cart, so a second cart evicts the first; the scheduled flush never fires.
+ * Two pooled connections that time out quickly, so a request needing a second one fails the test.
+ */
+@SpringBootTest(properties = {
+        "app.cart.hot.enabled=true",
+        "app.cart.hot.max-carts=1",
+        "app.cart.hot.stripes=1",
+        "app.cart.hot.flush-interval-ms=3600000",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=2000"
+})
+class HotCartStoreTest {
+
+    private static final ObjIntConsumer<CartItem> NO_CHECK = (item, quantity) -> { };
+    private static final int EDITORS = 8;
+
+    @Autowired
+    private HotCartStore hotCartStore;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Cart> carts = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        carts.forEach(cart -> hotCartStore.evict(cart.getUserId()));
+        carts.forEach(cart -> cartRepository.deleteById(cart.getId()));
+    }
+
+    @Test
+    void updateQuantity_ShouldCoalesceEditsUntilFlush() {
+        Cart cart = saveCart("56.00", "60.00");
+        UUID itemId = cart.getItems().get(0).getId();
+
+        hotCartStore.updateQuantity(cart.getUserId(), itemId, 3, NO_CHECK);
+        hotCartStore.updateQuantity(null, itemId, 4, NO_CHECK);
+        Cart edited = hotCartStore.updateQuantity(cart.getUserId(), itemId, 5, NO_CHECK);
+
+        assertThat(edited.getItemCount()).isEqualTo(5);
+        assertThat(edited.getSubtotal()).isEqualByComparingTo("280.00");
+        assertThat(hotCartStore.get(cart.getUserId()).orElseThrow().getSavings()).isEqualByComparingTo("20.00");
+        // Nothing written yet
+        assertThat(quantityOf(itemId)).isEqualTo(1);
+
+        assertThat(hotCartStore.flush()).isEqualTo(1);
+
+        Cart stored = cartRepository.findById(cart.getId()).orElseThrow();
+        assertThat(quantityOf(itemId)).isEqualTo(5);
+        assertThat(stored.getItemCount()).isEqualTo(5);
+        assertThat(stored.getSubtotal()).isEqualByComparingTo("280.00");
+        assertThat(stored.getSavings()).isEqualByComparingTo("20.00");
+        assertThat(hotCartStore.flush()).isZero();
+    }
+
+    @Test
+    void updateQuantity_WhenStoreIsFull_ShouldWriteBackTheLeastRecentlyUsedCart() {
+        Cart first = saveCart("10.00", null);
+        Cart second = saveCart("20.00", null);
+        UUID firstItemId = first.getItems().get(0).getId();
+
+        hotCartStore.updateQuantity(first.getUserId(), firstItemId, 7, NO_CHECK);
+        hotCartStore.updateQuantity(second.getUserId(), second.getItems().get(0).getId(), 2, NO_CHECK);
+
+        assertThat(hotCartStore.size()).isEqualTo(1);
+        assertThat(hotCartStore.get(first.getUserId())).isEmpty();
+        assertThat(quantityOf(firstItemId)).isEqualTo(7);
+        assertThat(cartRepository.findById(first.getId()).orElseThrow().getSubtotal()).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void evictAndShutdown_ShouldWriteBackDirtyCarts() {
+        Cart cart = saveCart("10.00", null);
+        UUID itemId = cart.getItems().get(0).getId();
+
+        hotCartStore.updateQuantity(cart.getUserId(), itemId, 3, NO_CHECK);
+        hotCartStore.evictOwnerOf(itemId);
+        assertThat(quantityOf(itemId)).isEqualTo(3);
+        assertThat(hotCartStore.size()).isZero();
+
+        hotCartStore.updateQuantity(cart.getUserId(), itemId, 6, NO_CHECK);
+        hotCartStore.flushOnShutdown();
+        assertThat(quantityOf(itemId)).isEqualTo(6);
+    }
+
+    @Test
+    void updateQuantity_WhenCheckFailsOrOwnerDiffers_ShouldChangeNothing() {
+        Cart cart = saveCart("10.00", null);
+        UUID itemId = cart.getItems().get(0).getId();
+
+        assertThatThrownBy(() -> hotCartStore.updateQuantity(cart.getUserId(), itemId, 9, (item, quantity) -> {
+            throw new IllegalStateException("out of stock");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> hotCartStore.updateQuantity(UUID.randomUUID(), itemId, 2, NO_CHECK))
+                .isInstanceOf(CartItemNotFoundException.class);
+        assertThatThrownBy(() -> hotCartStore.updateQuantity(null, UUID.randomUUID(), 2, NO_CHECK))
+                .isInstanceOf(CartItemNotFoundException.class);
+
+        assertThat(hotCartStore.get(cart.getUserId()).orElseThrow().getItemCount()).isEqualTo(1);
+        assertThat(hotCartStore.flush()).isZero();
+    }
+
+    @Test
+    void updateQuantity_WhenLineWasAddedAfterCartWasLoaded_ShouldReloadAndKeepHeldEdits() {
+        Cart cart = saveCart("10.00", null);
+        UUID firstItemId = cart.getItems().get(0).getId();
+        hotCartStore.updateQuantity(cart.getUserId(), firstItemId, 3, NO_CHECK);
+        // Added in the database behind the held copy, as addItemToCart racing the load would
+        CartItem added = new TransactionTemplate(transactionManager).execute(status -> {
+            Cart current = cartRepository.findById(cart.getId()).orElseThrow();
+            CartItem line = cartItemRepository.save(new CartItem(current, UUID.randomUUID(), 1, new BigDecimal("20.00")));
+            current.addItem(line);
+            return line;
+        });
+
+        Cart edited = hotCartStore.updateQuantity(cart.getUserId(), added.getId(), 4, NO_CHECK);
+
+        assertThat(edited.getItemCount()).isEqualTo(7);
+        assertThat(edited.getSubtotal()).isEqualByComparingTo("110.00");
+        hotCartStore.flush();
+        Cart stored = cartRepository.findById(cart.getId()).orElseThrow();
+        assertThat(quantityOf(firstItemId)).isEqualTo(3);
+        assertThat(quantityOf(added.getId())).isEqualTo(4);
+        assertThat(stored.getItemCount()).isEqualTo(7);
+        assertThat(stored.getSubtotal()).isEqualByComparingTo("110.00");
+    }
+
+    @Test
+    void flush_WhenCheckoutEmptiedTheCartAfterItWasLoaded_ShouldNotRestoreItsTotals() {
+        Cart cart = saveCart("10.00", null);
+        UUID itemId = cart.getItems().get(0).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Cart locked = cartService.getCartForCheckout(cart.getUserId());
+            // A tap from another request landing between checkout's write-back and its commit
+            CompletableFuture.runAsync(() -> hotCartStore.updateQuantity(cart.getUserId(), itemId, 4, NO_CHECK)).join();
+            cartService.emptyCart(locked);
+        });
+        hotCartStore.flush();
+
+        Cart stored = cartRepository.findById(cart.getId()).orElseThrow();
+        assertThat(cartItemRepository.findById(itemId)).isEmpty();
+        assertThat(stored.getItemCount()).isZero();
+        assertThat(stored.getSubtotal()).isEqualByComparingTo("0");
+        assertThat(hotCartStore.get(cart.getUserId())).isEmpty();
+    }
+
+    @Test
+    void evict_WhenTheCallersTransactionRollsBack_ShouldHoldTheEditsAgain() {
+        Cart cart = saveCart("10.00", null);
+        UUID itemId = cart.getItems().get(0).getId();
+        hotCartStore.updateQuantity(cart.getUserId(), itemId, 3, NO_CHECK);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            hotCartStore.evict(cart.getUserId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(quantityOf(itemId)).isEqualTo(1);
+        assertThat(hotCartStore.get(cart.getUserId()).orElseThrow().getItemCount()).isEqualTo(3);
+        assertThat(hotCartStore.flush()).isEqualTo(1);
+        assertThat(quantityOf(itemId)).isEqualTo(3);
+        assertThat(cartRepository.findById(cart.getId()).orElseThrow().getSubtotal()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void updateCartItem_MoreConcurrentEditorsThanPooledConnections_ShouldAllComplete() throws Exception {
+        Product product = productRepository.findAll().stream()
+                .filter(candidate -> candidate.getStock() >= 5)
+                .findFirst().orElseThrow();
+        List<Cart> edited = new ArrayList<>();
+        for (int i = 0; i < EDITORS; i++) {
+            edited.add(saveCart(product.getId(), "10.00", null));
+        }
+
+        // Every edit evicts another editor's cart, so each request writes one back while holding its connection
+        ExecutorService executor = Executors.newFixedThreadPool(EDITORS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Cart cart : edited) {
+                results.add(executor.submit(() -> {
+                    for (int quantity = 2; quantity <= 5; quantity++) {
+                        UpdateCartItemRequestDto request = new UpdateCartItemRequestDto();
+                        request.setQuantity(quantity);
+                        cartService.updateCartItem(cart.getUserId(), cart.getItems().get(0).getId(), request);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        hotCartStore.flush();
+        for (Cart cart : edited) {
+            assertThat(quantityOf(cart.getItems().get(0).getId())).isEqualTo(5);
+        }
+    }
+
+    private Cart saveCart(String price, String mrp) {
+        return saveCart(UUID.randomUUID(), price, mrp);
+    }
+
+    private Cart saveCart(UUID productId, String price, String mrp) {
+        Cart cart = new Cart();
+        cart.setUserId(UUID.randomUUID());
+        CartItem item = new CartItem(cart, productId, 1, new BigDecimal(price));
+        item.setMrpAtAdd(mrp == null ? null : new BigDecimal(mrp));
+        cart.addItem(item);
+        cart = cartRepository.save(cart);
+        carts.add(cart);
+        return cart;
+    }
+
+    private int quantityOf(UUID itemId) {
+        return cartItemRepository.findById(itemId).orElseThrow().getQuantity();
+    }
+}
@@ -0,0 +1,198 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.exception.InsufficientStockException;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.InventoryJournalRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import com.groceryapp.backend.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs stock changes through the in-memory ledger and checks what reaches the database
+ * The scheduled flush is pushed out so each test decides when the journal is applied.
+ */
+@SpringBootTest(properties = {
+        "app.inventory.ledger.enabled=true",
+        "app.inventory.ledger.flush-interval-ms=3600000"
+})
+class InventoryLedgerTest {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 200;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryJournalRepository journalRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setName("Flash Sale Product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory(categoryRepository.findAll().get(0));
+        product.setStock(INITIAL_STOCK);
+        product.setIsAvailable(true);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        while (inventoryLedger.flush() > 0) {
+            // apply everything the test left behind
+        }
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void decreaseStock_UnderConcurrentCheckouts_ShouldSellExactlyTheStockAndFlushIt() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            try {
+                productService.decreaseStock(product.getId(), 1);
+                sold.incrementAndGet();
+            } catch (InsufficientStockException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(sold.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(ATTEMPTS - INITIAL_STOCK);
+        assertThat(inventoryLedger.available(product.getId())).hasValue(0);
+        // Nothing reaches the product row until the flush
+        assertThat(stockOf(product)).isEqualTo(INITIAL_STOCK);
+
+        assertThat(inventoryLedger.flush()).isEqualTo(INITIAL_STOCK);
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getStock()).isZero();
+        assertThat(reloaded.getIsAvailable()).isFalse();
+        assertThat(journalRepository.count()).isZero();
+    }
+
+    @Test
+    void decreaseStock_WhenTransactionRollsBack_ShouldGiveStockBack() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.decreaseStock(product.getId(), 5);
+            status.setRollbackOnly();
+        });
+
+        assertThat(inventoryLedger.available(product.getId())).hasValue(INITIAL_STOCK);
+        assertThat(journalRepository.sumPendingDelta(product.getId())).isZero();
+    }
+
+    @Test
+    void reserve_AfterRestart_ShouldRebuildCounterFromStockAndUnflushedJournal() {
+        productService.decreaseStock(product.getId(), 5);
+        productService.increaseStock(product.getId(), 2);
+
+        // A fresh ledger stands in for the next process start, before anything was flushed
+        InventoryLedger restarted = new InventoryLedger(productRepository, journalRepository, transactionManager, true);
+        List<StockReservationRepository.Shortage> shortages = new TransactionTemplate(transactionManager)
+                .execute(status -> restarted.reserve(Map.of(product.getId(), INITIAL_STOCK)));
+
+        assertThat(shortages).singleElement()
+                .satisfies(shortage -> assertThat(shortage.available()).isEqualTo(INITIAL_STOCK - 3));
+
+        restarted.recover();
+        assertThat(stockOf(product)).isEqualTo(INITIAL_STOCK - 3);
+        assertThat(journalRepository.sumPendingDelta(product.getId())).isZero();
+    }
+
+    @Test
+    void reserve_WhenProductWasLoadedBeforeAFlush_ShouldSeedCounterFromStoredStock() {
+        InventoryLedger restarted = new InventoryLedger(productRepository, journalRepository, transactionManager, true);
+
+        List<StockReservationRepository.Shortage> shortages = new TransactionTemplate(transactionManager).execute(status -> {
+            // This transaction now holds the product with the stock from before the flush below
+            productRepository.findById(product.getId()).orElseThrow();
+            try {
+                CompletableFuture.runAsync(() -> {
+                    productService.decreaseStock(product.getId(), 5);
+                    inventoryLedger.flush();
+                }).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+            return restarted.reserve(Map.of(product.getId(), INITIAL_STOCK));
+        });
+
+        assertThat(shortages).singleElement()
+                .satisfies(shortage -> assertThat(shortage.available()).isEqualTo(INITIAL_STOCK - 5));
+    }
+
+    @Test
+    void updateProductStock_ShouldReplaceLedgerCounter() {
+        productService.decreaseStock(product.getId(), 10);
+
+        Product edited = productRepository.findById(product.getId()).orElseThrow();
+        edited.setStock(7);
+        productService.updateProductStock(edited);
+
+        assertThat(inventoryLedger.available(product.getId())).isEmpty();
+        assertThatThrownBy(() -> productService.decreaseStock(product.getId(), 8))
+                .isInstanceOf(InsufficientStockException.class);
+        productService.decreaseStock(product.getId(), 7);
+        assertThat(inventoryLedger.available(product.getId())).hasValue(0);
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.groceryapp.backend.service;
 
+import com.groceryapp.backend.dto.CheckoutRequestDto;
 import com.groceryapp.backend.dto.CreateOrderRequestDto;
 import com.groceryapp.backend.dto.OrderResponseDto;
+import com.groceryapp.backend.dto.ReorderResponseDto;
 import com.groceryapp.backend.exception.AddressNotFoundException;
 import com.groceryapp.backend.exception.InsufficientStockException;
 import com.groceryapp.backend.exception.OrderNotFoundException;
+import com.groceryapp.backend.exception.ProductNotFoundException;
 import com.groceryapp.backend.model.Address;
+import com.groceryapp.backend.model.Cart;
+import com.groceryapp.backend.model.CartItem;
 import com.groceryapp.backend.model.Order;
+import com.groceryapp.backend.model.OrderItem;
 import com.groceryapp.backend.model.Product;
 import com.groceryapp.backend.repository.AddressRepository;
 import com.groceryapp.backend.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,12 +28,15 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +51,9 @@ class OrderServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private CartService cartService;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -100,9 +113,8 @@ class OrderServiceTest {
     void createOrder_WithValidData_ShouldCreateOrder() {
         // Arrange
         when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
-        when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-        doNothing().when(productService).updateProductStock(any(Product.class));
 
         // Act
         OrderResponseDto result = orderService.createOrder(requestDto);
@@ -111,7 +123,7 @@ class OrderServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getOrderNumber()).isNotNull();
         verify(orderRepository, times(1)).save(any(Order.class));
-        verify(productService, times(1)).updateProductStock(any(Product.class));
+        verify(productService, times(1)).reserveStock(Map.of(productId, 2));
     }
 
     @Test
@@ -142,11 +154,14 @@ class OrderServiceTest {
         // Arrange
         testProduct.setStock(1); // Less than requested quantity
         when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
-        when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+        doThrow(new InsufficientStockException("Insufficient stock for 1 product(s)", List.of(productId)))
+                .when(productService).reserveStock(Map.of(productId, 2));
 
         // Act & Assert
         assertThatThrownBy(() -> orderService.createOrder(requestDto))
-                .isInstanceOf(InsufficientStockException.class);
+                .isInstanceOf(InsufficientStockException.class)
+                .satisfies(ex -> assertThat(((InsufficientStockException) ex).getShortProductIds()).containsExactly(productId));
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -155,13 +170,12 @@ class OrderServiceTest {
         // Arrange
         requestDto.setPaymentMethod("credit_card");
         when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
-        when(productService.getProductEntityById(productId)).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             assertThat(order.getPaymentMethod()).isEqualTo("CREDIT_CARD");
             return testOrder;
         });
-        doNothing().when(productService).updateProductStock(any(Product.class));
 
         // Act
         OrderResponseDto result = orderService.createOrder(requestDto);
@@ -302,7 +316,7 @@ class OrderServiceTest {
         // Arrange
         requestDto.setPaymentMethod("cod");
         when(addressRepository.findById(any(UUID.class))).thenReturn(Optional.of(testAddress));
-        when(productService.getProductEntityById(any(UUID.class))).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(orderId);
@@ -324,7 +338,7 @@ class OrderServiceTest {
         // Arrange
         requestDto.setPaymentMethod("online");
         when(addressRepository.findById(any(UUID.class))).thenReturn(Optional.of(testAddress));
-        when(productService.getProductEntityById(any(UUID.class))).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(orderId);
@@ -346,7 +360,7 @@ class OrderServiceTest {
         // Arrange
         testAddress.setAddressLine2(null);
         when(addressRepository.findById(any(UUID.class))).thenReturn(Optional.of(testAddress));
-        when(productService.getProductEntityById(any(UUID.class))).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(orderId);
@@ -367,7 +381,7 @@ class OrderServiceTest {
         // Arrange
         testAddress.setAddressLine2("Apt 101");
         when(addressRepository.findById(any(UUID.class))).thenReturn(Optional.of(testAddress));
-        when(productService.getProductEntityById(any(UUID.class))).thenReturn(testProduct);
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(orderId);
@@ -440,5 +454,166 @@ class OrderServiceTest {
                 .hasMessageContaining("Cannot cancel order with status: CANCELLED");
         verify(orderRepository, never()).save(any(Order.class));
     }
-}
 
+    @Test
+    void createOrder_WithSeveralItems_ShouldLoadProductsInOneCall() {
+        // Arrange
+        Product otherProduct = new Product();
+        otherProduct.setId(UUID.randomUUID());
+        otherProduct.setName("Other Product");
+        otherProduct.setPrice(BigDecimal.valueOf(10.00));
+        otherProduct.setStock(5);
+
+        CreateOrderRequestDto.OrderItemDto otherItem = new CreateOrderRequestDto.OrderItemDto();
+        otherItem.setProductId(otherProduct.getId());
+        otherItem.setQuantity(3);
+        requestDto.setItems(Arrays.asList(requestDto.getItems().get(0), otherItem));
+
+        when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
+        when(productService.getProductEntitiesByIds(anyCollection()))
+                .thenReturn(Map.of(productId, testProduct, otherProduct.getId(), otherProduct));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderResponseDto result = orderService.createOrder(requestDto);
+
+        // Assert
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(result.getTotalAmount()).isEqualByComparingTo("80.00");
+        verify(productService, times(1)).reserveStock(Map.of(productId, 2, otherProduct.getId(), 3));
+        verify(productService, never()).decreaseStock(any(), anyInt());
+        verify(productService, times(1)).getProductEntitiesByIds(anyCollection());
+        verify(productService, never()).getProductEntityById(any());
+    }
+
+    @Test
+    void createOrder_WithUnknownProduct_ShouldThrowException() {
+        // Arrange
+        when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.createOrder(requestDto))
+                .isInstanceOf(ProductNotFoundException.class);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void cancelOrder_WithItems_ShouldRestoreStockAtomically() {
+        // Arrange
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(4);
+        testOrder.addItem(item);
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        // Act
+        orderService.cancelOrder(orderId);
+
+        // Assert
+        verify(productService, times(1)).increaseStock(productId, 4);
+        verify(productService, never()).updateProductStock(any(Product.class));
+    }
+
+    @Test
+    void checkout_ShouldBuildOrderFromCartReserveStockAndEmptyCart() {
+        // Arrange: the cart was filled at 20.00, the product now costs 25.00
+        Cart cart = new Cart();
+        cart.setUserId(userId);
+        cart.addItem(new CartItem(cart, productId, 3, BigDecimal.valueOf(20.00)));
+        CheckoutRequestDto checkoutRequest = new CheckoutRequestDto(userId, "upi", addressId);
+
+        when(cartService.getCartForCheckout(userId)).thenReturn(cart);
+        when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderResponseDto result = orderService.checkout(checkoutRequest);
+
+        // Assert
+        assertThat(result.getPaymentMethod()).isEqualTo("UPI");
+        assertThat(result.getTotalAmount()).isEqualByComparingTo("75.00");
+        assertThat(result.getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(3));
+        InOrder inOrder = inOrder(productService, orderRepository, cartService);
+        inOrder.verify(productService).reserveStock(Map.of(productId, 3));
+        inOrder.verify(orderRepository).save(any(Order.class));
+        inOrder.verify(cartService).emptyCart(cart);
+        verify(productService, never()).getProductEntityById(any());
+    }
+
+    @Test
+    void checkout_WhenStockIsShort_ShouldLeaveCartAlone() {
+        // Arrange
+        Cart cart = new Cart();
+        cart.setUserId(userId);
+        cart.addItem(new CartItem(cart, productId, 500, BigDecimal.valueOf(25.00)));
+        CheckoutRequestDto checkoutRequest = new CheckoutRequestDto(userId, "COD", addressId);
+
+        when(cartService.getCartForCheckout(userId)).thenReturn(cart);
+        when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+        doThrow(new InsufficientStockException("Test Product", 500, 100))
+                .when(productService).reserveStock(Map.of(productId, 500));
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.checkout(checkoutRequest))
+                .isInstanceOf(InsufficientStockException.class);
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(cartService, never()).emptyCart(any());
+    }
+
+    @Test
+    void reorder_ShouldCopyOrderLinesIntoTheUsersCart() {
+        // Arrange
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(2);
+        testOrder.addItem(item);
+        ReorderResponseDto reorder = new ReorderResponseDto();
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(cartService.addOrderToCart(userId, testOrder.getItems())).thenReturn(reorder);
+
+        // Act
+        ReorderResponseDto result = orderService.reorder(orderId);
+
+        // Assert
+        assertThat(result).isSameAs(reorder);
+        verify(productService, never()).getProductEntityById(any());
+    }
+
+    @Test
+    void reorder_WhenOrderMissing_ShouldThrowException() {
+        // Arrange
+        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.reorder(orderId))
+                .isInstanceOf(OrderNotFoundException.class);
+        verifyNoInteractions(cartService);
+    }
+
+    @Test
+    void createOrder_WithRepeatedProduct_ShouldReserveCombinedQuantity() {
+        // Arrange
+        CreateOrderRequestDto.OrderItemDto repeated = new CreateOrderRequestDto.OrderItemDto();
+        repeated.setProductId(productId);
+        repeated.setQuantity(3);
+        requestDto.setItems(Arrays.asList(requestDto.getItems().get(0), repeated));
+
+        when(addressRepository.findById(addressId)).thenReturn(Optional.of(testAddress));
+        when(productService.getProductEntitiesByIds(anyCollection())).thenReturn(Map.of(productId, testProduct));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderResponseDto result = orderService.createOrder(requestDto);
+
+        // Assert
+        assertThat(result.getItems()).hasSize(2);
+        verify(productService, times(1)).reserveStock(Map.of(productId, 5));
+    }
+}
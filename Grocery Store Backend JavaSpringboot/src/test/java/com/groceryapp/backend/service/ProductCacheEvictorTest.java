@@ -0,0 +1,183 @@
+package com.groceryapp.backend.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.groceryapp.backend.config.CacheConfig;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks product reads are served from the caches and every product write evicts them
+ */
+@SpringBootTest
+class ProductCacheEvictorTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setName("Cached Product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory(categoryRepository.findAll().get(0));
+        product.setStock(20);
+        product.setIsAvailable(true);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (productRepository.existsById(product.getId())) {
+            productRepository.deleteById(product.getId());
+        }
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void getProductById_CalledTwice_ShouldServeSecondCallFromCache() {
+        long hitsBefore = statsOf(CacheConfig.PRODUCT_DTOS).hitCount();
+
+        ProductResponseDto first = productService.getProductById(product.getId());
+        ProductResponseDto second = productService.getProductById(product.getId());
+
+        assertThat(second).isSameAs(first);
+        assertThat(statsOf(CacheConfig.PRODUCT_DTOS).hitCount()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void getProductEntityById_ShouldGiveEveryCallerItsOwnCopy() {
+        Product first = productService.getProductEntityById(product.getId());
+        first.setStock(0);
+
+        Product second = productService.getProductEntityById(product.getId());
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getStock()).isEqualTo(20);
+    }
+
+    @Test
+    void put_AfterAnEvictionSinceTheMiss_ShouldNotKeepTheLoadedValue() {
+        Cache cache = cache(CacheConfig.PRODUCTS);
+        Product loadedBeforeCommit = productRepository.findById(product.getId()).orElseThrow();
+
+        assertThat(cache.get(product.getId())).isNull();
+        // The writer commits and evicts while the reader is still loading
+        cache.evict(product.getId());
+        cache.put(product.getId(), loadedBeforeCommit);
+
+        assertThat(cache.get(product.getId())).isNull();
+        cache.put(product.getId(), loadedBeforeCommit);
+        assertThat(cache.get(product.getId())).isNotNull();
+    }
+
+    @Test
+    void decreaseAndIncreaseStock_ShouldEvictBothCaches() {
+        warmCaches();
+        productService.decreaseStock(product.getId(), 5);
+        assertEvicted();
+        assertThat(productService.getProductById(product.getId()).getStock()).isEqualTo(15);
+        assertThat(productService.getProductEntityById(product.getId()).getStock()).isEqualTo(15);
+
+        warmCaches();
+        productService.increaseStock(product.getId(), 2);
+        assertEvicted();
+        assertThat(productService.getProductById(product.getId()).getStock()).isEqualTo(17);
+    }
+
+    @Test
+    void updateProductStock_ShouldEvictBothCaches() {
+        warmCaches();
+
+        Product edited = productRepository.findById(product.getId()).orElseThrow();
+        edited.setStock(3);
+        productService.updateProductStock(edited);
+
+        assertEvicted();
+        assertThat(productService.getProductEntityById(product.getId()).getStock()).isEqualTo(3);
+    }
+
+    @Test
+    void deleteProduct_ShouldEvictBothCaches() {
+        warmCaches();
+
+        productService.deleteProduct(product.getId());
+
+        assertEvicted();
+    }
+
+    @Test
+    void categoryRename_ShouldClearBothCaches() {
+        warmCaches();
+        Category category = categoryRepository.findById(product.getCategory().getId()).orElseThrow();
+        String originalName = category.getName();
+
+        try {
+            category.setName(originalName + " Renamed");
+            categoryRepository.save(category);
+
+            assertEvicted();
+            assertThat(productService.getProductById(product.getId()).getCategoryName()).isEqualTo(originalName + " Renamed");
+        } finally {
+            category.setName(originalName);
+            categoryRepository.save(category);
+        }
+    }
+
+    @Test
+    void caches_ShouldExportMetrics() {
+        productService.getProductById(product.getId());
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", CacheConfig.PRODUCT_DTOS).functionCounters()).isNotEmpty();
+        assertThat(meterRegistry.find("cache.size").tag("cache", CacheConfig.PRODUCTS).gauge()).isNotNull();
+    }
+
+    private void warmCaches() {
+        productService.getProductById(product.getId());
+        productService.getProductEntityById(product.getId());
+        assertThat(cache(CacheConfig.PRODUCT_DTOS).get(product.getId())).isNotNull();
+        assertThat(cache(CacheConfig.PRODUCTS).get(product.getId())).isNotNull();
+    }
+
+    private void assertEvicted() {
+        assertThat(cache(CacheConfig.PRODUCT_DTOS).get(product.getId())).isNull();
+        assertThat(cache(CacheConfig.PRODUCTS).get(product.getId())).isNull();
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private CacheStats statsOf(String name) {
+        return ((CaffeineCache) cache(name)).getNativeCache().stats();
+    }
+}
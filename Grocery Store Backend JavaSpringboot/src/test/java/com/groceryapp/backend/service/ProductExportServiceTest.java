@@ -0,0 +1,92 @@
+package com.groceryapp.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports the seeded catalog through the database cursor and reads the NDJSON back
+ */
+@SpringBootTest
+class ProductExportServiceTest {
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product added;
+
+    @AfterEach
+    void tearDown() {
+        if (added != null) {
+            productRepository.deleteById(added.getId());
+        }
+    }
+
+    @Test
+    void exportNdjson_ShouldWriteOneProductPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = productExportService.exportNdjson(null, out);
+
+        List<JsonNode> lines = parse(out);
+        assertThat(written).isEqualTo(productRepository.count());
+        assertThat(lines).hasSize((int) written);
+        assertThat(lines).allSatisfy(line -> {
+            assertThat(line.get("id").asText()).isNotBlank();
+            assertThat(line.get("categoryName").asText()).isNotBlank();
+        });
+    }
+
+    @Test
+    void exportNdjson_WithUpdatedSince_ShouldOnlyWriteNewerProducts() throws Exception {
+        Instant since = Instant.now();
+        Thread.sleep(5);
+        added = new Product();
+        added.setName("Freshly Synced Product");
+        added.setPrice(new BigDecimal("4.00"));
+        added.setCategory(categoryRepository.findAll().get(0));
+        added.setStock(3);
+        added = productRepository.save(added);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = productExportService.exportNdjson(since, out);
+
+        assertThat(written).isEqualTo(1);
+        assertThat(parse(out)).singleElement()
+                .satisfies(line -> assertThat(line.get("name").asText()).isEqualTo("Freshly Synced Product"));
+    }
+
+    private List<JsonNode> parse(ByteArrayOutputStream out) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
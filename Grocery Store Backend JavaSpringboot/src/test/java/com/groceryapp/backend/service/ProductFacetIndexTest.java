@@ -0,0 +1,227 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseDto.Bucket;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+class ProductFacetIndexTest {
+
+    private final UUID dairy = UUID.randomUUID();
+    private final UUID fruits = UUID.randomUUID();
+    private final UUID amul = UUID.randomUUID();
+    private final UUID britannia = UUID.randomUUID();
+
+    private ProductFacetIndex facetIndex;
+    private ProductResponseDto butter;
+    private ProductResponseDto milk;
+    private ProductResponseDto cake;
+    private ProductResponseDto apple;
+
+    @BeforeEach
+    void setUp() {
+        facetIndex = new ProductFacetIndex(null, new ProductMapper(mock(ReferenceDataRegistry.class)));
+
+        butter = product("Amul Butter", dairy, "Dairy & Bakery", amul, "Amul", "56.00", "4.5", "10", 20, "spread");
+        milk = product("Amul Taaza Milk", dairy, "Dairy & Bakery", amul, "Amul", "28.00", "4.2", null, 0, "milk", "daily");
+        cake = product("Britannia Cake", dairy, "Dairy & Bakery", britannia, "Britannia", "120.00", "3.8", "25", 5, "daily");
+        apple = product("Royal Gala Apple", fruits, "Fruits & Vegetables", null, null, "180.00", null, "50", 12, "organic");
+
+        facetIndex.rebuild(List.of(butter, milk, cake, apple));
+    }
+
+    @Test
+    void browse_WithoutFilters_ShouldReturnEverythingWithFacets() {
+        ProductBrowseDto result = facetIndex.browse(new ProductBrowseRequest(), 10);
+
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getFacets().getCategories())
+                .extracting(Bucket::label, Bucket::count)
+                .containsExactly(tuple("Dairy & Bakery", 3L), tuple("Fruits & Vegetables", 1L));
+        assertThat(result.getFacets().getPriceBands())
+                .extracting(Bucket::value, Bucket::count)
+                .containsExactly(tuple("0-50", 1L), tuple("50-100", 1L), tuple("100-200", 2L));
+        assertThat(result.getFacets().getInStock()).isEqualTo(3);
+        assertThat(result.getFacets().getTags()).first().isEqualTo(new Bucket("daily", "daily", 2));
+    }
+
+    @Test
+    void browse_ShouldCombineFiltersAndKeepAlternativesInOwnFacet() {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setCategoryId(dairy);
+        request.setBrandId(List.of(amul));
+
+        ProductBrowseDto result = facetIndex.browse(request, 10);
+
+        assertThat(result.getItems()).extracting(ProductResponseDto::getName)
+                .containsExactlyInAnyOrder("Amul Butter", "Amul Taaza Milk");
+        // Brand counts ignore the brand filter so the other brands stay selectable
+        assertThat(result.getFacets().getBrands())
+                .extracting(Bucket::label, Bucket::count)
+                .containsExactly(tuple("Amul", 2L), tuple("Britannia", 1L));
+        assertThat(result.getFacets().getCategories())
+                .extracting(Bucket::label, Bucket::count)
+                .containsExactly(tuple("Dairy & Bakery", 2L));
+    }
+
+    @Test
+    void browse_WithSeveralBrands_ShouldMatchAny() {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setBrandId(List.of(amul, britannia));
+
+        assertThat(facetIndex.browse(request, 10).getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void browse_WithPriceRangeInsideABand_ShouldCheckEachPrice() {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setMinPrice(new BigDecimal("100"));
+        request.setMaxPrice(new BigDecimal("150"));
+
+        assertThat(facetIndex.browse(request, 10).getItems()).containsExactly(cake);
+    }
+
+    @Test
+    void browse_WithRatingDiscountAndStockFilters_ShouldApplyThresholds() {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setMinRating(new BigDecimal("4.3"));
+        assertThat(facetIndex.browse(request, 10).getItems()).containsExactly(butter);
+
+        request = new ProductBrowseRequest();
+        request.setMinDiscount(new BigDecimal("25"));
+        request.setInStock(true);
+        assertThat(facetIndex.browse(request, 10).getItems()).containsExactlyInAnyOrder(cake, apple);
+    }
+
+    @Test
+    void browse_WithSeveralTags_ShouldRequireEveryTag() {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setTag(List.of("Daily", "milk"));
+
+        assertThat(facetIndex.browse(request, 10).getItems()).containsExactly(milk);
+    }
+
+    @Test
+    void browse_ShouldSortAndPage() {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setSortBy("price");
+        request.setPage(1);
+
+        ProductBrowseDto result = facetIndex.browse(request, 2);
+
+        assertThat(result.getItems()).containsExactly(cake, apple);
+        assertThat(result.getPage()).isEqualTo(1);
+        assertThat(result.isHasNext()).isFalse();
+
+        request.setSortBy("rating");
+        request.setPage(0);
+        assertThat(facetIndex.browse(request, 4).getItems()).containsExactly(butter, milk, cake, apple);
+    }
+
+    @Test
+    void browse_WithInvertedPriceRange_ShouldThrow() {
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setMinPrice(new BigDecimal("200"));
+        request.setMaxPrice(new BigDecimal("100"));
+
+        assertThatThrownBy(() -> facetIndex.browse(request, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void withFlags_ShouldIntersectFlagsCategoryAndBrand() {
+        butter.setIsFeatured(true);
+        cake.setIsFeatured(true);
+        cake.setIsTrending(true);
+        apple.setIsFeatured(true);
+        apple.setIsAvailable(false);
+        facetIndex.rebuild(List.of(butter, milk, cake, apple));
+
+        assertThat(facetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.FEATURED), null, null, 0))
+                .extracting(ProductResponseDto::getName)
+                .containsExactlyInAnyOrder("Amul Butter", "Britannia Cake", "Royal Gala Apple");
+        assertThat(facetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.FEATURED, ProductFacetIndex.Flag.AVAILABLE), dairy, britannia, 0))
+                .containsExactly(cake);
+        assertThat(facetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.FEATURED), null, null, 2)).hasSize(2);
+        assertThat(facetIndex.count(EnumSet.of(ProductFacetIndex.Flag.IN_STOCK))).isEqualTo(2);
+
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setFeatured(true);
+        request.setTrending(true);
+        assertThat(facetIndex.browse(request, 10).getItems()).containsExactly(cake);
+    }
+
+    @Test
+    void onProductChanged_WithStockAdjustment_ShouldUpdateAvailabilityFlags() {
+        facetIndex.onProductChanged(ProductChangedEvent.stockAdjusted(cake.getId(), -5));
+
+        assertThat(facetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.AVAILABLE), null, null, 0))
+                .extracting(ProductResponseDto::getName)
+                .containsExactlyInAnyOrder("Amul Butter", "Amul Taaza Milk", "Royal Gala Apple");
+        assertThat(facetIndex.count(EnumSet.of(ProductFacetIndex.Flag.IN_STOCK))).isEqualTo(2);
+    }
+
+    @Test
+    void onProductChanged_WithStockAdjustment_ShouldNotChangeProductsAlreadyReturned() {
+        ProductResponseDto returned = facetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.IN_STOCK), dairy, britannia, 0).get(0);
+        ProductResponseDto browsed = facetIndex.browse(new ProductBrowseRequest(), 10).getItems().stream()
+                .filter(product -> product.getId().equals(cake.getId()))
+                .findFirst().orElseThrow();
+
+        facetIndex.onProductChanged(ProductChangedEvent.stockAdjusted(cake.getId(), -5));
+
+        assertThat(returned.getStock()).isEqualTo(5);
+        assertThat(browsed.getIsAvailable()).isTrue();
+        assertThat(facetIndex.withFlags(EnumSet.noneOf(ProductFacetIndex.Flag.class), null, britannia, 0))
+                .extracting(ProductResponseDto::getStock).containsExactly(0);
+    }
+
+    @Test
+    void onProductChanged_ShouldKeepBitsetsCurrent() {
+        facetIndex.onProductChanged(ProductChangedEvent.deleted(apple.getId()));
+        ProductResponseDto bread = product("Brown Bread", dairy, "Dairy & Bakery", britannia, "Britannia", "45.00", null, null, 8);
+        facetIndex.onProductChanged(ProductChangedEvent.upserted(bread));
+        facetIndex.onProductChanged(ProductChangedEvent.stockAdjusted(milk.getId(), 3));
+
+        ProductBrowseRequest request = new ProductBrowseRequest();
+        request.setInStock(true);
+        ProductBrowseDto result = facetIndex.browse(request, 10);
+
+        assertThat(facetIndex.size()).isEqualTo(4);
+        assertThat(result.getItems()).extracting(ProductResponseDto::getName)
+                .containsExactlyInAnyOrder("Amul Butter", "Amul Taaza Milk", "Britannia Cake", "Brown Bread");
+        assertThat(result.getFacets().getCategories()).extracting(Bucket::label).containsExactly("Dairy & Bakery");
+        assertThat(milk.getStock()).isZero(); // the index adjusts its own copy
+    }
+
+    private static ProductResponseDto product(String name, UUID categoryId, String category, UUID brandId, String brand,
+                                              String price, String rating, String discount, int stock, String... tags) {
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.setId(UUID.randomUUID());
+        dto.setName(name);
+        dto.setCategoryId(categoryId);
+        dto.setCategoryName(category);
+        dto.setBrandId(brandId);
+        dto.setBrandName(brand);
+        dto.setPrice(new BigDecimal(price));
+        dto.setRating(rating == null ? null : new BigDecimal(rating));
+        dto.setDiscountPercentage(discount == null ? null : new BigDecimal(discount));
+        dto.setStock(stock);
+        dto.setIsAvailable(true);
+        dto.setTags(tags);
+        return dto;
+    }
+}
@@ -0,0 +1,258 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductImportReportDto;
+import com.groceryapp.backend.dto.ProductRequestDto;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Imports small feeds into the seeded H2 catalog and checks what was written and what was reported
+ */
+@SpringBootTest(properties = "app.catalog.import.batch-size=2")
+class ProductImportServiceTest {
+
+    private static final String PREFIX = "Imported ";
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        // Through the service, so the search index and caches drop them too
+        importedProducts().forEach(product -> productService.deleteProduct(product.getId()));
+    }
+
+    @Test
+    void importProducts_Csv_ShouldInsertValidRowsAndReportTheRest() {
+        String csv = """
+                name,price,mrp,category,subcategory,brand,stock,description,tags
+                Imported Toned Milk,28.00,30.00,Dairy & Bakery,Milk & Cream,Amul,40,"Fresh, pasteurised",dairy|milk
+                Imported Mystery Box,10.00,,Unknown Aisle,,,5,,
+                "Imported ""Gold"" Butter",55.50,,dairy & bakery,cheese & butter,amul,12,"Two
+                lines",
+                Imported Bad Price,-1,,Dairy & Bakery,,,1,,
+                Imported Short Row,1.00
+                Imported Chips,20.00,,Snacks & Beverages,Chips & Namkeen,Nobody,3,,
+                """;
+
+        ProductImportReportDto report = importCsv(csv);
+
+        assertThat(report.getFormat()).isEqualTo("CSV");
+        assertThat(report.getRowsRead()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getErrors()).extracting(ProductImportReportDto.RowError::line)
+                .containsExactly(3L, 6L, 7L, 8L);
+        assertThat(report.getErrors().get(0).message()).isEqualTo("Unknown category: Unknown Aisle");
+        assertThat(report.getErrors().get(1).message()).startsWith("price:");
+        assertThat(report.getErrors().get(2).message()).isEqualTo("Expected 9 columns but found 2");
+        assertThat(report.getErrors().get(3).message()).isEqualTo("Unknown brand: Nobody");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Product milk = productNamed("Imported Toned Milk");
+            assertThat(milk.getCategory().getName()).isEqualTo("Dairy & Bakery");
+            assertThat(milk.getSubcategory().getName()).isEqualTo("Milk & Cream");
+            assertThat(milk.getBrand().getName()).isEqualTo("Amul");
+            assertThat(milk.getDescription()).isEqualTo("Fresh, pasteurised");
+            assertThat(milk.getTags()).containsExactly("dairy", "milk");
+            assertThat(milk.getStock()).isEqualTo(40);
+
+            Product butter = productNamed("Imported \"Gold\" Butter");
+            assertThat(butter.getMrp()).isEqualByComparingTo(new BigDecimal("55.50"));
+            assertThat(butter.getDescription()).isEqualTo("Two\nlines");
+            assertThat(butter.getBrand().getName()).isEqualTo("Amul");
+        });
+    }
+
+    @Test
+    void importProducts_Ndjson_ShouldReportMalformedLinesAndIndexImportedProducts() {
+        String ndjson = """
+                {"name":"Imported Basmati Rice","price":120,"category":"Groceries & Staples","subcategory":"Rice & Atta","stock":9}
+                {"name":"Imported Broken Line",
+                
+                {"name":"Imported No Category","price":5}
+                """;
+
+        ProductImportReportDto report = productImportService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.NDJSON, ProductImportService.Mode.INSERT);
+
+        assertThat(report.getRowsRead()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ProductImportReportDto.RowError::line).containsExactly(2L, 4L);
+        assertThat(report.getErrors().get(0).message()).startsWith("Invalid JSON");
+        assertThat(report.getErrors().get(1).message()).isEqualTo("category: Category cannot be blank");
+
+        assertThat(productSearchIndex.search("imported basmati")).extracting("name").containsExactly("Imported Basmati Rice");
+    }
+
+    @Test
+    void importProducts_ManyRows_ShouldWriteInBatches() {
+        String csv = "name,price,category\n" + IntStream.range(0, 25)
+                .mapToObj(i -> PREFIX + "Batch Item " + i + ",1.00,Snacks & Beverages")
+                .collect(Collectors.joining("\n"));
+
+        ProductImportReportDto report = importCsv(csv);
+
+        assertThat(report.getImported()).isEqualTo(25);
+        assertThat(report.getFailed()).isZero();
+        assertThat(importedProducts()).hasSize(25);
+    }
+
+    @Test
+    void importProducts_UnterminatedQuote_ShouldStopAndReportTheRecord() {
+        ProductImportReportDto report = importCsv("name,price,category\n\"Imported Open Quote,1.00,Snacks & Beverages\n");
+
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors()).singleElement()
+                .isEqualTo(new ProductImportReportDto.RowError(2, "Unterminated quoted field"));
+    }
+
+    @Test
+    void importProducts_UpsertTwice_ShouldSkipUnchangedRowsAndUpdateChangedOnes() {
+        String feed = """
+                sku,name,price,category,stock
+                SKU-IMP-1,Imported Apple,10.00,Fruits & Vegetables,5
+                SKU-IMP-2,Imported Pear,12.00,Fruits & Vegetables,7
+                """;
+        ProductImportReportDto first = importCsv(feed, ProductImportService.Mode.UPSERT);
+        assertThat(first.getInserted()).isEqualTo(2);
+
+        Product pear = productNamed("Imported Pear");
+        Instant pearUpdatedAt = pear.getUpdatedAt();
+        // Orders own stock once the product exists
+        productService.decreaseStock(pear.getId(), 2);
+
+        ProductImportReportDto second = importCsv("""
+                sku,name,price,category,stock
+                SKU-IMP-1,Imported Apple,10.0,Fruits & Vegetables,5
+                SKU-IMP-2,Imported Pear,11.50,Fruits & Vegetables,99
+                SKU-IMP-3,Imported Plum,8.00,Fruits & Vegetables,3
+                """, ProductImportService.Mode.UPSERT);
+
+        assertThat(second.getMode()).isEqualTo("UPSERT");
+        assertThat(second.getInserted()).isEqualTo(1);
+        assertThat(second.getUpdated()).isEqualTo(1);
+        assertThat(second.getUnchanged()).isEqualTo(1);
+        assertThat(second.getImported()).isEqualTo(2);
+        assertThat(importedProducts()).hasSize(3);
+
+        Product updatedPear = productNamed("Imported Pear");
+        assertThat(updatedPear.getId()).isEqualTo(pear.getId());
+        assertThat(updatedPear.getPrice()).isEqualByComparingTo("11.50");
+        assertThat(updatedPear.getStock()).isEqualTo(5);
+        assertThat(updatedPear.getUpdatedAt()).isAfterOrEqualTo(pearUpdatedAt);
+        assertThat(productService.getProductById(pear.getId()).getPrice()).isEqualByComparingTo("11.50");
+    }
+
+    @Test
+    void importProducts_UpsertAfterManualEdit_ShouldRewriteTheProduct() {
+        String feed = "sku,name,price,category\nSKU-IMP-9,Imported Kiwi,30.00,Fruits & Vegetables\n";
+        importCsv(feed, ProductImportService.Mode.UPSERT);
+        Product kiwi = productNamed("Imported Kiwi");
+
+        ProductRequestDto edit = new ProductRequestDto();
+        edit.setName("Imported Kiwi");
+        edit.setPrice(new BigDecimal("25.00"));
+        edit.setCategoryId(new TransactionTemplate(transactionManager)
+                .execute(status -> productRepository.findById(kiwi.getId()).orElseThrow().getCategory().getId()));
+        productService.updateProduct(kiwi.getId(), edit);
+
+        ProductImportReportDto report = importCsv(feed, ProductImportService.Mode.UPSERT);
+
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(productNamed("Imported Kiwi").getPrice()).isEqualByComparingTo("30.00");
+        assertThat(productNamed("Imported Kiwi").getSku()).isEqualTo("SKU-IMP-9");
+    }
+
+    @Test
+    void importProducts_Upsert_ShouldRequireUniqueSkus() {
+        ProductImportReportDto report = importCsv("""
+                sku,name,price,category
+                ,Imported No Sku,1.00,Snacks & Beverages
+                SKU-IMP-5,Imported Twin A,1.00,Snacks & Beverages
+                SKU-IMP-5,Imported Twin B,1.00,Snacks & Beverages
+                """, ProductImportService.Mode.UPSERT);
+
+        assertThat(report.getInserted()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ProductImportReportDto.RowError::message)
+                .containsExactly("SKU is required in UPSERT mode", "Duplicate SKU SKU-IMP-5, first seen on line 3");
+    }
+
+    @Test
+    void contentHash_ShouldIgnoreStockAndPriceScale() {
+        Product a = new Product();
+        a.setName("Apple");
+        a.setPrice(new BigDecimal("10.00"));
+        a.setCategory(new Category());
+        Product b = new Product();
+        b.setName("Apple");
+        b.setPrice(new BigDecimal("10"));
+        b.setCategory(a.getCategory());
+        b.setStock(42);
+
+        assertThat(ProductImportService.contentHash(a)).hasSize(64).isEqualTo(ProductImportService.contentHash(b));
+        b.setIsFeatured(true);
+        assertThat(ProductImportService.contentHash(b)).isNotEqualTo(ProductImportService.contentHash(a));
+    }
+
+    @Test
+    void detect_ShouldUseExtensionThenContentType() {
+        assertThat(ProductImportService.Format.detect("feed.CSV", null)).isEqualTo(ProductImportService.Format.CSV);
+        assertThat(ProductImportService.Format.detect("feed.jsonl", null)).isEqualTo(ProductImportService.Format.NDJSON);
+        assertThat(ProductImportService.Format.detect("upload", "application/x-ndjson")).isEqualTo(ProductImportService.Format.NDJSON);
+        assertThatThrownBy(() -> ProductImportService.Format.detect("feed.xlsx", "application/octet-stream"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ProductImportReportDto importCsv(String csv) {
+        return importCsv(csv, ProductImportService.Mode.INSERT);
+    }
+
+    private ProductImportReportDto importCsv(String csv, ProductImportService.Mode mode) {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.CSV, mode);
+    }
+
+    private Product productNamed(String name) {
+        return importedProducts().stream()
+                .filter(product -> product.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<Product> importedProducts() {
+        return productRepository.findAll().stream()
+                .filter(product -> product.getName().startsWith(PREFIX))
+                .toList();
+    }
+}
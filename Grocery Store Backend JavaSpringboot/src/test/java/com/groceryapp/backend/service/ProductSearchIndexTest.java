@@ -0,0 +1,139 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex searchIndex;
+    private ProductResponseDto butter;
+    private ProductResponseDto milk;
+    private ProductResponseDto apple;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex(null, new ProductMapper(mock(ReferenceDataRegistry.class)));
+
+        butter = product("Amul Butter", "Delicious table butter", "Dairy & Bakery", "Amul", "spread");
+        milk = product("Amul Taaza Toned Milk", "Fresh toned milk", "Dairy & Bakery", "Amul", "milk", "daily");
+        apple = product("Apple - Royal Gala", "Fresh imported apples", "Fruits & Vegetables", null, "organic");
+
+        searchIndex.rebuild(List.of(butter, milk, apple));
+    }
+
+    @Test
+    void search_ByWholeWord_ShouldReturnMatchingProducts() {
+        List<ProductResponseDto> result = searchIndex.search("butter");
+
+        assertThat(result).containsExactly(butter);
+    }
+
+    @Test
+    void search_ByPrefix_ShouldReturnMatchingProducts() {
+        assertThat(searchIndex.search("ap")).containsExactly(apple);
+        assertThat(searchIndex.search("appl")).containsExactly(apple);
+    }
+
+    @Test
+    void search_BySubstring_ShouldReturnMatchingProducts() {
+        assertThat(searchIndex.search("ppl")).containsExactly(apple);
+        assertThat(searchIndex.search("oned")).containsExactly(milk);
+    }
+
+    @Test
+    void search_ByCategoryBrandOrTag_ShouldReturnMatchingProducts() {
+        assertThat(searchIndex.search("dairy")).containsExactlyInAnyOrder(butter, milk);
+        assertThat(searchIndex.search("amul")).containsExactlyInAnyOrder(butter, milk);
+        assertThat(searchIndex.search("organic")).containsExactly(apple);
+    }
+
+    @Test
+    void search_WithSeveralTokens_ShouldRequireEveryToken() {
+        assertThat(searchIndex.search("amul milk")).containsExactly(milk);
+        assertThat(searchIndex.search("amul apple")).isEmpty();
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesFirst() {
+        ProductResponseDto bread = product("Bread", "Goes well with milk", "Dairy & Bakery", null);
+        searchIndex.index(bread);
+
+        assertThat(searchIndex.search("milk")).containsExactly(milk, bread);
+    }
+
+    @Test
+    void search_IsCaseInsensitive() {
+        assertThat(searchIndex.search("BUTTER")).containsExactly(butter);
+    }
+
+    @Test
+    void search_WithOnlyShortTokens_ShouldReturnEmptyList() {
+        assertThat(searchIndex.search("a")).isEmpty();
+        assertThat(searchIndex.search("  ")).isEmpty();
+        assertThat(searchIndex.search(null)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_WithUpsert_ShouldReindexProduct() {
+        butter.setName("Amul Salted Spread");
+        searchIndex.onProductChanged(ProductChangedEvent.upserted(butter));
+
+        assertThat(searchIndex.search("salted")).containsExactly(butter);
+        assertThat(searchIndex.search("butter")).containsExactly(butter); // still in description
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void onProductChanged_WithDelete_ShouldRemoveProduct() {
+        searchIndex.onProductChanged(ProductChangedEvent.deleted(apple.getId()));
+
+        assertThat(searchIndex.search("apple")).isEmpty();
+        assertThat(searchIndex.search("fresh")).containsExactly(milk);
+        assertThat(searchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void onProductChanged_WithStockAdjustment_ShouldUpdateReturnedStock() {
+        milk.setStock(2);
+        milk.setIsAvailable(true);
+
+        searchIndex.onProductChanged(ProductChangedEvent.stockAdjusted(milk.getId(), -2));
+        assertThat(searchIndex.search("milk").get(0).getStock()).isZero();
+        assertThat(searchIndex.search("milk").get(0).getIsAvailable()).isFalse();
+
+        searchIndex.onProductChanged(ProductChangedEvent.stockAdjusted(milk.getId(), 5));
+        assertThat(searchIndex.search("milk").get(0).getStock()).isEqualTo(5);
+        assertThat(searchIndex.search("milk").get(0).getIsAvailable()).isTrue();
+    }
+
+    @Test
+    void onProductChanged_WithStockAdjustment_ShouldNotChangePreviouslyReturnedProduct() {
+        milk.setStock(4);
+        ProductResponseDto returned = searchIndex.search("milk").get(0);
+
+        searchIndex.onProductChanged(ProductChangedEvent.stockAdjusted(milk.getId(), -1));
+
+        assertThat(returned.getStock()).isEqualTo(4);
+        assertThat(searchIndex.search("milk").get(0).getStock()).isEqualTo(3);
+        assertThat(searchIndex.search("milk").get(0).getName()).isEqualTo("Amul Taaza Toned Milk");
+    }
+
+    private static ProductResponseDto product(String name, String description, String category, String brand, String... tags) {
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.setId(UUID.randomUUID());
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setCategoryName(category);
+        dto.setBrandName(brand);
+        dto.setTags(tags);
+        return dto;
+    }
+}
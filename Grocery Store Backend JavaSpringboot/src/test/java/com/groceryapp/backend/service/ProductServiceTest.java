@@ -1,29 +1,47 @@
 package com.groceryapp.backend.service;
 
+import com.groceryapp.backend.dto.ProductBrowseDto;
+import com.groceryapp.backend.dto.ProductBrowseRequest;
+import com.groceryapp.backend.dto.ProductPageDto;
+import com.groceryapp.backend.dto.ProductPageRequest;
+import com.groceryapp.backend.dto.ProductRailsDto;
 import com.groceryapp.backend.dto.ProductRequestDto;
 import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.exception.InsufficientStockException;
 import com.groceryapp.backend.exception.ProductNotFoundException;
 import com.groceryapp.backend.model.Brand;
 import com.groceryapp.backend.model.Category;
 import com.groceryapp.backend.model.Product;
 import com.groceryapp.backend.model.Subcategory;
-import com.groceryapp.backend.repository.BrandRepository;
-import com.groceryapp.backend.repository.CategoryRepository;
 import com.groceryapp.backend.repository.ProductRepository;
-import com.groceryapp.backend.repository.SubcategoryRepository;
+import com.groceryapp.backend.repository.StockReservationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,13 +51,31 @@ class ProductServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private ReferenceDataRegistry referenceData;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper(mock(ReferenceDataRegistry.class));
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private ColumnarCatalogStore columnarCatalogStore;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private InventoryLedger inventoryLedger;
 
     @Mock
-    private SubcategoryRepository subcategoryRepository;
+    private CatalogTaxonomy catalogTaxonomy;
 
     @Mock
-    private BrandRepository brandRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ProductService productService;
@@ -56,6 +92,9 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(productService, "defaultPageSize", 24);
+        ReflectionTestUtils.setField(productService, "maxPageSize", 100);
+
         productId = UUID.randomUUID();
         categoryId = UUID.randomUUID();
         subcategoryId = UUID.randomUUID();
@@ -105,9 +144,9 @@ class ProductServiceTest {
     @Test
     void createProduct_WithValidData_ShouldCreateProduct() {
         // Arrange
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -118,12 +157,13 @@ class ProductServiceTest {
         assertThat(result.getName()).isEqualTo("Orange");
         assertThat(result.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(5.99));
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
     void createProduct_WithInvalidCategory_ShouldThrowException() {
         // Arrange
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(referenceData.category(categoryId)).thenThrow(new RuntimeException("Category not found with ID: " + categoryId));
 
         // Act & Assert
         assertThatThrownBy(() -> productService.createProduct(requestDto))
@@ -136,8 +176,8 @@ class ProductServiceTest {
     void createProduct_WithoutSubcategory_ShouldCreateProduct() {
         // Arrange
         requestDto.setSubcategoryId(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -146,15 +186,15 @@ class ProductServiceTest {
         // Assert
         assertThat(result).isNotNull();
         verify(productRepository, times(1)).save(any(Product.class));
-        verify(subcategoryRepository, never()).findById(any());
+        verify(referenceData, never()).subcategory(any());
     }
 
     @Test
     void createProduct_WithoutBrand_ShouldCreateProduct() {
         // Arrange
         requestDto.setBrandId(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -163,7 +203,7 @@ class ProductServiceTest {
         // Assert
         assertThat(result).isNotNull();
         verify(productRepository, times(1)).save(any(Product.class));
-        verify(brandRepository, never()).findById(any());
+        verify(referenceData, never()).brand(any());
     }
 
     @Test
@@ -195,23 +235,16 @@ class ProductServiceTest {
     }
 
     @Test
-    void getAllCategories_ShouldReturnDistinctCategoriesNames() {
+    void getAllCategories_ShouldReturnNamesFromTaxonomySnapshot() {
         // Arrange
-        Category category2 = new Category();
-        category2.setName("Vegetables");
-
-        Product product2 = new Product();
-        product2.setCategory(category2);
-
-        when(productRepository.findAll()).thenReturn(Arrays.asList(testProduct, product2));
+        when(catalogTaxonomy.categoryNames()).thenReturn(List.of("Fruits", "Vegetables"));
 
         // Act
         List<String> result = productService.getAllCategories();
 
         // Assert
-        assertThat(result).hasSize(2);
-        assertThat(result).contains("Fruits", "Vegetables");
-        verify(productRepository, times(1)).findAll();
+        assertThat(result).containsExactly("Fruits", "Vegetables");
+        verify(productRepository, never()).findAll();
     }
 
     @Test
@@ -245,9 +278,9 @@ class ProductServiceTest {
     void updateProduct_WithValidData_ShouldUpdateProduct() {
         // Arrange
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -257,6 +290,7 @@ class ProductServiceTest {
         assertThat(result).isNotNull();
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(inventoryLedger).overwritten(productId);
     }
 
     @Test
@@ -283,6 +317,7 @@ class ProductServiceTest {
         // Assert
         verify(productRepository, times(1)).existsById(productId);
         verify(productRepository, times(1)).deleteById(productId);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -328,7 +363,8 @@ class ProductServiceTest {
     void searchProducts_ShouldReturnMatchingProducts() {
         // Arrange
         String searchQuery = "orange";
-        when(productRepository.searchByNameDescriptionOrCategory(searchQuery)).thenReturn(Arrays.asList(testProduct));
+        ProductResponseDto match = productMapper.toResponseDto(testProduct);
+        when(productSearchIndex.search(searchQuery)).thenReturn(Arrays.asList(match));
 
         // Act
         List<ProductResponseDto> result = productService.searchProducts(searchQuery);
@@ -336,14 +372,17 @@ class ProductServiceTest {
         // Assert
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getName()).containsIgnoringCase("orange");
-        verify(productRepository, times(1)).searchByNameDescriptionOrCategory(searchQuery);
+        verify(productSearchIndex, times(1)).search(searchQuery);
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void getFeaturedProducts_ShouldReturnOnlyFeaturedProducts() {
         // Arrange
         testProduct.setIsFeatured(true);
-        when(productRepository.findByIsFeaturedTrue()).thenReturn(Arrays.asList(testProduct));
+        ProductResponseDto featured = productMapper.toResponseDto(testProduct);
+        when(productFacetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.FEATURED), null, null, 0))
+                .thenReturn(List.of(featured));
 
         // Act
         List<ProductResponseDto> result = productService.getFeaturedProducts();
@@ -351,7 +390,213 @@ class ProductServiceTest {
         // Assert
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getIsFeatured()).isTrue();
-        verify(productRepository, times(1)).findByIsFeaturedTrue();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getHomeRails_ShouldReadEveryRailFromFlagIndex() {
+        // Arrange
+        ProductResponseDto product = productMapper.toResponseDto(testProduct);
+        when(productFacetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.FEATURED, ProductFacetIndex.Flag.AVAILABLE), categoryId, null, 12))
+                .thenReturn(List.of(product));
+        when(productFacetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.TRENDING, ProductFacetIndex.Flag.AVAILABLE), categoryId, null, 12))
+                .thenReturn(List.of());
+        when(productFacetIndex.withFlags(EnumSet.of(ProductFacetIndex.Flag.NEW_ARRIVAL, ProductFacetIndex.Flag.AVAILABLE), categoryId, null, 12))
+                .thenReturn(List.of(product));
+        when(productFacetIndex.count(EnumSet.of(ProductFacetIndex.Flag.IN_STOCK))).thenReturn(7);
+
+        // Act
+        ProductRailsDto rails = productService.getHomeRails(categoryId, 12);
+
+        // Assert
+        assertThat(rails.getFeatured()).containsExactly(product);
+        assertThat(rails.getTrending()).isEmpty();
+        assertThat(rails.getNewArrivals()).containsExactly(product);
+        assertThat(rails.getInStock()).isEqualTo(7);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductEntitiesByIds_ShouldLoadDistinctIdsInOneQuery() {
+        // Arrange
+        when(productRepository.findAllById(Set.of(productId))).thenReturn(List.of(testProduct));
+
+        // Act
+        Map<UUID, Product> result = productService.getProductEntitiesByIds(List.of(productId, productId));
+
+        // Assert
+        assertThat(result).containsExactly(Map.entry(productId, testProduct));
+        verify(productRepository, times(1)).findAllById(Set.of(productId));
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void getProductEntitiesByIds_WithNoIds_ShouldNotQuery() {
+        assertThat(productService.getProductEntitiesByIds(List.of())).isEmpty();
+        verifyNoInteractions(productRepository);
+    }
+
+    // ==================== FACETED BROWSE TESTS ====================
+
+    @Test
+    void browseProducts_ShouldClampPageSizeAndDelegateToFacetIndex() {
+        // Arrange
+        ProductBrowseRequest browseRequest = new ProductBrowseRequest();
+        browseRequest.setSize(500);
+        ProductBrowseDto expected = new ProductBrowseDto();
+        when(productFacetIndex.browse(browseRequest, 100)).thenReturn(expected);
+
+        // Act
+        ProductBrowseDto result = productService.browseProducts(browseRequest);
+
+        // Assert
+        assertThat(result).isSameAs(expected);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void browseProducts_WithColumnarStoreEnabled_ShouldUseItUnlessTagsAreRequested() {
+        // Arrange
+        when(columnarCatalogStore.isEnabled()).thenReturn(true);
+        ProductBrowseRequest untagged = new ProductBrowseRequest();
+        ProductBrowseRequest tagged = new ProductBrowseRequest();
+        tagged.setTag(List.of("organic"));
+        ProductBrowseDto fromColumns = new ProductBrowseDto();
+        ProductBrowseDto fromFacetIndex = new ProductBrowseDto();
+        when(columnarCatalogStore.browse(untagged, 24)).thenReturn(fromColumns);
+        when(productFacetIndex.browse(tagged, 24)).thenReturn(fromFacetIndex);
+
+        // Act & Assert
+        assertThat(productService.browseProducts(untagged)).isSameAs(fromColumns);
+        assertThat(productService.browseProducts(tagged)).isSameAs(fromFacetIndex);
+    }
+
+    // ==================== KEYSET PAGINATION TESTS ====================
+
+    @Test
+    void getProductsPage_WithoutCursor_ShouldStartAtFirstRowAndReturnNextCursor() {
+        // Arrange
+        when(productRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(windowOf(testProduct, true));
+        ProductPageRequest pageRequest = new ProductPageRequest(10, null, "price", null);
+
+        // Act
+        ProductPageDto result = productService.getProductsPage(null, null, pageRequest);
+
+        // Assert
+        ArgumentCaptor<ScrollPosition> position = ArgumentCaptor.forClass(ScrollPosition.class);
+        ArgumentCaptor<Sort> sort = ArgumentCaptor.forClass(Sort.class);
+        ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+        verify(productRepository).findAllBy(position.capture(), sort.capture(), limit.capture());
+        assertThat(position.getValue().isInitial()).isTrue();
+        assertThat(sort.getValue().getOrderFor("price").getDirection()).isEqualTo(Sort.Direction.ASC);
+        assertThat(limit.getValue().max()).isEqualTo(10);
+
+        assertThat(result.getItems()).extracting(ProductResponseDto::getId).containsExactly(productId);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getNextCursor()).isNotBlank();
+        assertThat(result.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void getProductsPage_WithCursor_ShouldContinueAfterLastRow() {
+        // Arrange
+        when(productRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(windowOf(testProduct, true), windowOf(testProduct, false));
+        ProductPageDto firstPage = productService.getProductsPage(null, null, new ProductPageRequest(1, null, "price", "asc"));
+
+        // Act
+        ProductPageDto secondPage = productService.getProductsPage(null, null,
+                new ProductPageRequest(1, firstPage.getNextCursor(), "price", "asc"));
+
+        // Assert
+        ArgumentCaptor<ScrollPosition> position = ArgumentCaptor.forClass(ScrollPosition.class);
+        verify(productRepository, times(2)).findAllBy(position.capture(), any(Sort.class), any(Limit.class));
+        KeysetScrollPosition continuation = (KeysetScrollPosition) position.getAllValues().get(1);
+        assertThat(continuation.getKeys()).containsEntry("price", new BigDecimal("5.99")).containsEntry("id", productId);
+
+        assertThat(secondPage.isHasNext()).isFalse();
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getProductsPage_WithSubcategory_ShouldQueryBySubcategory() {
+        // Arrange
+        when(productRepository.findBySubcategoryId(eq(subcategoryId), any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(windowOf(testProduct, false));
+
+        // Act
+        ProductPageDto result = productService.getProductsPage(categoryId, subcategoryId, new ProductPageRequest());
+
+        // Assert
+        assertThat(result.getItems()).hasSize(1);
+        verify(productRepository, never()).findByCategoryId(any(), any(ScrollPosition.class), any(Sort.class), any(Limit.class));
+    }
+
+    @Test
+    void getProductsPage_WithOversizedPage_ShouldCapAtMaxPageSize() {
+        // Arrange
+        when(productRepository.findByCategoryId(eq(categoryId), any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(windowOf(testProduct, false));
+
+        // Act
+        productService.getProductsPage(categoryId, null, new ProductPageRequest(5000, null, null, null));
+
+        // Assert
+        ArgumentCaptor<Sort> sort = ArgumentCaptor.forClass(Sort.class);
+        ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+        verify(productRepository).findByCategoryId(eq(categoryId), any(ScrollPosition.class), sort.capture(), limit.capture());
+        assertThat(limit.getValue().max()).isEqualTo(100);
+        // createdAt newest first is the default sort
+        assertThat(sort.getValue().getOrderFor("createdAt").getDirection()).isEqualTo(Sort.Direction.DESC);
+    }
+
+    @Test
+    void getProductsPage_WithUnsupportedSort_ShouldThrowException() {
+        assertThatThrownBy(() -> productService.getProductsPage(null, null, new ProductPageRequest(10, null, "name", null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported sort field");
+    }
+
+    @Test
+    void getProductsPage_WithCursorFromDifferentSort_ShouldThrowException() {
+        // Arrange
+        when(productRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(windowOf(testProduct, true));
+        String priceCursor = productService.getProductsPage(null, null, new ProductPageRequest(1, null, "price", null)).getNextCursor();
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getProductsPage(null, null, new ProductPageRequest(1, priceCursor, "rating", null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productService.getProductsPage(null, null, new ProductPageRequest(1, "not-a-cursor", "price", null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getFeaturedProductsPage_ShouldQueryFeaturedProducts() {
+        // Arrange
+        when(productRepository.findByIsFeaturedTrue(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(windowOf(testProduct, false));
+
+        // Act
+        ProductPageDto result = productService.getFeaturedProductsPage(new ProductPageRequest(10, null, "rating", null));
+
+        // Assert
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.isHasNext()).isFalse();
+    }
+
+    @Test
+    void getProductsByCategoryNamePage_ShouldConvertKebabCase() {
+        // Arrange
+        when(productRepository.findByCategoryNameIgnoreCase(eq("Home Appliances"), any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(windowOf(testProduct, false));
+
+        // Act
+        ProductPageDto result = productService.getProductsByCategoryNamePage("home-appliances", new ProductPageRequest(10, null, null, null));
+
+        // Assert
+        assertThat(result.getItems()).hasSize(1);
     }
 
     // ==================== NULL PARAMETER BRANCH TESTS - createProduct ====================
@@ -360,9 +605,9 @@ class ProductServiceTest {
     void createProduct_WithNullMrp_ShouldUsePrice() {
         // Arrange
         requestDto.setMrp(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
             Product saved = invocation.getArgument(0);
             assertThat(saved.getMrp()).isEqualByComparingTo(requestDto.getPrice());
@@ -380,9 +625,9 @@ class ProductServiceTest {
     void createProduct_WithNullStock_ShouldDefaultToZero() {
         // Arrange
         requestDto.setStock(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
             Product saved = invocation.getArgument(0);
             assertThat(saved.getStock()).isEqualTo(0);
@@ -400,9 +645,9 @@ class ProductServiceTest {
     void createProduct_WithNullDiscountPercentage_ShouldDefaultToZero() {
         // Arrange
         requestDto.setDiscountPercentage(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
             Product saved = invocation.getArgument(0);
             assertThat(saved.getDiscountPercentage()).isEqualByComparingTo(BigDecimal.ZERO);
@@ -420,9 +665,9 @@ class ProductServiceTest {
     void createProduct_WithNullIsAvailable_ShouldDefaultToTrue() {
         // Arrange
         requestDto.setIsAvailable(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
             Product saved = invocation.getArgument(0);
             assertThat(saved.getIsAvailable()).isTrue();
@@ -440,9 +685,9 @@ class ProductServiceTest {
     void createProduct_WithNullIsFeatured_ShouldDefaultToFalse() {
         // Arrange
         requestDto.setIsFeatured(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
             Product saved = invocation.getArgument(0);
             assertThat(saved.getIsFeatured()).isFalse();
@@ -460,9 +705,9 @@ class ProductServiceTest {
     void createProduct_WithNullMinOrderQuantity_ShouldDefaultToOne() {
         // Arrange
         requestDto.setMinOrderQuantity(null);
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
             Product saved = invocation.getArgument(0);
             assertThat(saved.getMinOrderQuantity()).isEqualTo(1);
@@ -483,9 +728,9 @@ class ProductServiceTest {
         // Arrange
         requestDto.setMrp(null);
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -501,9 +746,9 @@ class ProductServiceTest {
         // Arrange
         requestDto.setStock(null);
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -519,9 +764,9 @@ class ProductServiceTest {
         // Arrange
         requestDto.setDiscountPercentage(null);
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -537,9 +782,9 @@ class ProductServiceTest {
         // Arrange
         requestDto.setIsAvailable(null);
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -555,9 +800,9 @@ class ProductServiceTest {
         // Arrange
         requestDto.setIsFeatured(null);
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -573,9 +818,9 @@ class ProductServiceTest {
         // Arrange
         requestDto.setMinOrderQuantity(null);
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
-        when(subcategoryRepository.findById(subcategoryId)).thenReturn(Optional.of(testSubcategory));
-        when(brandRepository.findById(brandId)).thenReturn(Optional.of(testBrand));
+        when(referenceData.category(categoryId)).thenReturn(testCategory);
+        when(referenceData.subcategory(subcategoryId)).thenReturn(testSubcategory);
+        when(referenceData.brand(brandId)).thenReturn(testBrand);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // Act
@@ -595,7 +840,7 @@ class ProductServiceTest {
 
         // Assert - tests null branch
         assertThat(result).isEmpty();
-        verify(productRepository, never()).searchByNameDescriptionOrCategory(any());
+        verify(productSearchIndex, never()).search(any());
     }
 
     @Test
@@ -605,7 +850,7 @@ class ProductServiceTest {
 
         // Assert
         assertThat(result).isEmpty();
-        verify(productRepository, never()).searchByNameDescriptionOrCategory(any());
+        verify(productSearchIndex, never()).search(any());
     }
 
     @Test
@@ -615,60 +860,50 @@ class ProductServiceTest {
 
         // Assert
         assertThat(result).isEmpty();
-        verify(productRepository, never()).searchByNameDescriptionOrCategory(any());
+        verify(productSearchIndex, never()).search(any());
     }
 
     // ==================== UNTESTED METHOD - decreaseStock ====================
 
     @Test
-    void decreaseStock_WithSufficientStock_ShouldReduceQuantity() {
+    void decreaseStock_WithSufficientStock_ShouldDecrementAtomically() {
         // Arrange
-        testProduct.setStock(10);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-
-        // Act
-        productService.decreaseStock(productId, 5);
-
-        // Assert
-        assertThat(testProduct.getStock()).isEqualTo(5);
-        assertThat(testProduct.getIsAvailable()).isTrue();
-        verify(productRepository, times(1)).save(testProduct);
-    }
-
-    @Test
-    void decreaseStock_ToZero_ShouldMarkUnavailable() {
-        // Arrange
-        testProduct.setStock(5);
-        testProduct.setIsAvailable(true);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
+        when(productRepository.decrementStock(eq(productId), eq(5), any(Instant.class))).thenReturn(1);
 
         // Act
         productService.decreaseStock(productId, 5);
 
-        // Assert - tests stock == 0 branch
-        assertThat(testProduct.getStock()).isEqualTo(0);
-        assertThat(testProduct.getIsAvailable()).isFalse();
-        verify(productRepository, times(1)).save(testProduct);
+        // Assert - no read-modify-write of the entity
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getType() == ProductChangedEvent.Type.STOCK_ADJUSTED
+                        && event.getProductId().equals(productId)
+                        && event.getStockDelta() == -5));
     }
 
     @Test
     void decreaseStock_WithInsufficientStock_ShouldThrowException() {
         // Arrange
         testProduct.setStock(3);
+        when(productRepository.decrementStock(eq(productId), eq(5), any(Instant.class))).thenReturn(0);
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
 
         // Act & Assert - tests insufficient stock branch
         assertThatThrownBy(() -> productService.decreaseStock(productId, 5))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("Insufficient stock");
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("Insufficient stock")
+                .hasMessageContaining("Available: 3");
         
         verify(productRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
     void decreaseStock_WithInvalidProductId_ShouldThrowException() {
         // Arrange
         UUID invalidId = UUID.randomUUID();
+        when(productRepository.decrementStock(eq(invalidId), eq(5), any(Instant.class))).thenReturn(0);
         when(productRepository.findById(invalidId)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -681,48 +916,137 @@ class ProductServiceTest {
     // ==================== UNTESTED METHOD - increaseStock ====================
 
     @Test
-    void increaseStock_ShouldIncreaseQuantity() {
+    void increaseStock_ShouldIncrementAtomically() {
         // Arrange
-        testProduct.setStock(10);
-        testProduct.setIsAvailable(true);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
+        when(productRepository.incrementStock(eq(productId), eq(5), any(Instant.class))).thenReturn(1);
 
         // Act
         productService.increaseStock(productId, 5);
 
         // Assert
-        assertThat(testProduct.getStock()).isEqualTo(15);
-        assertThat(testProduct.getIsAvailable()).isTrue();
-        verify(productRepository, times(1)).save(testProduct);
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getType() == ProductChangedEvent.Type.STOCK_ADJUSTED && event.getStockDelta() == 5));
     }
 
     @Test
-    void increaseStock_FromZeroAndUnavailable_ShouldMarkAvailable() {
+    void increaseStock_WithInvalidProductId_ShouldThrowException() {
         // Arrange
-        testProduct.setStock(0);
-        testProduct.setIsAvailable(false);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
+        UUID invalidId = UUID.randomUUID();
+        when(productRepository.incrementStock(eq(invalidId), eq(5), any(Instant.class))).thenReturn(0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.increaseStock(invalidId, 5))
+                .isInstanceOf(ProductNotFoundException.class);
+        
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    // ==================== reserveStock ====================
+
+    @Test
+    void reserveStock_WhenEverythingAvailable_ShouldPublishAdjustments() {
+        // Arrange
+        UUID otherId = UUID.randomUUID();
+        Map<UUID, Integer> quantities = Map.of(productId, 2, otherId, 3);
+        when(stockReservationRepository.reserve(quantities)).thenReturn(List.of());
 
         // Act
-        productService.increaseStock(productId, 10);
+        productService.reserveStock(quantities);
 
-        // Assert - tests !isAvailable && stock > 0 branch
-        assertThat(testProduct.getStock()).isEqualTo(10);
-        assertThat(testProduct.getIsAvailable()).isTrue();
-        verify(productRepository, times(1)).save(testProduct);
+        // Assert
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getProductId().equals(productId) && event.getStockDelta() == -2));
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getProductId().equals(otherId) && event.getStockDelta() == -3));
+        verify(productRepository, never()).findById(any());
     }
 
     @Test
-    void increaseStock_WithInvalidProductId_ShouldThrowException() {
+    void reserveStock_WhenProductsShort_ShouldNameEveryShortProduct() {
         // Arrange
-        UUID invalidId = UUID.randomUUID();
-        when(productRepository.findById(invalidId)).thenReturn(Optional.empty());
+        UUID otherId = UUID.randomUUID();
+        Map<UUID, Integer> quantities = Map.of(productId, 5, otherId, 4);
+        when(stockReservationRepository.reserve(quantities)).thenReturn(List.of(
+                new StockReservationRepository.Shortage(productId, "Orange", 5, 1),
+                new StockReservationRepository.Shortage(otherId, "Lemon", 4, 0)));
 
         // Act & Assert
-        assertThatThrownBy(() -> productService.increaseStock(invalidId, 5))
+        assertThatThrownBy(() -> productService.reserveStock(quantities))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("'Orange' (Requested: 5, Available: 1)")
+                .hasMessageContaining("'Lemon' (Requested: 4, Available: 0)")
+                .satisfies(ex -> assertThat(((InsufficientStockException) ex).getShortProductIds())
+                        .containsExactly(productId, otherId));
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void reserveStock_WhenProductMissing_ShouldThrowNotFound() {
+        // Arrange
+        UUID missingId = UUID.randomUUID();
+        when(stockReservationRepository.reserve(Map.of(missingId, 1)))
+                .thenReturn(List.of(new StockReservationRepository.Shortage(missingId, null, 1, null)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.reserveStock(Map.of(missingId, 1)))
                 .isInstanceOf(ProductNotFoundException.class);
-        
-        verify(productRepository, never()).save(any());
+    }
+
+    // ==================== Inventory ledger routing ====================
+
+    @Test
+    void decreaseStock_WithLedgerEnabled_ShouldTakeFromLedgerInsteadOfDatabase() {
+        // Arrange
+        when(inventoryLedger.isEnabled()).thenReturn(true);
+        when(inventoryLedger.reserve(Map.of(productId, 3))).thenReturn(List.of());
+
+        // Act
+        productService.decreaseStock(productId, 3);
+
+        // Assert
+        verify(productRepository, never()).decrementStock(any(), anyInt(), any());
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) -> event.getStockDelta() == -3));
+    }
+
+    @Test
+    void decreaseStock_WithLedgerEnabledAndTooLittleStock_ShouldThrow() {
+        // Arrange
+        when(inventoryLedger.isEnabled()).thenReturn(true);
+        when(inventoryLedger.reserve(Map.of(productId, 3)))
+                .thenReturn(List.of(new StockReservationRepository.Shortage(productId, "Orange", 3, 1)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.decreaseStock(productId, 3))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("Orange");
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void increaseStock_WithLedgerEnabled_ShouldReleaseToLedger() {
+        // Arrange
+        when(inventoryLedger.isEnabled()).thenReturn(true);
+
+        // Act
+        productService.increaseStock(productId, 2);
+
+        // Assert
+        verify(inventoryLedger).release(productId, 2);
+        verify(productRepository, never()).incrementStock(any(), anyInt(), any());
+    }
+
+    @Test
+    void reserveStock_WithLedgerEnabled_ShouldReserveFromLedger() {
+        // Arrange
+        when(inventoryLedger.isEnabled()).thenReturn(true);
+        when(inventoryLedger.reserve(Map.of(productId, 2))).thenReturn(List.of());
+
+        // Act
+        productService.reserveStock(Map.of(productId, 2));
+
+        // Assert
+        verify(stockReservationRepository, never()).reserve(any());
     }
 
     // ==================== PRIVATE METHOD COVERAGE - mapToResponseDto ====================
@@ -846,7 +1170,7 @@ class ProductServiceTest {
 
         // Assert
         assertThat(result).isEmpty();
-        verify(productRepository, never()).searchByNameDescriptionOrCategory(any());
+        verify(productSearchIndex, never()).search(any());
     }
 
     @Test
@@ -856,7 +1180,7 @@ class ProductServiceTest {
 
         // Assert
         assertThat(result).isEmpty();
-        verify(productRepository, never()).searchByNameDescriptionOrCategory(any());
+        verify(productSearchIndex, never()).search(any());
     }
 
     @Test
@@ -866,74 +1190,14 @@ class ProductServiceTest {
 
         // Assert
         assertThat(result).isEmpty();
-        verify(productRepository, never()).searchByNameDescriptionOrCategory(any());
-    }
-
-    @Test
-    void decreaseStock_WhenStockBecomesZero_ShouldSetAvailableToFalse() {
-        // Arrange
-        testProduct.setStock(5);
-        testProduct.setIsAvailable(true);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
-
-        // Act
-        productService.decreaseStock(productId, 5);
-
-        // Assert
-        assertThat(testProduct.getStock()).isEqualTo(0);
-        assertThat(testProduct.getIsAvailable()).isFalse();
-        verify(productRepository, times(1)).save(testProduct);
-    }
-
-    @Test
-    void decreaseStock_WhenStockRemainsPositive_ShouldKeepAvailable() {
-        // Arrange
-        testProduct.setStock(10);
-        testProduct.setIsAvailable(true);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
-
-        // Act
-        productService.decreaseStock(productId, 5);
-
-        // Assert
-        assertThat(testProduct.getStock()).isEqualTo(5);
-        assertThat(testProduct.getIsAvailable()).isTrue();
-        verify(productRepository, times(1)).save(testProduct);
-    }
-
-    @Test
-    void increaseStock_WhenProductWasUnavailable_ShouldSetAvailableToTrue() {
-        // Arrange
-        testProduct.setStock(0);
-        testProduct.setIsAvailable(false);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
-
-        // Act
-        productService.increaseStock(productId, 5);
-
-        // Assert
-        assertThat(testProduct.getStock()).isEqualTo(5);
-        assertThat(testProduct.getIsAvailable()).isTrue();
-        verify(productRepository, times(1)).save(testProduct);
+        verify(productSearchIndex, never()).search(any());
     }
 
-    @Test
-    void increaseStock_WhenProductAlreadyAvailable_ShouldKeepAvailable() {
-        // Arrange
-        testProduct.setStock(5);
-        testProduct.setIsAvailable(true);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
-
-        // Act
-        productService.increaseStock(productId, 3);
-
-        // Assert
-        assertThat(testProduct.getStock()).isEqualTo(8);
-        assertThat(testProduct.getIsAvailable()).isTrue();
-        verify(productRepository, times(1)).save(testProduct);
+    private static Window<Product> windowOf(Product product, boolean hasNext) {
+        return Window.from(List.of(product), index -> ScrollPosition.forward(Map.of(
+                "price", product.getPrice(),
+                "createdAt", Instant.parse("2025-01-01T00:00:00Z"),
+                "rating", BigDecimal.ZERO,
+                "id", product.getId())), hasNext);
     }
 }
@@ -0,0 +1,121 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.exception.InsufficientStockException;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one product from many threads to prove stock updates cannot oversell
+ */
+@SpringBootTest
+class ProductStockConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 200;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setName("Concurrency Test Product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setCategory(categoryRepository.findAll().get(0));
+        product.setStock(INITIAL_STOCK);
+        product.setIsAvailable(true);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void decreaseStock_UnderConcurrentCheckouts_ShouldNeverOversell() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(ATTEMPTS, () -> {
+            try {
+                productService.decreaseStock(product.getId(), 1);
+                sold.incrementAndGet();
+            } catch (InsufficientStockException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(sold.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(ATTEMPTS - INITIAL_STOCK);
+        assertThat(reloaded.getStock()).isZero();
+        assertThat(reloaded.getIsAvailable()).isFalse();
+    }
+
+    @Test
+    void increaseAndDecreaseStock_Interleaved_ShouldNotLoseUpdates() throws Exception {
+        runConcurrently(ATTEMPTS, () -> productService.increaseStock(product.getId(), 2));
+        runConcurrently(ATTEMPTS, () -> productService.decreaseStock(product.getId(), 1));
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getStock()).isEqualTo(INITIAL_STOCK + ATTEMPTS);
+        assertThat(reloaded.getIsAvailable()).isTrue();
+    }
+
+    @Test
+    void increaseStock_AfterSellingOut_ShouldMakeProductAvailableAgain() {
+        productService.decreaseStock(product.getId(), INITIAL_STOCK);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getIsAvailable()).isFalse();
+
+        productService.increaseStock(product.getId(), 5);
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getStock()).isEqualTo(5);
+        assertThat(reloaded.getIsAvailable()).isTrue();
+    }
+
+    private static void runConcurrently(int tasks, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.dto.SuggestionDto;
+import com.groceryapp.backend.event.ProductChangedEvent;
+import com.groceryapp.backend.event.ReferenceDataChangedEvent;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Product;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggesterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private ProductSuggester productSuggester;
+
+    private Product milk;
+    private Product mango;
+    private Product maggi;
+
+    @BeforeEach
+    void setUp() {
+        Category dairy = new Category();
+        dairy.setId(UUID.randomUUID());
+        dairy.setName("Dairy & Bakery");
+        dairy.setDisplayOrder(2);
+
+        milk = product("Amul Taaza Toned Milk", "4.50", 1200, false);
+        mango = product("Mango - Alphonso", "4.80", 300, true);
+        maggi = product("Maggi Noodles", "3.90", 50, false);
+
+        when(categoryRepository.findByIsActiveTrue()).thenReturn(List.of(dairy));
+        when(productRepository.findAll()).thenReturn(List.of(milk, mango, maggi));
+        productSuggester.reload();
+    }
+
+    @Test
+    void suggest_WithPrefix_ShouldRankByWeight() {
+        List<SuggestionDto> result = productSuggester.suggest("ma", 5);
+
+        // Trending mango outranks maggi
+        assertThat(result).extracting(SuggestionDto::getText)
+                .containsExactly("Mango - Alphonso", "Maggi Noodles");
+    }
+
+    @Test
+    void suggest_ShouldMatchAnyWordInName() {
+        List<SuggestionDto> result = productSuggester.suggest("toned", 5);
+
+        assertThat(result).extracting(SuggestionDto::getId).containsExactly(milk.getId());
+    }
+
+    @Test
+    void suggest_ShouldIncludeCategoriesAheadOfProducts() {
+        List<SuggestionDto> result = productSuggester.suggest("da", 5);
+
+        assertThat(result).extracting(SuggestionDto::getType).containsExactly("CATEGORY");
+        assertThat(result.get(0).getText()).isEqualTo("Dairy & Bakery");
+    }
+
+    @Test
+    void suggest_WithOneTypo_ShouldReturnFuzzyMatches() {
+        assertThat(productSuggester.suggest("mlik", 5)).extracting(SuggestionDto::getText)
+                .containsExactly("Amul Taaza Toned Milk"); // transposition
+        assertThat(productSuggester.suggest("mangp", 5)).extracting(SuggestionDto::getText)
+                .containsExactly("Mango - Alphonso"); // substitution
+        assertThat(productSuggester.suggest("magi noo", 5)).extracting(SuggestionDto::getText)
+                .containsExactly("Maggi Noodles"); // deletion
+    }
+
+    @Test
+    void suggest_ShouldRespectLimit() {
+        assertThat(productSuggester.suggest("m", 1)).hasSize(1);
+        assertThat(productSuggester.suggest("m", 100)).hasSizeLessThanOrEqualTo(ProductSuggester.MAX_LIMIT);
+    }
+
+    @Test
+    void suggest_WithBlankPrefix_ShouldReturnEmptyList() {
+        assertThat(productSuggester.suggest("  ", 5)).isEmpty();
+        assertThat(productSuggester.suggest(null, 5)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_ShouldAddAndRemoveEntries() {
+        ProductResponseDto muesli = new ProductResponseDto();
+        muesli.setId(UUID.randomUUID());
+        muesli.setName("Muesli Crunch");
+        muesli.setIsAvailable(true);
+
+        productSuggester.onProductChanged(ProductChangedEvent.upserted(muesli));
+        assertThat(productSuggester.suggest("mues", 5)).extracting(SuggestionDto::getText)
+                .containsExactly("Muesli Crunch");
+
+        productSuggester.onProductChanged(ProductChangedEvent.deleted(muesli.getId()));
+        assertThat(productSuggester.suggest("mues", 5)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_WhenProductUnavailable_ShouldStopSuggestingIt() {
+        ProductResponseDto unavailable = new ProductResponseDto();
+        unavailable.setId(maggi.getId());
+        unavailable.setName(maggi.getName());
+        unavailable.setIsAvailable(false);
+
+        productSuggester.onProductChanged(ProductChangedEvent.upserted(unavailable));
+
+        assertThat(productSuggester.suggest("maggi", 5)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_WithStockAdjustment_ShouldHideSoldOutProductsUntilRestocked() {
+        productSuggester.onProductChanged(ProductChangedEvent.stockAdjusted(maggi.getId(), -maggi.getStock()));
+        assertThat(productSuggester.suggest("maggi", 5)).isEmpty();
+
+        productSuggester.onProductChanged(ProductChangedEvent.stockAdjusted(maggi.getId(), 3));
+        assertThat(productSuggester.suggest("maggi", 5)).extracting(SuggestionDto::getText)
+                .containsExactly("Maggi Noodles");
+    }
+
+    @Test
+    void onReferenceDataChanged_ShouldReloadCategoriesOnNextLookup() {
+        Category snacks = new Category();
+        snacks.setId(UUID.randomUUID());
+        snacks.setName("Snacks & Branded Foods");
+        when(categoryRepository.findByIsActiveTrue()).thenReturn(List.of(snacks));
+
+        productSuggester.onReferenceDataChanged(new ReferenceDataChangedEvent());
+
+        assertThat(productSuggester.suggest("da", 5)).isEmpty();
+        assertThat(productSuggester.suggest("sn", 5)).extracting(SuggestionDto::getId)
+                .containsExactly(snacks.getId());
+    }
+
+    private static Product product(String name, String rating, int reviewCount, boolean trending) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName(name);
+        product.setRating(new BigDecimal(rating));
+        product.setReviewCount(reviewCount);
+        product.setIsTrending(trending);
+        product.setStock(10);
+        product.setIsAvailable(true);
+        return product;
+    }
+}
@@ -0,0 +1,130 @@
+package com.groceryapp.backend.service;
+
+import com.groceryapp.backend.dto.ProductRequestDto;
+import com.groceryapp.backend.dto.ProductResponseDto;
+import com.groceryapp.backend.model.Brand;
+import com.groceryapp.backend.model.Category;
+import com.groceryapp.backend.model.Subcategory;
+import com.groceryapp.backend.repository.BrandRepository;
+import com.groceryapp.backend.repository.CategoryRepository;
+import com.groceryapp.backend.repository.SubcategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks product writes resolve references from the registry and that writes to the reference tables refresh it
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ReferenceDataRegistryTest {
+
+    @Autowired
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SubcategoryRepository subcategoryRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Subcategory subcategory;
+    private Brand brand;
+    private final List<UUID> createdProducts = new ArrayList<>();
+    private Brand createdBrand;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        subcategory = subcategoryRepository.findAll().get(0);
+        brand = brandRepository.findAll().get(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        createdProducts.forEach(productService::deleteProduct);
+        if (createdBrand != null) {
+            brandRepository.deleteById(createdBrand.getId());
+        }
+    }
+
+    @Test
+    void createProduct_ShouldNotLoadCategorySubcategoryOrBrand() {
+        UUID categoryId = categoryOf(subcategory);
+        referenceDataRegistry.categoryName(categoryId);
+        statistics.clear();
+
+        ProductResponseDto created = productService.createProduct(request(categoryId));
+        createdProducts.add(created.getId());
+
+        assertThat(statistics.getEntityStatistics(Category.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Subcategory.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Brand.class.getName()).getLoadCount()).isZero();
+        assertThat(created.getCategoryName()).isEqualTo(referenceDataRegistry.categoryName(categoryId).orElseThrow());
+        assertThat(created.getSubcategoryName()).isEqualTo(subcategory.getName());
+        assertThat(created.getBrandName()).isEqualTo(brand.getName());
+    }
+
+    @Test
+    void createProduct_WithUnknownBrand_ShouldThrow() {
+        ProductRequestDto request = request(categoryOf(subcategory));
+        UUID unknownBrand = UUID.randomUUID();
+        request.setBrandId(unknownBrand);
+
+        assertThatThrownBy(() -> productService.createProduct(request))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Brand not found with ID: " + unknownBrand);
+    }
+
+    @Test
+    void brandSavedThroughJpa_ShouldBeVisibleOnNextRead() {
+        assertThat(referenceDataRegistry.brandName(brand.getId())).contains(brand.getName());
+
+        Brand fresh = new Brand();
+        fresh.setName("Registry Test Brand");
+        createdBrand = brandRepository.save(fresh);
+        assertThat(referenceDataRegistry.brandName(createdBrand.getId())).contains("Registry Test Brand");
+
+        createdBrand.setName("Renamed Registry Brand");
+        createdBrand = brandRepository.save(createdBrand);
+        assertThat(referenceDataRegistry.brandName(createdBrand.getId())).contains("Renamed Registry Brand");
+    }
+
+    private UUID categoryOf(Subcategory subcategory) {
+        // getId() on the lazy proxy does not need a session
+        return subcategory.getCategory().getId();
+    }
+
+    private ProductRequestDto request(UUID categoryId) {
+        ProductRequestDto request = new ProductRequestDto();
+        request.setName("Registry Test Product");
+        request.setPrice(new BigDecimal("9.99"));
+        request.setCategoryId(categoryId);
+        request.setSubcategoryId(subcategory.getId());
+        request.setBrandId(brand.getId());
+        request.setStock(5);
+        return request;
+    }
+}